@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.api.model;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Set of a form view. It reads the set of the shared form definition until it's modified, then it keeps its own copy
+ * and the definition set is left untouched.
+ */
+class CopyOnWriteSet<E> extends AbstractSet<E> implements Serializable {
+
+    private final Set<E> shared;
+    private Set<E> own;
+    private int modifications;
+
+    CopyOnWriteSet(Set<E> shared) {
+        this.shared = shared;
+    }
+
+    /**
+     * Determines if the set is still reading the definition set.
+     */
+    boolean isShared() {
+        return own == null;
+    }
+
+    Set<E> getShared() {
+        return shared;
+    }
+
+    int getModifications() {
+        return modifications;
+    }
+
+    protected Set<E> current() {
+        return own != null ? own : shared;
+    }
+
+    protected Set<E> write() {
+        if (own == null) {
+            Set<E> source = shared instanceof TrackedSet ? ((TrackedSet<E>) shared).getDelegate() : shared;
+            own = source instanceof SortedSet ? new TreeSet<E>((SortedSet<E>) source) : new LinkedHashSet<E>(source);
+        }
+        return own;
+    }
+
+    @Override
+    public int size() {
+        return current().size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return current().contains(o);
+    }
+
+    @Override
+    public boolean add(E e) {
+        if (isShared() && shared.contains(e)) return false;
+        if (!write().add(e)) return false;
+        modifications++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (isShared() && !shared.contains(o)) return false;
+        if (!write().remove(o)) return false;
+        modifications++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        if (current().isEmpty()) return;
+        write().clear();
+        modifications++;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        final Iterator<E> it = current().iterator();
+        final boolean sharedIterator = isShared();
+        return new Iterator<E>() {
+            private E last;
+
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            public E next() {
+                last = it.next();
+                return last;
+            }
+
+            public void remove() {
+                // The definition set is never modified, the element is removed from the copy
+                if (sharedIterator) write().remove(last);
+                else it.remove();
+                modifications++;
+            }
+        };
+    }
+}
@@ -134,6 +134,7 @@ public class Field implements Serializable, Comparable<Field> {
 
     public void setFieldName(String fieldName) {
         this.fieldName = fieldName;
+        if (form != null) form.invalidateFieldIndex();
     }
 
     public Boolean getReadonly() {
@@ -158,6 +159,7 @@ public class Field implements Serializable, Comparable<Field> {
 
     public void setGroupWithPrevious(Boolean groupWithPrevious) {
         this.groupWithPrevious = groupWithPrevious;
+        if (form != null) form.invalidateRenderPlans();
     }
 
     public Long getMaxlength() {
@@ -230,6 +232,7 @@ public class Field implements Serializable, Comparable<Field> {
 
     public void setFieldType(FieldType fieldType) {
         this.fieldType = fieldType;
+        if (form != null) form.invalidateRenderPlans();
     }
 
     public String getBag() {
@@ -514,6 +517,7 @@ public class Field implements Serializable, Comparable<Field> {
 
     public void setPosition(int position) {
         this.position = position;
+        if (form != null) form.invalidateRenderPlans();
     }
 
     public Boolean getVerticalAlignment() {
@@ -530,6 +534,7 @@ public class Field implements Serializable, Comparable<Field> {
 
     public void setInputBinding(String inputBinding) {
         this.inputBinding = inputBinding;
+        if (form != null) form.invalidateFieldIndex();
     }
 
     public String getOutputBinding() {
@@ -538,6 +543,7 @@ public class Field implements Serializable, Comparable<Field> {
 
     public void setOutputBinding(String outputBinding) {
         this.outputBinding = outputBinding;
+        if (form != null) form.invalidateFieldIndex();
     }
 
     public Form getForm() {
@@ -546,6 +552,10 @@ public class Field implements Serializable, Comparable<Field> {
 
     public void setForm(Form form) {
         this.form = form;
+        if (form != null) {
+            form.invalidateFieldIndex();
+            form.invalidateRenderPlans();
+        }
     }
 
     public Set getPropertyNames() {
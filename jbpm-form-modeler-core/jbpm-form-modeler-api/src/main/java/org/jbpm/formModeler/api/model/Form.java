@@ -57,15 +57,25 @@ public class Form implements Serializable, Comparable{
 
     private Set<FormDisplayInfo> formDisplayInfos;
 
-    private Set<Field> formFields = new TreeSet<Field>();
+    private Set<Field> formFields = new TrackedSet<Field>(new TreeSet<Field>());
 
     private Set<DataHolder> holders;
 
     private HashMap dataHolderRenderInfo = new HashMap();
 
+    private transient volatile FormFieldIndex fieldIndex;
+
+    // Modifications of the replaced fields and holders sets and field index invalidations, see getModificationCount()
+    private transient volatile long modifications;
+
+    private transient volatile Map<String, Object> renderPlans;
+
+    // The shared form this form is a view of, see copyView()
+    private transient Form definition;
+
     public Form() {
         formDisplayInfos = new TreeSet<FormDisplayInfo>();
-        holders = new TreeSet<DataHolder>();
+        holders = new TrackedSet<DataHolder>(new TreeSet<DataHolder>());
     }
 
     public Long getId() {
@@ -145,7 +155,80 @@ public class Form implements Serializable, Comparable{
     }
 
     public void setFormFields(Set <Field>formFields) {
-        this.formFields = formFields;
+        modifications += modificationsOf(this.formFields) + 1;
+        this.formFields = tracked(formFields);
+        invalidateFieldIndex();
+        invalidateRenderPlans();
+    }
+
+    /**
+     * Get the index of this form fields. The index is built the first time it's requested and kept until the fields
+     * or holders of the form are added or removed, or it's invalidated.
+     *
+     * @return the index of this form fields
+     */
+    public FormFieldIndex getFieldIndex() {
+        if (isSharingDefinition()) return definition.getFieldIndex();
+
+        long modificationCount = getModificationCount();
+        FormFieldIndex index = fieldIndex;
+        if (index == null || !index.isIndexOf(modificationCount)) {
+            index = new FormFieldIndex(formFields, holders, modificationCount);
+            fieldIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Drops the field index, must be called when a field name or binding, or a holder, is modified.
+     */
+    public void invalidateFieldIndex() {
+        modifications++;
+        fieldIndex = null;
+    }
+
+    /**
+     * Get the number of times the fields or holders of this form were added, removed or replaced, or the field index
+     * was invalidated. It only grows, so the indexes and plans built from this form keep the count they were built
+     * with to know they are outdated, even if the fields were modified directly on the set returned by
+     * getFormFields().
+     */
+    public long getModificationCount() {
+        if (isSharingDefinition()) return definition.getModificationCount();
+        return modifications + modificationsOf(formFields) + modificationsOf(holders);
+    }
+
+    /**
+     * Get the rendering plan kept for this form with the given key, or null if there isn't any.
+     */
+    public Object getRenderPlan(String key) {
+        if (isSharingDefinition()) return definition.getRenderPlan(key);
+
+        Map<String, Object> plans = renderPlans;
+        return plans != null ? plans.get(key) : null;
+    }
+
+    /**
+     * Keeps a rendering plan for this form until the fields are added, removed, moved or grouped, or their type
+     * changes.
+     */
+    public void setRenderPlan(String key, Object plan) {
+        if (isSharingDefinition()) {
+            definition.setRenderPlan(key, plan);
+            return;
+        }
+
+        Map<String, Object> plans = renderPlans;
+        Map<String, Object> newPlans = plans != null ? new HashMap<String, Object>(plans) : new HashMap<String, Object>();
+        newPlans.put(key, plan);
+        renderPlans = newPlans;
+    }
+
+    /**
+     * Drops the rendering plans, must be called when the fields layout is modified.
+     */
+    public void invalidateRenderPlans() {
+        renderPlans = null;
     }
 
     public void setDataHolder(DataHolder holder) {
@@ -157,6 +240,7 @@ public class Form implements Serializable, Comparable{
             holders.remove(holder);
         }
         holders.add(holder);
+        invalidateFieldIndex();
     }
 
     public void removeDataHolder(String id) {
@@ -166,6 +250,7 @@ public class Form implements Serializable, Comparable{
                 DataHolder holder = (DataHolder) it.next();
                 if (id.equals(holder.getUniqeId())) it.remove();
             }
+            invalidateFieldIndex();
         }
 
     }
@@ -217,13 +302,7 @@ public class Form implements Serializable, Comparable{
      */
     public Field getField(String name) {
         if (name == null || name.trim().length() == 0) return null;
-        if (getFormFields() != null) {
-
-            for (Field field : formFields) {
-                if (name.equals(field.getFieldName()))
-                    return field;
-            }
-        }
+        if (getFormFields() != null) return getFieldIndex().getField(name);
         return null;
     }
 
@@ -243,6 +322,14 @@ public class Form implements Serializable, Comparable{
 
     protected void setDisplayModeText(final String selector, final String data) {
         if (getFormDisplayInfos() == null) setFormDisplayInfos(new HashSet());
+        if (formDisplayInfos instanceof CopyOnWriteSet) {
+            // The display infos are modified, they can't be the ones of the definition
+            Set<FormDisplayInfo> displayInfos = new TreeSet<FormDisplayInfo>();
+            for (FormDisplayInfo displayInfo : formDisplayInfos) {
+                displayInfos.add(new FormDisplayInfo(displayInfo.getDisplayMode(), displayInfo.getDisplayData(), displayInfo.getDisplayModifier()));
+            }
+            formDisplayInfos = displayInfos;
+        }
         FormDisplayInfo theTemplateInfo = null;
 
         for (Iterator it = getFormDisplayInfos().iterator(); it.hasNext();) {
@@ -268,7 +355,9 @@ public class Form implements Serializable, Comparable{
     }
 
     public void setHolders(Set<DataHolder> holders) {
-        this.holders = holders;
+        modifications += modificationsOf(this.holders) + 1;
+        this.holders = tracked(holders);
+        invalidateFieldIndex();
     }
 
     public String getFormTemplate() {
@@ -281,9 +370,7 @@ public class Form implements Serializable, Comparable{
 
     public boolean containsFormField(String fieldName) {
         if (formFields != null && fieldName != null && !"".equals(fieldName))
-            for (Field formField : formFields) {
-                if (formField.getFieldName().equals(fieldName)) return true;
-            }
+            return getFieldIndex().containsField(fieldName);
         return false;
     }
 
@@ -315,16 +402,16 @@ public class Form implements Serializable, Comparable{
         String inputBinding = dataHolder.getInputBinding(fieldName);
         String outputBinding = dataHolder.getOuputBinding(fieldName);
 
-        for (Field field : formFields) {
-            if(dataHolder.getInputId()!=null && dataHolder.getInputId().trim().length()>0){
-                if (!inputBinding.isEmpty() && inputBinding.equals(field.getInputBinding())){
-                    return true;
-                }
+        FormFieldIndex index = getFieldIndex();
+
+        if(dataHolder.getInputId()!=null && dataHolder.getInputId().trim().length()>0){
+            if (!inputBinding.isEmpty() && index.isInputBinding(inputBinding)){
+                return true;
             }
-            if(dataHolder.getOuputId()!=null && dataHolder.getOuputId().trim().length()>0){
-                if (!outputBinding.isEmpty() && outputBinding.equals(field.getOutputBinding())){
-                    return true;
-                }
+        }
+        if(dataHolder.getOuputId()!=null && dataHolder.getOuputId().trim().length()>0){
+            if (!outputBinding.isEmpty() && index.isOutputBinding(outputBinding)){
+                return true;
             }
         }
 
@@ -356,24 +443,13 @@ public class Form implements Serializable, Comparable{
     protected DataHolder getDataHolderFromExpression(String bindingExpression, boolean checkInput) {
         if (bindingExpression == null) return null;
 
-        for (DataHolder holder : holders) {
-            if (checkInput && holder.containsInputBinding(bindingExpression)) return holder;
-            else if (!checkInput && holder.containsOutputBinding(bindingExpression)) return holder;
-        }
-        return null;
+        return getFieldIndex().getDataHolderFromExpression(bindingExpression, checkInput);
     }
 
     public DataHolder getDataHolderByField(Field field) {
         if (field == null || (field.getInputBinding() == null && field.getOutputBinding() == null)) return null;
 
-        for (DataHolder holder : holders) {
-            if (holder.containsBinding(field.getInputBinding())){
-                return holder;
-            } else if (holder.containsBinding(field.getOutputBinding())){
-                return holder;
-            }
-        }
-        return null;
+        return getFieldIndex().getDataHolder(field);
     }
 
     public boolean containsHolder(DataHolder aholder) {
@@ -382,4 +458,68 @@ public class Form implements Serializable, Comparable{
         }
         return false;
     }
+
+    /**
+     * Creates a lightweight view of this form. The view has its own properties, and it reads the fields, holders and
+     * templates of this form until they are added, removed or modified on the view, then the view keeps its own copy
+     * of them and this form isn't affected. While the view fields and holders are the ones of this form the field
+     * index and render plans of this form are used too, so all the views of a form share a single definition.
+     * The Field and DataHolder definitions are always shared and must be treated as read-only.
+     *
+     * @return a new Form sharing this form definition
+     */
+    public Form copyView() {
+        Form view = new Form();
+        view.definition = isSharingDefinition() ? definition : this;
+        view.setId(id);
+        view.setSubject(subject);
+        view.setName(name);
+        view.setDisplayMode(displayMode);
+        view.setLabelMode(labelMode);
+        view.setShowMode(showMode);
+        view.setStatus(status);
+
+        view.formDisplayInfos = viewOf(formDisplayInfos);
+        view.formFields = viewOf(formFields);
+        view.holders = viewOf(holders);
+        view.dataHolderRenderInfo = dataHolderRenderInfo;
+
+        return view;
+    }
+
+    /**
+     * Determines if this form is a view whose fields and holders are still the ones of the form it was copied from.
+     */
+    public boolean isSharingDefinition() {
+        return definition != null && isShared(formFields) && isShared(holders);
+    }
+
+    /**
+     * Get the set the fields are read from: the fields of the shared definition while this form is an unmodified
+     * view of it, its own fields otherwise. Unlike getFormFields() it's the same set for all the views of a form.
+     */
+    public Set<Field> getFieldsSource() {
+        return isSharingDefinition() ? definition.getFieldsSource() : formFields;
+    }
+
+    private static <E> Set<E> tracked(Set<E> set) {
+        if (set == null || set instanceof TrackedSet || set instanceof CopyOnWriteSet) return set;
+        return new TrackedSet<E>(set);
+    }
+
+    private static long modificationsOf(Set set) {
+        if (set instanceof TrackedSet) return ((TrackedSet) set).getModifications();
+        if (set instanceof CopyOnWriteSet) return ((CopyOnWriteSet) set).getModifications();
+        return 0;
+    }
+
+    private static <E> Set<E> viewOf(Set<E> set) {
+        if (set == null) return null;
+        if (isShared(set)) set = ((CopyOnWriteSet<E>) set).getShared();
+        return new CopyOnWriteSet<E>(set);
+    }
+
+    private static boolean isShared(Set set) {
+        return set == null || (set instanceof CopyOnWriteSet && ((CopyOnWriteSet) set).isShared());
+    }
 }
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.api.model;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable index of the fields of a form: fields by name, the holder each field is bound to and the holders of the
+ * field binding expressions. The index reflects the form fields and holders at the moment it was built, Form keeps it
+ * up to date dropping it when the fields or holders change.
+ */
+public final class FormFieldIndex {
+
+    private final Set<DataHolder> holders;
+    private final long modificationCount;
+
+    private final Map<String, Field> fieldsByName = new HashMap<String, Field>();
+    private final Map<Field, DataHolder> holdersByField = new IdentityHashMap<Field, DataHolder>();
+    private final Map<String, DataHolder> holdersByInputBinding = new HashMap<String, DataHolder>();
+    private final Map<String, DataHolder> holdersByOutputBinding = new HashMap<String, DataHolder>();
+    private final Set<String> inputBindings = new HashSet<String>();
+    private final Set<String> outputBindings = new HashSet<String>();
+
+    public FormFieldIndex(Set<Field> fields, Set<DataHolder> holders, long modificationCount) {
+        this.holders = holders;
+        this.modificationCount = modificationCount;
+
+        if (fields == null) return;
+
+        for (Field field : fields) {
+            String fieldName = field.getFieldName();
+            if (fieldName != null && !fieldsByName.containsKey(fieldName)) fieldsByName.put(fieldName, field);
+
+            String inputBinding = field.getInputBinding();
+            String outputBinding = field.getOutputBinding();
+
+            if (inputBinding != null) {
+                inputBindings.add(inputBinding);
+                if (!holdersByInputBinding.containsKey(inputBinding)) holdersByInputBinding.put(inputBinding, findHolder(inputBinding, true));
+            }
+            if (outputBinding != null) {
+                outputBindings.add(outputBinding);
+                if (!holdersByOutputBinding.containsKey(outputBinding)) holdersByOutputBinding.put(outputBinding, findHolder(outputBinding, false));
+            }
+            if (inputBinding != null || outputBinding != null) holdersByField.put(field, findHolder(field));
+        }
+    }
+
+    /**
+     * @return true if this index was built when the form had the given modification count, see
+     * Form.getModificationCount()
+     */
+    public boolean isIndexOf(long modificationCount) {
+        return this.modificationCount == modificationCount;
+    }
+
+    public Field getField(String name) {
+        return fieldsByName.get(name);
+    }
+
+    public boolean containsField(String name) {
+        return fieldsByName.containsKey(name);
+    }
+
+    /**
+     * @return the holder given field is bound to, or null if it isn't bound to any holder
+     */
+    public DataHolder getDataHolder(Field field) {
+        if (holdersByField.containsKey(field)) return holdersByField.get(field);
+        return findHolder(field);
+    }
+
+    /**
+     * @return the holder containing given binding expression, or null if there isn't any
+     */
+    public DataHolder getDataHolderFromExpression(String bindingExpression, boolean checkInput) {
+        Map<String, DataHolder> holdersByBinding = checkInput ? holdersByInputBinding : holdersByOutputBinding;
+        if (holdersByBinding.containsKey(bindingExpression)) return holdersByBinding.get(bindingExpression);
+        return findHolder(bindingExpression, checkInput);
+    }
+
+    public boolean isInputBinding(String binding) {
+        return inputBindings.contains(binding);
+    }
+
+    public boolean isOutputBinding(String binding) {
+        return outputBindings.contains(binding);
+    }
+
+    protected DataHolder findHolder(Field field) {
+        if (field == null || (field.getInputBinding() == null && field.getOutputBinding() == null) || holders == null) return null;
+
+        for (DataHolder holder : holders) {
+            if (holder.containsBinding(field.getInputBinding()) || holder.containsBinding(field.getOutputBinding())) return holder;
+        }
+        return null;
+    }
+
+    protected DataHolder findHolder(String bindingExpression, boolean checkInput) {
+        if (bindingExpression == null || holders == null) return null;
+
+        for (DataHolder holder : holders) {
+            if (checkInput && holder.containsInputBinding(bindingExpression)) return holder;
+            else if (!checkInput && holder.containsOutputBinding(bindingExpression)) return holder;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.api.model;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Set of a form that counts the elements added and removed, so the form knows its fields or holders changed even when
+ * they are modified directly on the set.
+ */
+class TrackedSet<E> extends AbstractSet<E> implements Serializable {
+
+    private final Set<E> delegate;
+    private int modifications;
+
+    TrackedSet(Set<E> delegate) {
+        this.delegate = delegate;
+    }
+
+    Set<E> getDelegate() {
+        return delegate;
+    }
+
+    int getModifications() {
+        return modifications;
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return delegate.contains(o);
+    }
+
+    @Override
+    public boolean add(E e) {
+        if (!delegate.add(e)) return false;
+        modifications++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!delegate.remove(o)) return false;
+        modifications++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        if (delegate.isEmpty()) return;
+        delegate.clear();
+        modifications++;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        final Iterator<E> it = delegate.iterator();
+        return new Iterator<E>() {
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            public E next() {
+                return it.next();
+            }
+
+            public void remove() {
+                it.remove();
+                modifications++;
+            }
+        };
+    }
+}
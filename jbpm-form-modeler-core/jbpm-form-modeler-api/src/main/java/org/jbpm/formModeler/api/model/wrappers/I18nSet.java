@@ -15,27 +15,61 @@
  */
 package org.jbpm.formModeler.api.model.wrappers;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.*;
 
 /**
  *  Wrapper class for Multilanguage Strings
+ *  <p>
+ *  Values are kept in an array indexed by language slot. Slots are shared by all the sets and only the installed
+ *  languages get one, registered on startup. Values of any other language are kept in a small map of the set, so
+ *  languages coming from requests never grow the shared slots. Entries are iterated ordered by language and the set is
+ *  serialized as a TreeSet of I18nEntryImpl, as when it was backed by one.
  */
 public class I18nSet extends AbstractMap implements Serializable, Comparable {
 
-    // Set of I18nEntry objects
-    private TreeSet entrySet = new TreeSet(new I18nEntryComparator());
+    private static final long serialVersionUID = 1499278541420051071L;
+
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("entrySet", TreeSet.class)
+    };
+
+    private static final Object[] EMPTY_VALUES = new Object[0];
+
+    // Value of a language explicitly set to null
+    private static final Object NULL_VALUE = new Object();
+
+    private static final Object slotsLock = new Object();
+
+    // Slots of the installed languages shared by all the sets, replaced when languages are registered
+    private static volatile LanguageSlots slots = new LanguageSlots(new String[0]);
+
+    // Values by language slot, null for the languages not in the set
+    private transient Object[] values = EMPTY_VALUES;
+    // Values of the languages without slot, ordered by language
+    private transient TreeMap<String, Object> otherValues;
+    private transient int size;
+    private transient Set entries;
 
     public I18nSet() {
         super();
     }
 
     public Set entrySet() {
-        return entrySet;
+        if (entries == null) entries = new EntrySet();
+        return entries;
     }
 
     public I18nSet(Set s) {
-        entrySet.addAll(s == null ? Collections.EMPTY_SET : s);
+        if (s != null) {
+            for (Iterator it = s.iterator(); it.hasNext();) {
+                add(it.next());
+            }
+        }
     }
 
     public I18nSet(Map m) {
@@ -43,35 +77,108 @@ public class I18nSet extends AbstractMap implements Serializable, Comparable {
         for (Iterator it = m.keySet().iterator(); it.hasNext();) {
             final String lang = (String) it.next();
             final String value = (String) m.get(lang);
-            entrySet.add(new I18nEntryImpl(lang, value));
+            putValue(lang, value);
         }
     }
 
+    /**
+     * Gives the installed languages their slots so they are the first ones in the values of every set. Only the
+     * installed languages are registered, by the LocaleTable on initialisation. The registered slots are never released.
+     */
+    public static void registerLanguages(String[] langs) {
+        if (langs == null) return;
+        synchronized (slotsLock) {
+            slots = slots.add(langs);
+        }
+    }
+
+    /**
+     * Determines if the language has a slot in the values of every set.
+     */
+    public static boolean isRegisteredLanguage(String lang) {
+        return slots.indexOf(lang) != -1;
+    }
 
     public boolean add(Object o) {
-        if (o == null || o instanceof I18nEntry)
-            return entrySet.add(o);
-        return false;
+        if (!(o instanceof I18nEntry)) return false;
+
+        I18nEntry entry = (I18nEntry) o;
+        if (containsKey(entry.getLang())) return false;
+        putValue(entry.getLang(), entry.getValue());
+        return true;
     }
 
     public String getValue(String lang) {
-        for (Iterator it = entrySet.iterator(); it.hasNext();) {
-            I18nEntry entry = (I18nEntry) it.next();
-            if (lang.equals(entry.getLang())) {
-                return (String) entry.getValue();
-            }
-        }
-        return null;
+        return (String) getLangValue(lang);
     }
 
     public void setValue(final String lang, final String value) {
-        for (Iterator it = entrySet.iterator(); it.hasNext();) {
-            I18nEntry entry = (I18nEntry) it.next();
-            if (lang.equals(entry.getLang())) {
-                it.remove();
-            }
+        putValue(lang, value);
+    }
+
+    public Object get(Object key) {
+        if (!(key instanceof String)) return null;
+        return getLangValue((String) key);
+    }
+
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String)) return false;
+        String lang = (String) key;
+        int slot = slots.indexOf(lang);
+        if (slot != -1 && slot < values.length && values[slot] != null) return true;
+        return otherValues != null && otherValues.containsKey(lang);
+    }
+
+    public Object remove(Object key) {
+        if (!(key instanceof String)) return null;
+        String lang = (String) key;
+        Object value = getLangValue(lang);
+        removeLang(lang);
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        values = EMPTY_VALUES;
+        otherValues = null;
+        size = 0;
+    }
+
+    protected Object getLangValue(String lang) {
+        Object value = null;
+        int slot = slots.indexOf(lang);
+        if (slot != -1 && slot < values.length) value = values[slot];
+        // A language registered after the value was set keeps it out of the slots
+        if (value == null && otherValues != null && lang != null) value = otherValues.get(lang);
+        return value == NULL_VALUE ? null : value;
+    }
+
+    protected void putValue(String lang, Object value) {
+        if (lang == null) return;
+        Object storedValue = value == null ? NULL_VALUE : value;
+        int slot = slots.indexOf(lang);
+        if (slot == -1) {
+            if (otherValues == null) otherValues = new TreeMap<String, Object>();
+            if (otherValues.put(lang, storedValue) == null) size++;
+            return;
+        }
+        if (otherValues != null && otherValues.remove(lang) != null) size--;
+        if (slot >= values.length) values = Arrays.copyOf(values, slot + 1);
+        if (values[slot] == null) size++;
+        values[slot] = storedValue;
+    }
+
+    protected void removeLang(String lang) {
+        int slot = slots.indexOf(lang);
+        if (slot != -1 && slot < values.length && values[slot] != null) {
+            values[slot] = null;
+            size--;
+        } else if (otherValues != null && lang != null && otherValues.remove(lang) != null) {
+            size--;
         }
-        add(new I18nEntryImpl(lang, value));
     }
 
     public int compareTo(Object o) {
@@ -100,7 +207,186 @@ public class I18nSet extends AbstractMap implements Serializable, Comparable {
     }
 
     public Iterator iterator() {
-        return entrySet.iterator();
+        return entrySet().iterator();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        TreeSet entrySet = new TreeSet(new I18nEntryComparator());
+        for (Iterator it = iterator(); it.hasNext();) {
+            I18nEntry entry = (I18nEntry) it.next();
+            entrySet.add(new I18nEntryImpl(entry.getLang(), entry.getValue()));
+        }
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("entrySet", entrySet);
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        values = EMPTY_VALUES;
+        otherValues = null;
+        Set entrySet = (Set) fields.get("entrySet", null);
+        if (entrySet != null) {
+            for (Iterator it = entrySet.iterator(); it.hasNext();) {
+                add(it.next());
+            }
+        }
+    }
+
+    /**
+     * Languages by slot, with the slots ordered by language to iterate the sets.
+     */
+    private static class LanguageSlots {
+        private final String[] languages;
+        private final Map<String, Integer> indexes;
+        private final int[] ordered;
+
+        LanguageSlots(String[] languages) {
+            this.languages = languages;
+            indexes = new HashMap<String, Integer>(languages.length * 2);
+            for (int i = 0; i < languages.length; i++) {
+                indexes.put(languages[i], i);
+            }
+            String[] sorted = languages.clone();
+            Arrays.sort(sorted);
+            ordered = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                ordered[i] = indexes.get(sorted[i]);
+            }
+        }
+
+        int indexOf(String lang) {
+            Integer index = lang != null ? indexes.get(lang) : null;
+            return index != null ? index : -1;
+        }
+
+        LanguageSlots add(String[] langs) {
+            List<String> newLanguages = new ArrayList<String>(Arrays.asList(languages));
+            for (int i = 0; i < langs.length; i++) {
+                String lang = langs[i];
+                if (lang != null && !indexes.containsKey(lang) && !newLanguages.contains(lang)) newLanguages.add(lang.intern());
+            }
+            if (newLanguages.size() == languages.length) return this;
+            return new LanguageSlots(newLanguages.toArray(new String[newLanguages.size()]));
+        }
+    }
+
+    private class EntrySet extends AbstractSet {
+        public Iterator iterator() {
+            return new EntryIterator();
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean add(Object o) {
+            return I18nSet.this.add(o);
+        }
+
+        public void clear() {
+            I18nSet.this.clear();
+        }
+    }
+
+    /**
+     * Merges the slots ordered by language with the languages out of the slots.
+     */
+    private class EntryIterator implements Iterator {
+        private final String[] languages = slots.languages;
+        private final int[] ordered = slots.ordered;
+        private final String[] others = otherValues != null ? otherValues.keySet().toArray(new String[otherValues.size()]) : new String[0];
+        private int position = nextPosition(-1);
+        private int otherPosition = nextOtherPosition(-1);
+        private String current;
+
+        public boolean hasNext() {
+            return position < ordered.length || otherPosition < others.length;
+        }
+
+        public Object next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            String slotLang = position < ordered.length ? languages[ordered[position]] : null;
+            String otherLang = otherPosition < others.length ? others[otherPosition] : null;
+            if (slotLang == null || (otherLang != null && otherLang.compareTo(slotLang) < 0)) {
+                current = otherLang;
+                otherPosition = nextOtherPosition(otherPosition);
+            } else {
+                current = slotLang;
+                position = nextPosition(position);
+            }
+            return new LangEntry(current);
+        }
+
+        public void remove() {
+            if (current == null) throw new IllegalStateException();
+            removeLang(current);
+            current = null;
+        }
+
+        private int nextPosition(int from) {
+            int next = from + 1;
+            while (next < ordered.length && (ordered[next] >= values.length || values[ordered[next]] == null)) next++;
+            return next;
+        }
+
+        private int nextOtherPosition(int from) {
+            int next = from + 1;
+            while (next < others.length && (otherValues == null || !otherValues.containsKey(others[next]))) next++;
+            return next;
+        }
+    }
+
+    /**
+     * Entry reading and writing the value of its language in the set.
+     */
+    private class LangEntry implements I18nEntry {
+        private String lang;
+
+        LangEntry(String lang) {
+            this.lang = lang;
+        }
+
+        public String getLang() {
+            return lang;
+        }
+
+        public Object getKey() {
+            return getLang();
+        }
+
+        public Object getValue() {
+            return getLangValue(lang);
+        }
+
+        public void setLang(String s) {
+            Object value = getValue();
+            removeLang(lang);
+            lang = s;
+            putValue(lang, value);
+        }
+
+        public Object setValue(Object s) {
+            Object oldValue = getValue();
+            putValue(lang, s);
+            return oldValue;
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) return false;
+            Map.Entry entry = (Map.Entry) o;
+            Object value = getValue();
+            return getLang().equals(entry.getKey()) && (value == null ? entry.getValue() == null : value.equals(entry.getValue()));
+        }
+
+        public int hashCode() {
+            Object value = getValue();
+            return getLang().hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        public String toString() {
+            return getLang() + "=" + getValue();
+        }
     }
 }
 class I18nEntryComparator implements Comparator<I18nEntry>, Serializable {
@@ -20,7 +20,9 @@ import org.xml.sax.InputSource;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.io.Writer;
 import java.util.Map;
 import java.util.Properties;
 
@@ -28,6 +30,8 @@ import java.util.Properties;
 public interface FormSerializationManager extends Serializable {
 
     String generateFormXML(Form form);
+    void generateFormXML(Form form, Writer writer) throws IOException;
+    void generateFormXML(Form form, OutputStream os) throws IOException;
     String generateHeaderFormFormId(long formId) throws IOException;
 
     Form loadFormFromXML(String xml, String path) throws Exception;
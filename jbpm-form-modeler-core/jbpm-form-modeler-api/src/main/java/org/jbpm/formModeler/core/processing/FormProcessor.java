@@ -32,6 +32,10 @@ public interface FormProcessor {
     public static final String DEFAULT_NAMESPACE = "NS";
     public static final String MODIFIED_FIELD_NAMES = "-jbpm-modifiedFieldNames";
     public static final String FORM_MODE = "-jbpm-formMode";
+    /**
+     * @deprecated form statuses no longer keep an interpreter, formulas are evaluated on the FormulaEngine ones
+     */
+    @Deprecated
     public static final String ATTR_INTERPRETER = "-jbpm-formulasInterpreter";
 
 
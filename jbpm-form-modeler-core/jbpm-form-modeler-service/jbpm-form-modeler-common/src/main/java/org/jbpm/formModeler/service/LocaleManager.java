@@ -43,7 +43,7 @@ public class LocaleManager implements Serializable {
     /**
      * The list of locales supported.
      */
-    @Inject @Config("en,es,ca,fr,ja,de,pt,zh")
+    @Inject @Config(LocaleTable.DEFAULT_INSTALLED_LOCALE_IDS)
     protected String[] installedLocaleIds;
 
     /**
@@ -52,6 +52,12 @@ public class LocaleManager implements Serializable {
     @Inject @Config("en")
     protected String defaultLocaleId;
 
+    /**
+     * The locale tables shared by all the sessions.
+     */
+    @Inject
+    protected LocaleTable localeTable;
+
     private Locale[] availableLocales;
     private Locale currentLocale;
     private Locale currentEditLocale;
@@ -59,13 +65,8 @@ public class LocaleManager implements Serializable {
 
     @PostConstruct
     public void init() {
-        List availableLocalesList = new ArrayList();
-        for (int i = 0; i < installedLocaleIds.length; i++) {
-            Locale locale = getLocaleById(installedLocaleIds[i]);
-            if (locale != null) availableLocalesList.add(locale);
-        }
-        availableLocales = (Locale[]) availableLocalesList.toArray(new Locale[availableLocalesList.size()]);
-        defaultLocale = getLocaleById(defaultLocaleId);
+        availableLocales = localeTable.getLocales(installedLocaleIds);
+        defaultLocale = localeTable.getLocaleById(defaultLocaleId);
     }
 
     public String[] getInstalledLocaleIds() {
@@ -74,6 +75,7 @@ public class LocaleManager implements Serializable {
 
     public void setInstalledLocaleIds(String[] installedLocaleIds) {
         this.installedLocaleIds = installedLocaleIds;
+        this.availableLocales = localeTable.getLocales(installedLocaleIds);
     }
 
     public String getDefaultLocaleId() {
@@ -91,19 +93,14 @@ public class LocaleManager implements Serializable {
      * @return a Locale whose toString() equals given localeId, or null if it doesn't exist
      */
     public Locale getLocaleById(String localeId) {
-        Locale[] allLocales = getAllLocales();
-        for (int i = 0; i < allLocales.length; i++) {
-            Locale locale = allLocales[i];
-            if (locale.toString().equals(localeId)) return locale;
-        }
-        return null;
+        return localeTable.getLocaleById(localeId);
     }
 
     /**
      * Locales supported by the VM
      */
     public Locale[] getAllLocales() {
-        return Locale.getAvailableLocales();
+        return localeTable.getAllLocales();
     }
 
     /**
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.service;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jbpm.formModeler.api.model.wrappers.I18nSet;
+import org.jbpm.formModeler.service.annotation.config.Config;
+import org.jbpm.formModeler.service.cdi.CDIBeanLocator;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Locales supported by the VM indexed by id, shared by all the sessions so the LocaleManager of a new session
+ * doesn't have to go through them. Returned arrays are shared and must not be modified.
+ * <p/>
+ * On initialisation the installed languages are given the first slots of the I18nSets.
+ */
+@ApplicationScoped
+public class LocaleTable {
+
+    public static final String DEFAULT_INSTALLED_LOCALE_IDS = "en,es,ca,fr,ja,de,pt,zh";
+
+    public static LocaleTable lookup() {
+        return (LocaleTable) CDIBeanLocator.getBeanByType(LocaleTable.class);
+    }
+
+    /**
+     * The locales installed by default on the LocaleManagers.
+     */
+    @Inject @Config(DEFAULT_INSTALLED_LOCALE_IDS)
+    protected String[] installedLocaleIds;
+
+    private Locale[] allLocales;
+    private Map<String, Locale> localesById;
+    private Map<String, Locale[]> localeLists = new ConcurrentHashMap<String, Locale[]>();
+
+    @PostConstruct
+    public void init() {
+        allLocales = Locale.getAvailableLocales();
+        localesById = new HashMap<String, Locale>(allLocales.length * 2);
+        for (int i = 0; i < allLocales.length; i++) {
+            String id = allLocales[i].toString();
+            if (!localesById.containsKey(id)) localesById.put(id, allLocales[i]);
+        }
+        registerLanguages();
+    }
+
+    protected void registerLanguages() {
+        if (installedLocaleIds == null) return;
+        Locale[] locales = getLocales(installedLocaleIds);
+        String[] langs = new String[locales.length];
+        for (int i = 0; i < locales.length; i++) {
+            langs[i] = locales[i].toString();
+        }
+        I18nSet.registerLanguages(langs);
+    }
+
+    /**
+     * Locales supported by the VM
+     */
+    public Locale[] getAllLocales() {
+        return allLocales;
+    }
+
+    /**
+     * Get a Locale by its id.
+     *
+     * @return a Locale whose toString() equals given localeId, or null if it doesn't exist
+     */
+    public Locale getLocaleById(String localeId) {
+        if (localeId == null) return null;
+        return localesById.get(localeId);
+    }
+
+    /**
+     * Get the locales for the given ids, skipping the ones that don't exist.
+     */
+    public Locale[] getLocales(String[] localeIds) {
+        if (localeIds == null) return new Locale[0];
+
+        String key = StringUtils.join(localeIds, ',');
+        Locale[] locales = localeLists.get(key);
+        if (locales == null) {
+            List<Locale> localeList = new ArrayList<Locale>();
+            for (int i = 0; i < localeIds.length; i++) {
+                Locale locale = getLocaleById(localeIds[i]);
+                if (locale != null) localeList.add(locale);
+            }
+            locales = localeList.toArray(new Locale[localeList.size()]);
+            localeLists.put(key, locales);
+        }
+        return locales;
+    }
+}
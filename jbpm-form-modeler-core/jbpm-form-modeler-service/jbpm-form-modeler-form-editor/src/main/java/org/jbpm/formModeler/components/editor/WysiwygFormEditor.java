@@ -26,12 +26,16 @@ import org.jbpm.formModeler.core.config.FieldTypeManager;
 import org.jbpm.formModeler.core.config.FormManager;
 import org.jbpm.formModeler.core.config.builders.dataHolder.DataHolderBuildConfig;
 import org.jbpm.formModeler.core.processing.*;
+import org.jbpm.formModeler.core.processing.formProcessing.FormulaDependencyGraph;
+import org.jbpm.formModeler.core.processing.formStatus.FormStatus;
+import org.jbpm.formModeler.core.processing.formStatus.FormStatusManager;
 import org.jbpm.formModeler.core.wrappers.HTMLi18n;
 import org.jbpm.formModeler.api.client.FormEditorContext;
 import org.jbpm.formModeler.api.client.FormEditorContextManager;
 import org.jbpm.formModeler.service.LocaleManager;
 import org.jbpm.formModeler.service.annotation.config.Config;
 import org.jbpm.formModeler.service.bb.mvc.components.handling.BaseUIComponent;
+import org.jbpm.formModeler.service.bb.mvc.components.handling.MessagesComponentHandler;
 import org.jbpm.formModeler.service.bb.mvc.controller.CommandRequest;
 import org.jbpm.formModeler.service.bb.mvc.controller.CommandResponse;
 
@@ -47,6 +51,7 @@ import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.servlet.http.HttpServletRequest;
+import java.text.MessageFormat;
 import java.util.*;
 
 /**
@@ -106,6 +111,7 @@ public class WysiwygFormEditor extends BaseUIComponent {
     public static final String ACTION_SAVE_FIELD_PROPERTIES = "saveFieldProperties";
     public static final String ACTION_CLOSE_FIELD_EDITION = "closeFieldEdition";
     public static final String CHANGED_FIELD = "changedField";
+    public static final String FORMULA_PROPERTY = "formula";
 
     public static final String ACTION_REMOVE_DATA_HOLDER = "removeDataHolder";
     public static final String ACTION_ADD_DATA_HOLDER = "addDataHolder";
@@ -464,6 +470,7 @@ public class WysiwygFormEditor extends BaseUIComponent {
 
                         }
                     }
+
                     if (ACTION_CLOSE_FIELD_EDITION.equals(action)) {
 
                         getFormProcessor().clear(editForm, editNamespace);
@@ -471,6 +478,7 @@ public class WysiwygFormEditor extends BaseUIComponent {
                         setCurrentEditFieldPosition(-1);
                         editionContext.setChangedField(null);
                     }
+                    checkFormulaCycles();
                 }
             }
         }
@@ -550,6 +558,33 @@ public class WysiwygFormEditor extends BaseUIComponent {
     public synchronized void actionSaveCurrentForm(CommandRequest request) throws Exception {
         checkEditionContext(request);
         saveCurrentForm(request.getRequestObject().getParameterMap());
+        checkFormulaCycles();
+    }
+
+    /**
+     * Shows the field formulas that depend on each other, they cannot be evaluated in a consistent order. The cycles
+     * of the field being edited are errors of the formula on its edition form, the others are shown as warnings.
+     */
+    protected void checkFormulaCycles() {
+        Form form = getCurrentForm();
+        if (form == null) return;
+
+        Field editField = getCurrentEditField();
+        List<String> editFieldErrors = new ArrayList<String>();
+        ResourceBundle bundle = ResourceBundle.getBundle("org.jbpm.formModeler.components.editor.messages", LocaleManager.currentLocale());
+
+        for (List<String> cycle : new FormulaDependencyGraph(form).getCycles()) {
+            log.warn("Form '" + form.getName() + "' has formulas with circular dependencies between fields " + cycle);
+            String message = MessageFormat.format(bundle.getString("formulaCycle"), StringUtils.join(cycle, ", "));
+            if (editField != null && cycle.contains(editField.getFieldName())) editFieldErrors.add(message);
+            else MessagesComponentHandler.lookup().addWarning(message);
+        }
+
+        if (!editFieldErrors.isEmpty()) {
+            FormStatus editStatus = FormStatusManager.lookup().getFormStatus(getFormForFieldEdition(editField), getFieldEditionNamespace(editField));
+            if (editStatus != null) editStatus.addErrorMessages(FORMULA_PROPERTY, editFieldErrors);
+            else MessagesComponentHandler.lookup().getWarningsToDisplay().addAll(editFieldErrors);
+        }
     }
 
     public synchronized void actionSwitchRenderMode(CommandRequest request) throws Exception {
@@ -31,6 +31,7 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.*;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Application end point for HTTP requests. It provides the following features:<ul>
@@ -116,9 +117,25 @@ public class ControllerServlet extends HttpServlet {
                 log.error("Error: ", e);
             }
 
-            // Init the request context.
-            ControllerServletHelper helper = ControllerServletHelper.lookup();
-            synchronized (helper) {
+            // Serialize the request as configured on the RequestLockManager.
+            RequestLockManager lockManager = RequestLockManager.lookup();
+            Lock lock;
+            try {
+                lock = lockManager.lock(request);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                response.sendError(503, "Request interrupted.");
+                return;
+            }
+
+            if (lock == null) {
+                response.sendError(503, "Server too busy.");
+                return;
+            }
+
+            try {
+                // Init the request context.
+                ControllerServletHelper helper = ControllerServletHelper.lookup();
                 CommandRequest cmdRq = helper.initThreadLocal(request, response);
                 ControllerStatus.lookup().setRequest(cmdRq);
                 try {
@@ -132,6 +149,8 @@ public class ControllerServlet extends HttpServlet {
                     // Clear the request context.
                     helper.clearThreadLocal(request, response);
                 }
+            } finally {
+                lockManager.unlock(lock);
             }
         } else {
             log.error("Received request, but application servlet hasn't been properly initialized. Ignoring.");
@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.service.bb.mvc.controller;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.servlet.http.HttpServletRequest;
+
+import org.jbpm.formModeler.service.annotation.config.Config;
+import org.jbpm.formModeler.service.cdi.CDIBeanLocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serializes the requests processed by the ControllerServlet. Depending on the configured lock mode requests are
+ * serialized:<ul>
+ * <li> <code>global</code>: all together, one request at a time on the whole application.
+ * <li> <code>session</code>: per HTTP session, requests from different sessions run in parallel.</ul>
+ * Requests of the same session are always serialized because the request status (ControllerStatus) is session scoped.
+ * Sessions are mapped to a fixed set of striped locks so the memory used doesn't depend on the number of sessions.
+ */
+@ApplicationScoped
+@Named("requestLockManager")
+public class RequestLockManager {
+
+    private static transient Logger log = LoggerFactory.getLogger(RequestLockManager.class);
+
+    public static final String LOCK_MODE_GLOBAL = "global";
+    public static final String LOCK_MODE_SESSION = "session";
+
+    public static RequestLockManager lookup() {
+        return (RequestLockManager) CDIBeanLocator.getBeanByName("requestLockManager");
+    }
+
+    @Inject @Config(LOCK_MODE_GLOBAL)
+    protected String lockMode;
+
+    @Inject @Config("256")
+    protected int lockStripes;
+
+    @Inject @Config("false")
+    protected boolean fairLocks;
+
+    /**
+     * Max time (in milliseconds) a request waits for its lock, 0 means wait forever.
+     */
+    @Inject @Config("0")
+    protected long lockTimeout;
+
+    private Lock[] locks;
+
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        if (!LOCK_MODE_SESSION.equals(lockMode)) {
+            if (!LOCK_MODE_GLOBAL.equals(lockMode)) log.warn("Unknown request lock mode '" + lockMode + "', using '" + LOCK_MODE_GLOBAL + "'.");
+            lockMode = LOCK_MODE_GLOBAL;
+        }
+
+        int stripes = LOCK_MODE_GLOBAL.equals(lockMode) ? 1 : Math.max(1, lockStripes);
+        locks = new Lock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock(fairLocks);
+        }
+    }
+
+    /**
+     * Acquires the lock that serializes the given request.
+     *
+     * @return the acquired lock, that must be released with <code>unlock</code>, or null if the lock couldn't be
+     * acquired before the configured timeout.
+     */
+    public Lock lock(HttpServletRequest request) throws InterruptedException {
+        Lock lock = locks[stripeIndex(getLockKey(request))];
+
+        long start = System.nanoTime();
+        boolean acquired;
+        if (lockTimeout > 0) {
+            acquired = lock.tryLock(lockTimeout, TimeUnit.MILLISECONDS);
+        } else {
+            lock.lockInterruptibly();
+            acquired = true;
+        }
+        registerWait(System.nanoTime() - start);
+
+        if (!acquired) {
+            timeouts.incrementAndGet();
+            log.warn("Request to '" + request.getRequestURI() + "' waited more than " + lockTimeout + "ms for its lock.");
+            return null;
+        }
+
+        acquisitions.incrementAndGet();
+        return lock;
+    }
+
+    public void unlock(Lock lock) {
+        if (lock != null) lock.unlock();
+    }
+
+    protected String getLockKey(HttpServletRequest request) {
+        if (LOCK_MODE_GLOBAL.equals(lockMode)) return LOCK_MODE_GLOBAL;
+        return request.getSession(true).getId();
+    }
+
+    protected int stripeIndex(String key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return (hash & 0x7fffffff) % locks.length;
+    }
+
+    protected void registerWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        long max = maxWaitNanos.get();
+        while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+            max = maxWaitNanos.get();
+        }
+    }
+
+    public String getLockMode() {
+        return lockMode;
+    }
+
+    public boolean isFairLocks() {
+        return fairLocks;
+    }
+
+    public long getLockTimeout() {
+        return lockTimeout;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * @return the total time (in milliseconds) requests have been waiting for their locks.
+     */
+    public long getTotalWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get());
+    }
+
+    /**
+     * @return the longest time (in milliseconds) a request has been waiting for its lock.
+     */
+    public long getMaxWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    /**
+     * @return the average time (in milliseconds) requests have been waiting for their locks.
+     */
+    public double getAverageWaitTime() {
+        long count = acquisitions.get() + timeouts.get();
+        if (count == 0) return 0;
+        return (double) totalWaitNanos.get() / count / 1000000d;
+    }
+}
@@ -0,0 +1,125 @@
+package org.jbpm.formModeler.service.bb.mvc.controller;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class RequestLockManagerTest {
+
+    protected RequestLockManager lockManager;
+
+    protected LockHolder holder;
+
+    @Before
+    public void setUp() {
+        lockManager = new RequestLockManager();
+        lockManager.lockMode = RequestLockManager.LOCK_MODE_SESSION;
+        lockManager.lockStripes = 256;
+        lockManager.lockTimeout = 100;
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (holder != null) holder.release();
+    }
+
+    @Test
+    public void testLockTimeout() throws Exception {
+        lockManager.init();
+        holder = new LockHolder(request("session1"));
+
+        assertNull(lockManager.lock(request("session1")));
+        assertEquals(1, lockManager.getTimeouts());
+        assertEquals(1, lockManager.getAcquisitions());
+        assertTrue(lockManager.getMaxWaitTime() >= lockManager.getLockTimeout() / 2);
+
+        holder.release();
+        holder = null;
+        Lock lock = lockManager.lock(request("session1"));
+        assertNotNull(lock);
+        lockManager.unlock(lock);
+        assertEquals(2, lockManager.getAcquisitions());
+    }
+
+    @Test
+    public void testSessionsAreLockedIndependently() throws Exception {
+        lockManager.init();
+        assertFalse(lockManager.stripeIndex("session1") == lockManager.stripeIndex("session2"));
+        holder = new LockHolder(request("session1"));
+
+        Lock lock = lockManager.lock(request("session2"));
+        assertNotNull(lock);
+        lockManager.unlock(lock);
+        assertEquals(0, lockManager.getTimeouts());
+    }
+
+    @Test
+    public void testGlobalLock() throws Exception {
+        lockManager.lockMode = RequestLockManager.LOCK_MODE_GLOBAL;
+        lockManager.init();
+        holder = new LockHolder(request("session1"));
+
+        assertNull(lockManager.lock(request("session2")));
+        assertEquals(1, lockManager.getTimeouts());
+    }
+
+    @Test
+    public void testUnknownLockMode() throws Exception {
+        lockManager.lockMode = "unknown";
+        lockManager.init();
+        assertEquals(RequestLockManager.LOCK_MODE_GLOBAL, lockManager.getLockMode());
+    }
+
+    protected HttpServletRequest request(String sessionId) {
+        HttpSession session = mock(HttpSession.class);
+        when(session.getId()).thenReturn(sessionId);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getSession(true)).thenReturn(session);
+        when(request.getRequestURI()).thenReturn("/Controller");
+        return request;
+    }
+
+    /**
+     * Keeps the lock of a request on another thread until it's released.
+     */
+    protected class LockHolder extends Thread {
+        private final HttpServletRequest request;
+        private final CountDownLatch locked = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        protected LockHolder(HttpServletRequest request) throws InterruptedException {
+            this.request = request;
+            start();
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+        }
+
+        @Override
+        public void run() {
+            try {
+                Lock lock = lockManager.lock(request);
+                locked.countDown();
+                try {
+                    released.await();
+                } finally {
+                    lockManager.unlock(lock);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        protected void release() throws InterruptedException {
+            released.countDown();
+            join();
+        }
+    }
+}
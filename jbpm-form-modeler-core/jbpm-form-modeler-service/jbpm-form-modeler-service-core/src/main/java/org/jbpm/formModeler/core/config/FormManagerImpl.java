@@ -51,7 +51,7 @@ public class FormManagerImpl implements FormManager {
     @Inject
     private LocaleManager localeManager;
 
-    private HashSet<Form> forms = new HashSet<Form>();
+    private FormRegistry forms = new FormRegistry();
 
     /**
      * Get all forms by subject.
@@ -60,12 +60,7 @@ public class FormManagerImpl implements FormManager {
 
         if (subject == null) subject = "";
 
-        List<Form> result = new ArrayList<Form>();
-
-        for (Form form : forms) {
-            if (subject.equals(form.getSubject())) result.add(form);
-        }
-        return result;
+        return forms.getBySubject(subject);
     }
 
     /**
@@ -75,17 +70,11 @@ public class FormManagerImpl implements FormManager {
         if (subject == null) subject = "";
         if (name == null) name = "";
 
-        List<Form> result = new ArrayList<Form>();
-
-        for (Form form : forms) {
-            if (subject.equals(form.getSubject()) && name.equals(form.getName())) result.add(form);
-        }
-
-        return result;
+        return forms.getBySubjectAndName(subject, name);
     }
 
     public Form[] getAllForms() {
-        return forms.toArray(new Form[forms.size()]);
+        return forms.getAll();
     }
 
     /**
@@ -100,24 +89,9 @@ public class FormManagerImpl implements FormManager {
         if (code == null) {
             logError("Found field type without code.");
         } else {
-
-            // Literal search
-            for(Form form : forms) {
-                if (form.getName() != null && form.getName().equals(code))
-                    return form;
-            }
-            // Pattern search
-            for (Form form : forms) {
-                if (form.getName() != null) {
-                    try {
-                        if (code.matches(form.getName())) {
-                            return form;
-                        }
-                    } catch (Exception pse) {
-                        //Ignore wrong patterns
-                    }
-                }
-            }
+            // Literal search, then pattern search
+            Form form = forms.getByFieldTypeCode(code);
+            if (form != null) return form;
         }
 
         Form defaultForm = null;
@@ -136,10 +110,7 @@ public class FormManagerImpl implements FormManager {
      * @return a form by id
      */
     public Form getFormById(final Long id) {
-        for (Form form : forms) {
-            if (form.getId().equals(id)) return form;
-        }
-        return null;
+        return forms.getById(id);
     }
 
     public Form createForm(String name) {
@@ -240,6 +211,8 @@ public class FormManagerImpl implements FormManager {
             }
 
             form.getFormFields().add(field);
+            form.invalidateFieldIndex();
+            form.invalidateRenderPlans();
 
             return field;
         }
@@ -273,6 +246,7 @@ public class FormManagerImpl implements FormManager {
                 } else if (position == fieldPos + 1 && Boolean.TRUE.equals(formField.getGroupWithPrevious()))
                     formField.setGroupWithPrevious(Boolean.valueOf(wasGrouped));
             }
+            pForm.invalidateRenderPlans();
         }
     }
 
@@ -295,6 +269,7 @@ public class FormManagerImpl implements FormManager {
                 } else if (position == destPos + 1 && !Boolean.TRUE.equals(formField.getGroupWithPrevious()))
                     formField.setGroupWithPrevious(Boolean.valueOf(nextFieldGrouped));
             }
+            pForm.invalidateRenderPlans();
         }
     }
 
@@ -349,6 +324,7 @@ public class FormManagerImpl implements FormManager {
                     }
                 }
             }
+            pForm.invalidateRenderPlans();
         }
     }
 
@@ -370,6 +346,7 @@ public class FormManagerImpl implements FormManager {
                     formField.setPosition(formField.getPosition() + 1);
                 }
             }
+            pForm.invalidateRenderPlans();
         }
     }
 
@@ -391,6 +368,7 @@ public class FormManagerImpl implements FormManager {
                     formField.setPosition(formField.getPosition() - 1);
                 }
             }
+            pForm.invalidateRenderPlans();
         }
     }
 
@@ -415,6 +393,7 @@ public class FormManagerImpl implements FormManager {
                         formField.setPosition(fieldPos);
                     }
                 }
+                pForm.invalidateRenderPlans();
                 return true;
             }
         }
@@ -439,6 +418,7 @@ public class FormManagerImpl implements FormManager {
                     }
                 }
             }
+            pForm.invalidateRenderPlans();
         }
     }
 
@@ -463,6 +443,7 @@ public class FormManagerImpl implements FormManager {
                         formField.setPosition(fieldPos);
                     }
                 }
+                pForm.invalidateRenderPlans();
                 return true;
             }
         }
@@ -482,6 +463,8 @@ public class FormManagerImpl implements FormManager {
                         formField.setPosition(formField.getPosition() - 1);
                     }
                 }
+                pForm.invalidateFieldIndex();
+                pForm.invalidateRenderPlans();
             }
         }
     }
@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.core.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.jbpm.formModeler.api.model.Form;
+
+/**
+ * Thread-safe registry of the forms managed by the FormManager. Forms are indexed by id, subject, subject and name
+ * and, for the field edition forms, by the pattern their name defines. Forms are indexed with the subject and name
+ * they have when they are registered.
+ */
+public class FormRegistry {
+
+    private final ConcurrentMap<Long, Form> formsById = new ConcurrentHashMap<Long, Form>();
+
+    private final ConcurrentMap<String, List<Form>> formsBySubject = new ConcurrentHashMap<String, List<Form>>();
+
+    private final ConcurrentMap<String, List<Form>> formsBySubjectAndName = new ConcurrentHashMap<String, List<Form>>();
+
+    private final ConcurrentMap<String, Form> formsByName = new ConcurrentHashMap<String, Form>();
+
+    private final List<NamePattern> namePatterns = new CopyOnWriteArrayList<NamePattern>();
+
+    // Resolved field edition forms by field type code, NO_FORM marks the codes without form. It is replaced when a
+    // form is added, so lookups running concurrently with the addition cannot store stale results on the new one.
+    private volatile ConcurrentMap<String, Form> fieldEditionForms = new ConcurrentHashMap<String, Form>();
+
+    private static final Form NO_FORM = new Form();
+
+    /**
+     * Registers a form. If there is already a form with the same id the registry is left unchanged.
+     *
+     * @return true if the form has been registered
+     */
+    public synchronized boolean add(Form form) {
+        if (form == null || form.getId() == null) return false;
+        if (formsById.putIfAbsent(form.getId(), form) != null) return false;
+
+        if (form.getSubject() != null) {
+            addToIndex(formsBySubject, form.getSubject(), form);
+            if (form.getName() != null) addToIndex(formsBySubjectAndName, subjectAndNameKey(form.getSubject(), form.getName()), form);
+        }
+
+        if (form.getName() != null) {
+            formsByName.putIfAbsent(form.getName(), form);
+            try {
+                namePatterns.add(new NamePattern(Pattern.compile(form.getName()), form));
+            } catch (PatternSyntaxException e) {
+                //Ignore wrong patterns
+            }
+        }
+
+        fieldEditionForms = new ConcurrentHashMap<String, Form>();
+        return true;
+    }
+
+    public Form getById(Long id) {
+        if (id == null) return null;
+        return formsById.get(id);
+    }
+
+    public List<Form> getBySubject(String subject) {
+        return copyOf(formsBySubject.get(subject));
+    }
+
+    public List<Form> getBySubjectAndName(String subject, String name) {
+        return copyOf(formsBySubjectAndName.get(subjectAndNameKey(subject, name)));
+    }
+
+    /**
+     * Looks for the form which name is the given field type code, or else the first form which name is a pattern
+     * matching the code.
+     */
+    public Form getByFieldTypeCode(String code) {
+        ConcurrentMap<String, Form> resolvedForms = fieldEditionForms;
+        Form result = resolvedForms.get(code);
+        if (result == null) {
+            result = formsByName.get(code);
+            if (result == null) {
+                for (NamePattern namePattern : namePatterns) {
+                    if (namePattern.pattern.matcher(code).matches()) {
+                        result = namePattern.form;
+                        break;
+                    }
+                }
+            }
+            resolvedForms.put(code, result != null ? result : NO_FORM);
+        }
+        return result == NO_FORM ? null : result;
+    }
+
+    public Form[] getAll() {
+        return formsById.values().toArray(new Form[0]);
+    }
+
+    public int size() {
+        return formsById.size();
+    }
+
+    protected void addToIndex(ConcurrentMap<String, List<Form>> index, String key, Form form) {
+        List<Form> forms = index.get(key);
+        if (forms == null) index.put(key, forms = new CopyOnWriteArrayList<Form>());
+        forms.add(form);
+    }
+
+    protected List<Form> copyOf(List<Form> forms) {
+        if (forms == null) return new ArrayList<Form>();
+        return new ArrayList<Form>(forms);
+    }
+
+    protected String subjectAndNameKey(String subject, String name) {
+        return subject + '\u0000' + name;
+    }
+
+    protected static class NamePattern {
+        private final Pattern pattern;
+        private final Form form;
+
+        public NamePattern(Pattern pattern, Form form) {
+            this.pattern = pattern;
+            this.form = form;
+        }
+    }
+}
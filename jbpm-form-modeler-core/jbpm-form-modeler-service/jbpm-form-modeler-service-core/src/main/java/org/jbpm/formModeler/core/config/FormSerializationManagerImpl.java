@@ -15,10 +15,14 @@
  */
 package org.jbpm.formModeler.core.config;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -27,10 +31,14 @@ import java.util.Set;
 import java.util.TreeSet;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.stream.StreamSource;
 
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.xerces.parsers.DOMParser;
 import org.jbpm.formModeler.api.model.DataHolder;
 import org.jbpm.formModeler.api.model.Field;
 import org.jbpm.formModeler.api.model.Form;
@@ -38,11 +46,12 @@ import org.jbpm.formModeler.api.model.wrappers.I18nEntry;
 import org.jbpm.formModeler.api.model.wrappers.I18nSet;
 import org.jbpm.formModeler.core.config.builders.dataHolder.DataHolderBuildConfig;
 import org.jbpm.formModeler.core.wrappers.HTMLi18n;
+import org.jbpm.formModeler.core.xml.util.XMLElementWriter;
 import org.jbpm.formModeler.core.xml.util.XMLNode;
+import org.jbpm.formModeler.core.xml.util.XMLNodeWriter;
 import org.jbpm.formModeler.service.LocaleManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
@@ -79,20 +88,34 @@ public class FormSerializationManagerImpl implements FormSerializationManager {
     @Inject
     protected FieldTypeManager fieldTypeManager;
 
-    public String generateFormXML(Form form) {
-        XMLNode rootNode = new XMLNode(NODE_FORM, null);
+    protected XMLInputFactory xmlInputFactory = createXMLInputFactory();
 
-        //TestFormSerialization test = new TestFormSerialization();
-        //test.saveFormToLocalDrive(form);
+    public String generateFormXML(Form form) {
+        StringWriter sw = new StringWriter();
 
         try {
-            return generateFormXML(form, rootNode);
+            generateFormXML(form, sw);
+            return sw.toString();
         } catch (Exception e) {
             log.error("Error serializing form to XML.", e);
             return "";
         }
     }
 
+    @Override
+    public void generateFormXML(Form form, OutputStream os) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
+        generateFormXML(form, writer);
+        writer.flush();
+    }
+
+    @Override
+    public void generateFormXML(Form form, Writer writer) throws IOException {
+        XMLElementWriter xmlWriter = new XMLElementWriter(writer, true);
+        generateFormXML(form, xmlWriter);
+        xmlWriter.flush();
+    }
+
     @Override
     public String generateHeaderFormFormId(long formId) throws IOException {
         XMLNode rootNode = new XMLNode(NODE_FORM, null);
@@ -126,21 +149,109 @@ public class FormSerializationManagerImpl implements FormSerializationManager {
     }
 
     public Form loadFormFromXML(InputSource source, Map<String, Properties> resources) throws Exception {
-        DOMParser parser = new DOMParser();
-        parser.parse(source);
-        Document doc = parser.getDocument();
-        NodeList nodes = doc.getElementsByTagName(NODE_FORM);
-        Node rootNode = nodes.item(0);
-        return deserializeForm(rootNode, null, resources);
+        return loadFormFromXML(source, null, resources);
     }
 
+    /**
+     * Reads the form from the XML events, without building a DOM of the whole document. Only the first form element
+     * of the document is read.
+     */
     public Form loadFormFromXML(InputSource source, String path, Map<String, Properties> resources) throws Exception {
-        DOMParser parser = new DOMParser();
-        parser.parse(source);
-        Document doc = parser.getDocument();
-        NodeList nodes = doc.getElementsByTagName(NODE_FORM);
-        Node rootNode = nodes.item(0); // only comes a form
-        return deserializeForm(rootNode, path, resources);
+        XMLStreamReader reader = createXMLStreamReader(source);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals(NODE_FORM)) {
+                    return deserializeForm(reader, path, resources); // only comes a form
+                }
+            }
+            return null;
+        } finally {
+            reader.close();
+        }
+    }
+
+    protected XMLInputFactory createXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    protected XMLStreamReader createXMLStreamReader(InputSource source) throws XMLStreamException {
+        if (source.getCharacterStream() != null) return xmlInputFactory.createXMLStreamReader(source.getCharacterStream());
+        if (source.getByteStream() != null) {
+            if (source.getEncoding() != null) return xmlInputFactory.createXMLStreamReader(source.getByteStream(), source.getEncoding());
+            return xmlInputFactory.createXMLStreamReader(source.getByteStream());
+        }
+        return xmlInputFactory.createXMLStreamReader(new StreamSource(source.getSystemId()));
+    }
+
+    /**
+     * Reads the form starting at the current form element of the reader, and leaves the reader on its end element.
+     */
+    public Form deserializeForm(XMLStreamReader reader, String path, Map<String, Properties> resources) throws Exception {
+        if (!reader.getLocalName().equals(NODE_FORM)) return null;
+
+        Form form = formManager.createForm("");
+        form.setId(Long.valueOf(StringEscapeUtils.unescapeXml(reader.getAttributeValue(null, ATTR_ID))));
+
+        Set<Field> fields = new TreeSet<Field>();
+        while (nextChildElement(reader)) {
+            String nodeName = reader.getLocalName();
+            if (nodeName.equals(NODE_PROPERTY)) {
+                String propName = reader.getAttributeValue(null, ATTR_NAME);
+                String value = StringEscapeUtils.unescapeXml(reader.getAttributeValue(null, ATTR_VALUE));
+                setFormProperty(form, propName, value);
+                skipElement(reader);
+            } else if (nodeName.equals(NODE_FIELD)) {
+                Field field = deserializeField(form, reader, resources);
+                field.setForm(form);
+                fields.add(field);
+            } else {
+                if (nodeName.equals(NODE_DATA_HOLDER)) {
+                    deserializeDataHolder(form, path,
+                            getAttributeValue(reader, ATTR_ID),
+                            getAttributeValue(reader, ATTR_INPUT_ID),
+                            getAttributeValue(reader, ATTR_OUT_ID),
+                            getAttributeValue(reader, ATTR_TYPE),
+                            getAttributeValue(reader, ATTR_VALUE),
+                            getAttributeValue(reader, ATTR_NAME),
+                            getAttributeValue(reader, ATTR_SUPPORTED_TYPE));
+                }
+                skipElement(reader);
+            }
+        }
+        form.setFormFields(fields);
+        return form;
+    }
+
+    /**
+     * Moves the reader to the next child element of the current element. Returns false, with the reader on the end
+     * element of the current element, if there are no more children.
+     */
+    protected boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) return true;
+            if (event == XMLStreamConstants.END_ELEMENT) return false;
+        }
+        return false;
+    }
+
+    /**
+     * Moves the reader to the end element of the current element, skipping all its content.
+     */
+    protected void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) depth++;
+            else if (event == XMLStreamConstants.END_ELEMENT) depth--;
+        }
+    }
+
+    protected String getAttributeValue(XMLStreamReader reader, String attributeName) {
+        String value = reader.getAttributeValue(null, attributeName);
+        return value != null ? value : "";
     }
 
     public Form deserializeForm(Node nodeForm, String path, Map<String, Properties> resources) throws Exception {
@@ -156,48 +267,55 @@ public class FormSerializationManagerImpl implements FormSerializationManager {
             if (node.getNodeName().equals(NODE_PROPERTY)) {
                 String propName = node.getAttributes().getNamedItem(ATTR_NAME).getNodeValue();
                 String value = StringEscapeUtils.unescapeXml(node.getAttributes().getNamedItem(ATTR_VALUE).getNodeValue());
-                if ("subject".equals(propName)) {
-                    form.setSubject(value);
-                } else if ("name".equals(propName)) {
-                    form.setName(value);
-                } else if ("displayMode".equals(propName)) {
-                    form.setDisplayMode(value);
-                } else if ("labelMode".equals(propName)) {
-                    form.setLabelMode(value);
-                } else if ("showMode".equals(propName)) {
-                    form.setShowMode(value);
-                } else if ("status".equals(propName)) {
-                    form.setStatus(Long.valueOf(value));
-                } else if ("formTemplate".equals(propName)) {
-                    form.setFormTemplate(value);
-                }
+                setFormProperty(form, propName, value);
             } else if (node.getNodeName().equals(NODE_FIELD)) {
                 Field field = deserializeField(form, node, resources);
                 field.setForm(form);
                 fields.add(field);
             } else if (node.getNodeName().equals(NODE_DATA_HOLDER)) {
-                String holderId = getNodeAttributeValue(node, ATTR_ID);
-                String holderInputId = getNodeAttributeValue(node, ATTR_INPUT_ID);
-                String holderOutId = getNodeAttributeValue(node, ATTR_OUT_ID);
-                String holderType = getNodeAttributeValue(node, ATTR_TYPE);
-                String holderValue = getNodeAttributeValue(node, ATTR_VALUE);
-                String holderRenderColor = getNodeAttributeValue(node, ATTR_NAME);
-                String holderSupportedType = getNodeAttributeValue(node, ATTR_SUPPORTED_TYPE);
+                deserializeDataHolder(form, path,
+                        getNodeAttributeValue(node, ATTR_ID),
+                        getNodeAttributeValue(node, ATTR_INPUT_ID),
+                        getNodeAttributeValue(node, ATTR_OUT_ID),
+                        getNodeAttributeValue(node, ATTR_TYPE),
+                        getNodeAttributeValue(node, ATTR_VALUE),
+                        getNodeAttributeValue(node, ATTR_NAME),
+                        getNodeAttributeValue(node, ATTR_SUPPORTED_TYPE));
+            }
+        }
+        if (fields != null) form.setFormFields(fields);
+        return form;
+    }
 
-                if(!StringUtils.isEmpty(holderId) && !StringUtils.isEmpty(holderType) && !StringUtils.isEmpty(holderValue)) {
+    protected void setFormProperty(Form form, String propName, String value) {
+        if ("subject".equals(propName)) {
+            form.setSubject(value);
+        } else if ("name".equals(propName)) {
+            form.setName(value);
+        } else if ("displayMode".equals(propName)) {
+            form.setDisplayMode(value);
+        } else if ("labelMode".equals(propName)) {
+            form.setLabelMode(value);
+        } else if ("showMode".equals(propName)) {
+            form.setShowMode(value);
+        } else if ("status".equals(propName)) {
+            form.setStatus(Long.valueOf(value));
+        } else if ("formTemplate".equals(propName)) {
+            form.setFormTemplate(value);
+        }
+    }
 
-                    DataHolderBuildConfig config = new DataHolderBuildConfig(holderId, holderInputId, holderOutId, holderRenderColor, holderValue);
-                    config.addAttribute("path", path);
-                    if (!StringUtils.isEmpty(holderSupportedType)) config.addAttribute(ATTR_SUPPORTED_TYPE, holderSupportedType);
+    protected void deserializeDataHolder(Form form, String path, String holderId, String holderInputId, String holderOutId, String holderType, String holderValue, String holderRenderColor, String holderSupportedType) {
+        if(!StringUtils.isEmpty(holderId) && !StringUtils.isEmpty(holderType) && !StringUtils.isEmpty(holderValue)) {
 
-                    DataHolder holder = dataHolderManager.createDataHolderByType(holderType, config);
+            DataHolderBuildConfig config = new DataHolderBuildConfig(holderId, holderInputId, holderOutId, holderRenderColor, holderValue);
+            config.addAttribute("path", path);
+            if (!StringUtils.isEmpty(holderSupportedType)) config.addAttribute(ATTR_SUPPORTED_TYPE, holderSupportedType);
 
-                    if (!StringUtils.isEmpty(holderId)) form.setDataHolder(holder);
-                }
-            }
+            DataHolder holder = dataHolderManager.createDataHolderByType(holderType, config);
+
+            if (!StringUtils.isEmpty(holderId)) form.setDataHolder(holder);
         }
-        if (fields != null) form.setFormFields(fields);
-        return form;
     }
 
     protected String getNodeAttributeValue(Node node, String attributeName)  {
@@ -205,39 +323,49 @@ public class FormSerializationManagerImpl implements FormSerializationManager {
         return attribute != null ? attribute.getNodeValue() : "";
     }
 
-    private void addXMLNode(String propName, String value, XMLNode parent) {
+    private void writeProperty(String propName, String value, XMLElementWriter writer) throws IOException {
         if (!StringUtils.isEmpty(value)) {
-            XMLNode propertyNode = new XMLNode(NODE_PROPERTY, parent);
-            propertyNode.addAttribute(ATTR_NAME, propName);
-            propertyNode.addAttribute(ATTR_VALUE, value);
-            parent.addChild(propertyNode);
+            writer.startElement(NODE_PROPERTY);
+            writer.addAttribute(ATTR_NAME, propName);
+            writer.addAttribute(ATTR_VALUE, value);
+            writer.endElement();
         }
     }
 
 
     /**
-     * Generates the xml representation and mount in rootNode the structure to be included.
-     * Fills the XMLNode structure with the form representation and returns the string.
+     * Writes the xml representation of the form to the writer, element by element.
     */
-    public String generateFormXML(Form form, XMLNode rootNode) throws Exception {
-        rootNode.addAttribute(ATTR_ID, form.getId().toString());
-
-        addXMLNode("subject", form.getSubject(), rootNode);
-        addXMLNode("name", form.getName(), rootNode);
-        addXMLNode("displayMode", form.getDisplayMode(), rootNode);
-        addXMLNode("labelMode", form.getLabelMode(), rootNode);
-        addXMLNode("showMode", form.getShowMode(), rootNode);
-        addXMLNode("status", (form.getStatus() != null ? String.valueOf(form.getStatus()) : null), rootNode);
-        addXMLNode("formTemplate", form.getFormTemplate(), rootNode);
+    public void generateFormXML(Form form, XMLElementWriter writer) throws IOException {
+        writer.startElement(NODE_FORM);
+        writer.addAttribute(ATTR_ID, form.getId().toString());
+
+        writeProperty("subject", form.getSubject(), writer);
+        writeProperty("name", form.getName(), writer);
+        writeProperty("displayMode", form.getDisplayMode(), writer);
+        writeProperty("labelMode", form.getLabelMode(), writer);
+        writeProperty("showMode", form.getShowMode(), writer);
+        writeProperty("status", (form.getStatus() != null ? String.valueOf(form.getStatus()) : null), writer);
+        writeProperty("formTemplate", form.getFormTemplate(), writer);
 
         for (Field field: form.getFormFields()) {
-            generateFieldXML(field, rootNode);
+            generateFieldXML(field, writer);
         }
 
         for (DataHolder dataHolder: form.getHolders()) {
-            generateDataHolderXML(dataHolder, rootNode);
+            generateDataHolderXML(dataHolder, writer);
         }
 
+        writer.endElement();
+    }
+
+    /**
+     * Generates the xml representation and mount in rootNode the structure to be included.
+     * Fills the XMLNode structure with the form representation and returns the string.
+    */
+    public String generateFormXML(Form form, XMLNode rootNode) throws Exception {
+        generateFormXML(form, new XMLNodeWriter(rootNode.getParent(), rootNode));
+
         StringWriter sw = new StringWriter();
         rootNode.writeXML(sw, true);
 
@@ -265,100 +393,140 @@ public class FormSerializationManagerImpl implements FormSerializationManager {
             if (nodeFieldProp.getNodeName().equals(NODE_PROPERTY)) {
                 String propName = nodeFieldProp.getAttributes().getNamedItem(ATTR_NAME).getNodeValue();
                 String value = StringEscapeUtils.unescapeXml(nodeFieldProp.getAttributes().getNamedItem(ATTR_VALUE).getNodeValue());
-                if (propName != null && value != null) {
-                    if ("fieldRequired".equals(propName)) {
-                        field.setFieldRequired(Boolean.valueOf(value));
-                    } else if ("groupWithPrevious".equals(propName)) {
-                        field.setGroupWithPrevious(Boolean.valueOf(value));
-                    } else if ("height".equals(propName)) {
-                        field.setHeight(value);
-                    } else if ("labelCSSClass".equals(propName)) {
-                        field.setLabelCSSClass(value);
-                    } else if ("labelCSSStyle".equals(propName)) {
-                        field.setLabelCSSStyle(value);
-                    } else if ("label".equals(propName)) {
-                        field.setLabel(deserializeI18nEntrySet(value));
-                    } else if ("errorMessage".equals(propName)) {
-                        field.setErrorMessage(deserializeI18nEntrySet(value));
-                    } else if ("title".equals(propName)) {
-                        field.setTitle(deserializeI18nEntrySet(value));
-                    } else if ("readonly".equals(propName)) {
-                        field.setReadonly(Boolean.valueOf(value));
-                    } else if ("size".equals(propName)) {
-                        if (!StringUtils.isEmpty( value ) && StringUtils.isNumeric( value )) field.setSize(Long.valueOf(value));
-                    } else if ("formula".equals(propName)) {
-                        field.setFormula(value);
-                    } else if ("rangeFormula".equals(propName)) {
-                        field.setRangeFormula(value);
-                    } else if ("pattern".equals(propName)) {
-                        field.setPattern(value);
-                    } else if ("maxlength".equals(propName)) {
-                        if (!StringUtils.isEmpty( value ) && StringUtils.isNumeric( value )) field.setMaxlength(Long.valueOf(value));
-                    } else if ("styleclass".equals(propName)) {
-                        field.setStyleclass(value);
-                    } else if ("cssStyle".equals(propName)) {
-                        field.setCssStyle(value);
-                    } else if ("tabindex".equals(propName)) {
-                        if (!StringUtils.isEmpty( value ) && StringUtils.isNumeric( value )) field.setTabindex(Long.valueOf(value));
-                    } else if ("accesskey".equals(propName)) {
-                        field.setAccesskey(value);
-                    } else if ("isHTML".equals(propName)) {
-                        field.setIsHTML(Boolean.valueOf(value));
-                    } else if ("htmlContent".equals(propName)) {
-                        field.setHtmlContent(deserializeHMLI18nEntrySet(value));
-                    } else if ("hideContent".equals(propName)) {
-                        field.setHideContent(Boolean.valueOf(value));
-                    } else if ("defaultValueFormula".equals(propName)) {
-                        field.setDefaultValueFormula(value);
-                    } else if ("defaultSubform".equals(propName)) {
-                        field.setDefaultSubform(value);
-                    } else if ("previewSubform".equals(propName)) {
-                        field.setPreviewSubform(value);
-                    } else if ("tableSubform".equals(propName)) {
-                        field.setTableSubform(value);
-                    } else if ("newItemText".equals(propName)) {
-                        field.setNewItemText(deserializeI18nEntrySet(value));
-                    } else if ("addItemText".equals(propName)) {
-                        field.setAddItemText(deserializeI18nEntrySet(value));
-                    } else if ("cancelItemText".equals(propName)) {
-                        field.setCancelItemText(deserializeI18nEntrySet(value));
-                    } else if ("deleteItems".equals(propName)) {
-                        field.setDeleteItems(Boolean.valueOf(value));
-                    } else if ("updateItems".equals(propName)) {
-                        field.setUpdateItems(Boolean.valueOf(value));
-                    } else if ("visualizeItems".equals(propName)) {
-                        field.setVisualizeItem(Boolean.valueOf(value));
-                    } else if ("hideCreateItem".equals(propName)) {
-                        field.setHideCreateItem(Boolean.valueOf(value));
-                    } else if ("expanded".equals(propName)) {
-                        field.setExpanded(Boolean.valueOf(value));
-                    } else if ("enableTableEnterData".equals(propName)) {
-                        field.setEnableTableEnterData(Boolean.valueOf(value));
-                    } else if ("inputBinding".equals(propName)) {
-                        field.setInputBinding(value);
-                    } else if ("outputBinding".equals(propName)) {
-                        field.setOutputBinding(value);
-                    } else if ("customFieldType".equals(propName)) {
-                        field.setCustomFieldType(value);
-                    } else if ("param1".equals(propName)) {
-                        field.setParam1(value);
-                    } else if ("param2".equals(propName)) {
-                        field.setParam2(value);
-                    } else if ("param3".equals(propName)) {
-                        field.setParam3(value);
-                    } else if ("param4".equals(propName)) {
-                        field.setParam4(value);
-                    } else if ("param5".equals(propName)) {
-                        field.setParam5(value);
-                    } else if ("fieldClass".equals(propName)) {
-                        field.getFieldType().setFieldClass(value);
-                    } else if ("onChangeScript".equals(propName)) {
-                        field.setOnChangeScript(value);
-                    }
-                }
+                setFieldProperty(field, propName, value);
             }
         }
 
+        setFieldResources(form, field, resources);
+        return field;
+    }
+
+    /**
+     * Reads the field starting at the current field element of the reader, and leaves the reader on its end element.
+     */
+    public Field deserializeField(Form form, XMLStreamReader reader, Map<String, Properties> resources) throws Exception {
+        if (!reader.getLocalName().equals(NODE_FIELD)) return null;
+
+        Field field = new Field();
+        field.setId(Long.valueOf(reader.getAttributeValue(null, ATTR_ID)));
+        field.setFieldName(reader.getAttributeValue(null, ATTR_NAME));
+        field.setPosition(Integer.parseInt(reader.getAttributeValue(null, ATTR_POSITION)));
+        field.setFieldType(fieldTypeManager.getTypeByCode(reader.getAttributeValue(null, ATTR_TYPE)));
+
+        String bag = reader.getAttributeValue(null, ATTR_BAG_TYPE);
+
+        if (bag != null) {
+            field.setBag(bag);
+        }
+
+        while (nextChildElement(reader)) {
+            if (reader.getLocalName().equals(NODE_PROPERTY)) {
+                String propName = reader.getAttributeValue(null, ATTR_NAME);
+                String value = StringEscapeUtils.unescapeXml(reader.getAttributeValue(null, ATTR_VALUE));
+                setFieldProperty(field, propName, value);
+            }
+            skipElement(reader);
+        }
+
+        setFieldResources(form, field, resources);
+        return field;
+    }
+
+    protected void setFieldProperty(Field field, String propName, String value) {
+        if (propName == null || value == null) return;
+
+        if ("fieldRequired".equals(propName)) {
+            field.setFieldRequired(Boolean.valueOf(value));
+        } else if ("groupWithPrevious".equals(propName)) {
+            field.setGroupWithPrevious(Boolean.valueOf(value));
+        } else if ("height".equals(propName)) {
+            field.setHeight(value);
+        } else if ("labelCSSClass".equals(propName)) {
+            field.setLabelCSSClass(value);
+        } else if ("labelCSSStyle".equals(propName)) {
+            field.setLabelCSSStyle(value);
+        } else if ("label".equals(propName)) {
+            field.setLabel(deserializeI18nEntrySet(value));
+        } else if ("errorMessage".equals(propName)) {
+            field.setErrorMessage(deserializeI18nEntrySet(value));
+        } else if ("title".equals(propName)) {
+            field.setTitle(deserializeI18nEntrySet(value));
+        } else if ("readonly".equals(propName)) {
+            field.setReadonly(Boolean.valueOf(value));
+        } else if ("size".equals(propName)) {
+            if (!StringUtils.isEmpty( value ) && StringUtils.isNumeric( value )) field.setSize(Long.valueOf(value));
+        } else if ("formula".equals(propName)) {
+            field.setFormula(value);
+        } else if ("rangeFormula".equals(propName)) {
+            field.setRangeFormula(value);
+        } else if ("pattern".equals(propName)) {
+            field.setPattern(value);
+        } else if ("maxlength".equals(propName)) {
+            if (!StringUtils.isEmpty( value ) && StringUtils.isNumeric( value )) field.setMaxlength(Long.valueOf(value));
+        } else if ("styleclass".equals(propName)) {
+            field.setStyleclass(value);
+        } else if ("cssStyle".equals(propName)) {
+            field.setCssStyle(value);
+        } else if ("tabindex".equals(propName)) {
+            if (!StringUtils.isEmpty( value ) && StringUtils.isNumeric( value )) field.setTabindex(Long.valueOf(value));
+        } else if ("accesskey".equals(propName)) {
+            field.setAccesskey(value);
+        } else if ("isHTML".equals(propName)) {
+            field.setIsHTML(Boolean.valueOf(value));
+        } else if ("htmlContent".equals(propName)) {
+            field.setHtmlContent(deserializeHMLI18nEntrySet(value));
+        } else if ("hideContent".equals(propName)) {
+            field.setHideContent(Boolean.valueOf(value));
+        } else if ("defaultValueFormula".equals(propName)) {
+            field.setDefaultValueFormula(value);
+        } else if ("defaultSubform".equals(propName)) {
+            field.setDefaultSubform(value);
+        } else if ("previewSubform".equals(propName)) {
+            field.setPreviewSubform(value);
+        } else if ("tableSubform".equals(propName)) {
+            field.setTableSubform(value);
+        } else if ("newItemText".equals(propName)) {
+            field.setNewItemText(deserializeI18nEntrySet(value));
+        } else if ("addItemText".equals(propName)) {
+            field.setAddItemText(deserializeI18nEntrySet(value));
+        } else if ("cancelItemText".equals(propName)) {
+            field.setCancelItemText(deserializeI18nEntrySet(value));
+        } else if ("deleteItems".equals(propName)) {
+            field.setDeleteItems(Boolean.valueOf(value));
+        } else if ("updateItems".equals(propName)) {
+            field.setUpdateItems(Boolean.valueOf(value));
+        } else if ("visualizeItems".equals(propName)) {
+            field.setVisualizeItem(Boolean.valueOf(value));
+        } else if ("hideCreateItem".equals(propName)) {
+            field.setHideCreateItem(Boolean.valueOf(value));
+        } else if ("expanded".equals(propName)) {
+            field.setExpanded(Boolean.valueOf(value));
+        } else if ("enableTableEnterData".equals(propName)) {
+            field.setEnableTableEnterData(Boolean.valueOf(value));
+        } else if ("inputBinding".equals(propName)) {
+            field.setInputBinding(value);
+        } else if ("outputBinding".equals(propName)) {
+            field.setOutputBinding(value);
+        } else if ("customFieldType".equals(propName)) {
+            field.setCustomFieldType(value);
+        } else if ("param1".equals(propName)) {
+            field.setParam1(value);
+        } else if ("param2".equals(propName)) {
+            field.setParam2(value);
+        } else if ("param3".equals(propName)) {
+            field.setParam3(value);
+        } else if ("param4".equals(propName)) {
+            field.setParam4(value);
+        } else if ("param5".equals(propName)) {
+            field.setParam5(value);
+        } else if ("fieldClass".equals(propName)) {
+            field.getFieldType().setFieldClass(value);
+        } else if ("onChangeScript".equals(propName)) {
+            field.setOnChangeScript(value);
+        }
+    }
+
+    protected void setFieldResources(Form form, Field field, Map<String, Properties> resources) {
         if (resources != null) {
             field.setTitle(new I18nSet());
             field.setLabel(new I18nSet());
@@ -378,7 +546,6 @@ public class FormSerializationManagerImpl implements FormSerializationManager {
                 if (!StringUtils.isEmpty(value)) field.getErrorMessage().setValue(lang, value);
             }
         }
-        return field;
     }
 
     private String getFieldProperty(String formName, String fieldName, String selector, Properties props) {
@@ -391,80 +558,105 @@ public class FormSerializationManagerImpl implements FormSerializationManager {
         return value;
     }
 
-    public void generateFieldXML(Field field, XMLNode parent) {
-        XMLNode rootNode = new XMLNode(NODE_FIELD, parent);
-        rootNode.addAttribute(ATTR_ID, String.valueOf(field.getId()));
-        rootNode.addAttribute(ATTR_POSITION, String.valueOf(field.getPosition()));
-        rootNode.addAttribute(ATTR_NAME, field.getFieldName());
-        if (field.getFieldType() != null) {
-            rootNode.addAttribute(ATTR_TYPE, field.getFieldType().getCode());
-        }
+    /**
+     * Writes the field element. Attributes are written in the order they have always had on the form files.
+     */
+    public void generateFieldXML(Field field, XMLElementWriter writer) throws IOException {
+        writer.startElement(NODE_FIELD);
+        writer.addAttribute(ATTR_POSITION, String.valueOf(field.getPosition()));
+        writer.addAttribute(ATTR_NAME, field.getFieldName());
 
         if (!StringUtils.isEmpty(field.getBag())) {
-            rootNode.addAttribute(ATTR_BAG_TYPE, field.getBag());
+            writer.addAttribute(ATTR_BAG_TYPE, field.getBag());
         }
 
-        addXMLNode("fieldRequired", (field.getFieldRequired() != null ? String.valueOf(field.getFieldRequired()) : null), rootNode);
-        addXMLNode("groupWithPrevious", (field.getGroupWithPrevious() != null ? String.valueOf(field.getGroupWithPrevious()) : null), rootNode);
-        addXMLNode("height", field.getHeight(), rootNode);
-        addXMLNode("labelCSSClass", field.getLabelCSSClass(), rootNode);
-        addXMLNode("labelCSSStyle", field.getLabelCSSStyle(), rootNode);
-        addXMLNode("label", (field.getLabel() != null ? serializeI18nSet(field.getLabel()) : null), rootNode);
-        addXMLNode("errorMessage", (field.getErrorMessage() != null ? serializeI18nSet(field.getErrorMessage()) : null), rootNode);
-        addXMLNode("title", (field.getTitle() != null ? serializeI18nSet(field.getTitle()) : null), rootNode);
-        addXMLNode("readonly", (field.getReadonly() != null ? String.valueOf(field.getReadonly()) : null), rootNode);
-        addXMLNode("size", (field.getSize() != null ? String.valueOf(field.getSize()) : null), rootNode);
-        addXMLNode("formula", field.getFormula(), rootNode);
-        addXMLNode("rangeFormula", field.getRangeFormula(), rootNode);
-        addXMLNode("pattern", field.getPattern(), rootNode);
-        addXMLNode("maxlength", (field.getMaxlength() != null ? String.valueOf(field.getMaxlength()) : null), rootNode);
-        addXMLNode("styleclass", field.getStyleclass(), rootNode);
-        addXMLNode("cssStyle", field.getCssStyle(), rootNode);
-        addXMLNode("tabindex", (field.getTabindex() != null ? String.valueOf(field.getTabindex()) : null), rootNode);
-        addXMLNode("accesskey", field.getAccesskey(), rootNode);
-        addXMLNode("isHTML", (field.getIsHTML() != null ? String.valueOf(field.getIsHTML()) : null), rootNode);
-        addXMLNode("hideContent", (field.getHideContent() != null ? String.valueOf(field.getHideContent()) : null), rootNode);
-        addXMLNode("defaultValueFormula", field.getDefaultValueFormula(), rootNode);
-        addXMLNode("inputBinding", field.getInputBinding(), rootNode);
-        addXMLNode("outputBinding", field.getOutputBinding(), rootNode);
-        addXMLNode("htmlContent", (field.getHtmlContent() != null ? serializeI18nSet(field.getHtmlContent()) : null), rootNode);
-
-        addXMLNode("defaultSubform", field.getDefaultSubform(), rootNode);
-        addXMLNode("previewSubform", field.getPreviewSubform(), rootNode);
-        addXMLNode("tableSubform", field.getTableSubform(), rootNode);
-        addXMLNode("newItemText", (field.getNewItemText() != null ? serializeI18nSet(field.getNewItemText()):null), rootNode);
-        addXMLNode("addItemText", (field.getAddItemText() != null ? serializeI18nSet(field.getAddItemText()):null), rootNode);
-        addXMLNode("cancelItemText", (field.getCancelItemText() != null ? serializeI18nSet(field.getCancelItemText()):null), rootNode);
-        addXMLNode("deleteItems", (field.getDeleteItems() != null ? String.valueOf(field.getDeleteItems()) : null), rootNode);
-        addXMLNode("updateItems", (field.getUpdateItems() != null ? String.valueOf(field.getUpdateItems()) : null), rootNode);
-        addXMLNode("visualizeItems", (field.getVisualizeItem() != null ? String.valueOf(field.getVisualizeItem()) : null), rootNode);
-        addXMLNode("hideCreateItem", (field.getHideCreateItem() != null ? String.valueOf(field.getHideCreateItem()) : null), rootNode);
-        addXMLNode("expanded", (field.getExpanded() != null ? String.valueOf(field.getExpanded()) : null), rootNode);
-        addXMLNode("enableTableEnterData", (field.getEnableTableEnterData() != null ? String.valueOf(field.getEnableTableEnterData()) : null), rootNode);
-        addXMLNode("customFieldType", field.getCustomFieldType(), rootNode);
-        addXMLNode("fieldClass", field.getFieldType().getFieldClass(), rootNode);
-        addXMLNode("param1", field.getParam1(), rootNode);
-        addXMLNode("param2", field.getParam2(), rootNode);
-        addXMLNode("param3", field.getParam3(), rootNode);
-        addXMLNode("param4", field.getParam4(), rootNode);
-        addXMLNode("param5", field.getParam5(), rootNode);
-        addXMLNode("onChangeScript", field.getOnChangeScript(), rootNode);
-
-        parent.addChild(rootNode);
+        if (field.getFieldType() != null) {
+            writer.addAttribute(ATTR_TYPE, field.getFieldType().getCode());
+        }
+        writer.addAttribute(ATTR_ID, String.valueOf(field.getId()));
+
+        writeProperty("fieldRequired", (field.getFieldRequired() != null ? String.valueOf(field.getFieldRequired()) : null), writer);
+        writeProperty("groupWithPrevious", (field.getGroupWithPrevious() != null ? String.valueOf(field.getGroupWithPrevious()) : null), writer);
+        writeProperty("height", field.getHeight(), writer);
+        writeProperty("labelCSSClass", field.getLabelCSSClass(), writer);
+        writeProperty("labelCSSStyle", field.getLabelCSSStyle(), writer);
+        writeProperty("label", (field.getLabel() != null ? serializeI18nSet(field.getLabel()) : null), writer);
+        writeProperty("errorMessage", (field.getErrorMessage() != null ? serializeI18nSet(field.getErrorMessage()) : null), writer);
+        writeProperty("title", (field.getTitle() != null ? serializeI18nSet(field.getTitle()) : null), writer);
+        writeProperty("readonly", (field.getReadonly() != null ? String.valueOf(field.getReadonly()) : null), writer);
+        writeProperty("size", (field.getSize() != null ? String.valueOf(field.getSize()) : null), writer);
+        writeProperty("formula", field.getFormula(), writer);
+        writeProperty("rangeFormula", field.getRangeFormula(), writer);
+        writeProperty("pattern", field.getPattern(), writer);
+        writeProperty("maxlength", (field.getMaxlength() != null ? String.valueOf(field.getMaxlength()) : null), writer);
+        writeProperty("styleclass", field.getStyleclass(), writer);
+        writeProperty("cssStyle", field.getCssStyle(), writer);
+        writeProperty("tabindex", (field.getTabindex() != null ? String.valueOf(field.getTabindex()) : null), writer);
+        writeProperty("accesskey", field.getAccesskey(), writer);
+        writeProperty("isHTML", (field.getIsHTML() != null ? String.valueOf(field.getIsHTML()) : null), writer);
+        writeProperty("hideContent", (field.getHideContent() != null ? String.valueOf(field.getHideContent()) : null), writer);
+        writeProperty("defaultValueFormula", field.getDefaultValueFormula(), writer);
+        writeProperty("inputBinding", field.getInputBinding(), writer);
+        writeProperty("outputBinding", field.getOutputBinding(), writer);
+        writeProperty("htmlContent", (field.getHtmlContent() != null ? serializeI18nSet(field.getHtmlContent()) : null), writer);
+
+        writeProperty("defaultSubform", field.getDefaultSubform(), writer);
+        writeProperty("previewSubform", field.getPreviewSubform(), writer);
+        writeProperty("tableSubform", field.getTableSubform(), writer);
+        writeProperty("newItemText", (field.getNewItemText() != null ? serializeI18nSet(field.getNewItemText()):null), writer);
+        writeProperty("addItemText", (field.getAddItemText() != null ? serializeI18nSet(field.getAddItemText()):null), writer);
+        writeProperty("cancelItemText", (field.getCancelItemText() != null ? serializeI18nSet(field.getCancelItemText()):null), writer);
+        writeProperty("deleteItems", (field.getDeleteItems() != null ? String.valueOf(field.getDeleteItems()) : null), writer);
+        writeProperty("updateItems", (field.getUpdateItems() != null ? String.valueOf(field.getUpdateItems()) : null), writer);
+        writeProperty("visualizeItems", (field.getVisualizeItem() != null ? String.valueOf(field.getVisualizeItem()) : null), writer);
+        writeProperty("hideCreateItem", (field.getHideCreateItem() != null ? String.valueOf(field.getHideCreateItem()) : null), writer);
+        writeProperty("expanded", (field.getExpanded() != null ? String.valueOf(field.getExpanded()) : null), writer);
+        writeProperty("enableTableEnterData", (field.getEnableTableEnterData() != null ? String.valueOf(field.getEnableTableEnterData()) : null), writer);
+        writeProperty("customFieldType", field.getCustomFieldType(), writer);
+        writeProperty("fieldClass", field.getFieldType().getFieldClass(), writer);
+        writeProperty("param1", field.getParam1(), writer);
+        writeProperty("param2", field.getParam2(), writer);
+        writeProperty("param3", field.getParam3(), writer);
+        writeProperty("param4", field.getParam4(), writer);
+        writeProperty("param5", field.getParam5(), writer);
+        writeProperty("onChangeScript", field.getOnChangeScript(), writer);
+
+        writer.endElement();
     }
 
-    public void generateDataHolderXML(DataHolder dataHolder, XMLNode parent) {
-        XMLNode rootNode = new XMLNode(NODE_DATA_HOLDER, parent);
-        rootNode.addAttribute(ATTR_ID, dataHolder.getUniqeId());
-        rootNode.addAttribute(ATTR_INPUT_ID, dataHolder.getInputId());
-        rootNode.addAttribute(ATTR_OUT_ID, dataHolder.getOuputId());
-        rootNode.addAttribute(ATTR_TYPE, dataHolder.getTypeCode());
-        rootNode.addAttribute(ATTR_VALUE, dataHolder.getInfo());
-        rootNode.addAttribute(ATTR_NAME, dataHolder.getRenderColor());
+    public void generateFieldXML(Field field, XMLNode parent) {
+        try {
+            generateFieldXML(field, new XMLNodeWriter(parent));
+        } catch (IOException e) {
+            // XMLNodeWriter doesn't write anything
+            throw new IllegalStateException(e);
+        }
+    }
 
-        if (!StringUtils.isEmpty(dataHolder.getSupportedType())) rootNode.addAttribute(ATTR_SUPPORTED_TYPE, dataHolder.getSupportedType());
+    /**
+     * Writes the data holder element. Attributes are written in the order they have always had on the form files.
+     */
+    public void generateDataHolderXML(DataHolder dataHolder, XMLElementWriter writer) throws IOException {
+        writer.startElement(NODE_DATA_HOLDER);
+        writer.addAttribute(ATTR_NAME, dataHolder.getRenderColor());
+        writer.addAttribute(ATTR_TYPE, dataHolder.getTypeCode());
+        writer.addAttribute(ATTR_VALUE, dataHolder.getInfo());
+        writer.addAttribute(ATTR_ID, dataHolder.getUniqeId());
+        writer.addAttribute(ATTR_INPUT_ID, dataHolder.getInputId());
+        writer.addAttribute(ATTR_OUT_ID, dataHolder.getOuputId());
+
+        if (!StringUtils.isEmpty(dataHolder.getSupportedType())) writer.addAttribute(ATTR_SUPPORTED_TYPE, dataHolder.getSupportedType());
+
+        writer.endElement();
+    }
 
-        parent.addChild(rootNode);
+    public void generateDataHolderXML(DataHolder dataHolder, XMLNode parent) {
+        try {
+            generateDataHolderXML(dataHolder, new XMLNodeWriter(parent));
+        } catch (IOException e) {
+            // XMLNodeWriter doesn't write anything
+            throw new IllegalStateException(e);
+        }
     }
 
     protected String[] decodeStringArray(String textValue) {
@@ -27,7 +27,6 @@ import javax.enterprise.context.ApplicationScoped;
 import org.jbpm.formModeler.api.model.Field;
 import org.jbpm.formModeler.api.model.Form;
 import org.jbpm.formModeler.api.model.wrappers.I18nSet;
-import org.jbpm.formModeler.core.xml.util.XMLNode;
 
 /**
  * Created with IntelliJ IDEA.
@@ -48,17 +47,13 @@ public class TestFormSerialization {
     public boolean saveFormToLocalDrive(Form form) {
         try {
 
-            XMLNode rootNode = new XMLNode(FormSerializationManagerImpl.NODE_FORM, null);
-
-            formSerializationManager.generateFormXML(form, rootNode);
-
             String fileName = "default";
             if (form != null) fileName = form.getName() + ".form";
 
             OutputStreamWriter wos = new OutputStreamWriter(new FileOutputStream(fileName));
             wos.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
 
-            rootNode.writeXML(wos, true);
+            formSerializationManager.generateFormXML(form, wos);
             wos.close();
 
             return true;
@@ -0,0 +1,233 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.core.model;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Getters, setters and no-arg constructor of a pojo class, looked up once and kept as method handles so reading and
+ * writing the pojo values doesn't go through reflection on every request. The bindable properties of the class are
+ * also computed once, instead of once per holder.
+ * Accessors are attached to the Class instance and shared by all the forms using it; classes loaded by a new class
+ * loader (e.g. after a project is rebuilt) get their own accessors and the old ones go away with their class loader.
+ */
+public class PojoAccessors {
+    private static transient Logger log = LoggerFactory.getLogger(PojoAccessors.class);
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private static final ClassValue<PojoAccessors> accessors = new ClassValue<PojoAccessors>() {
+        @Override
+        protected PojoAccessors computeValue(Class<?> type) {
+            return new PojoAccessors(type);
+        }
+    };
+
+    public static PojoAccessors forClass(Class<?> type) {
+        return accessors.get(type);
+    }
+
+    /**
+     * Discards the accessors resolved for the given class.
+     */
+    public static void release(Class<?> type) {
+        accessors.remove(type);
+    }
+
+    private final Class<?> type;
+    private final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+    private final ConcurrentMap<String, MethodHandle> getters = new ConcurrentHashMap<String, MethodHandle>();
+    private final ConcurrentMap<String, MethodHandle> setters = new ConcurrentHashMap<String, MethodHandle>();
+
+    private volatile boolean constructorResolved = false;
+    private volatile MethodHandle constructor;
+
+    private volatile List<Property> properties;
+
+    protected PojoAccessors(Class<?> type) {
+        this.type = type;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Reads the property using its public "get" method.
+     */
+    public Object getValue(Object source, String propName) throws Exception {
+        MethodHandle getter = getters.get(propName);
+        if (getter == null) {
+            getter = resolveGetter(propName);
+            getters.putIfAbsent(propName, getter);
+        }
+        try {
+            return getter.invokeExact(source);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Writes the property using the public "set" method that takes the type of the field declared on the class.
+     */
+    public void setValue(Object destination, String propName, Object value) throws Exception {
+        MethodHandle setter = setters.get(propName);
+        if (setter == null) {
+            setter = resolveSetter(propName);
+            setters.putIfAbsent(propName, setter);
+        }
+        try {
+            setter.invokeExact(destination, value);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    protected MethodHandle resolveGetter(String propName) throws Exception {
+        return lookup.unreflect(type.getMethod("get" + capitalize(propName))).asType(GETTER_TYPE);
+    }
+
+    protected MethodHandle resolveSetter(String propName) throws Exception {
+        Field field = type.getDeclaredField(propName);
+        return lookup.unreflect(type.getMethod("set" + capitalize(propName), field.getType())).asType(SETTER_TYPE);
+    }
+
+    /**
+     * Creates a new instance using the public no-arg constructor, null if the class hasn't one.
+     */
+    public Object newInstance() throws Exception {
+        if (!constructorResolved) {
+            for (Constructor c : type.getConstructors()) {
+                if (c.getParameterTypes().length == 0) {
+                    constructor = lookup.unreflectConstructor(c).asType(CONSTRUCTOR_TYPE);
+                    break;
+                }
+            }
+            constructorResolved = true;
+        }
+        if (constructor == null) return null;
+        try {
+            return constructor.invokeExact();
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Returns the fields declared on the class that have a setter and a getter (or "is" method for booleans).
+     */
+    public List<Property> getProperties() {
+        List<Property> result = properties;
+        if (result == null) {
+            result = properties = Collections.unmodifiableList(calculateProperties());
+        }
+        return result;
+    }
+
+    protected List<Property> calculateProperties() {
+        List<Property> result = new ArrayList<Property>();
+
+        for (Field field : type.getDeclaredFields()) {
+            String capitalizedName = capitalize(field.getName());
+            try {
+                Method setter = type.getDeclaredMethod("set" + capitalizedName, field.getType());
+
+                if (!setter.getReturnType().getName().equals("void") && !Modifier.isPublic(setter.getModifiers())) continue;
+
+                Method getter;
+
+                if (field.getType().equals(boolean.class)) getter = type.getDeclaredMethod("is" + capitalizedName);
+                else getter = type.getDeclaredMethod("get" + capitalizedName);
+
+                if (!getter.getReturnType().equals(field.getType()) && !Modifier.isPublic(getter.getModifiers())) continue;
+
+                Type genericType = field.getGenericType();
+
+                String bag = null;
+
+                if (genericType instanceof ParameterizedType) {
+                    Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+                    if (arguments != null && arguments.length == 1) bag = ((Class<?>) arguments[0]).getName();
+                }
+
+                result.add(new Property(field.getName(), field.getType().getName(), bag));
+
+            } catch (Exception e) {
+                log.debug("Unable to generate field holder for '{}': {}", field.getName(), e);
+            }
+        }
+        return result;
+    }
+
+    protected static String capitalize(String string) {
+        if (null == string) return "";
+        return Character.toUpperCase(string.charAt(0)) + string.substring(1);
+    }
+
+    protected static Exception rethrow(Throwable t) {
+        if (t instanceof Error) throw (Error) t;
+        if (t instanceof Exception) return (Exception) t;
+        return new UndeclaredThrowableException(t);
+    }
+
+    /**
+     * A bindable property of the pojo class.
+     */
+    public static class Property {
+        private final String name;
+        private final String className;
+        private final String bag;
+
+        public Property(String name, String className, String bag) {
+            this.name = name;
+            this.className = className;
+            this.bag = bag;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getBag() {
+            return bag;
+        }
+    }
+}
@@ -15,12 +15,8 @@
  */
 package org.jbpm.formModeler.core.model;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -43,6 +39,7 @@ public class PojoDataHolder extends DefaultDataHolder  {
     protected FieldTypeManager fieldTypeManager;
 
     protected Set<DataFieldHolder> dataFieldHolders;
+    protected transient Map<String, DataFieldHolder> dataFieldHoldersById;
 
 
     public Object createInstance(FormRenderContext context) throws Exception {
@@ -50,12 +47,7 @@ public class PojoDataHolder extends DefaultDataHolder  {
     }
 
     protected Object createInstance(Class pojoClass) throws Exception {
-        for (Constructor constructor : pojoClass.getConstructors()) {
-            if (constructor.getParameterTypes().length == 0) {
-                return constructor.newInstance();
-            }
-        }
-        return null;
+        return PojoAccessors.forClass(pojoClass).newInstance();
     }
 
     public PojoDataHolder(String uniqueId, String inputId, String outputId, String className, String renderColor) {
@@ -96,10 +88,7 @@ public class PojoDataHolder extends DefaultDataHolder  {
     @Override
     public void writeValue(Object destination, String propName, Object value) throws Exception {
         if (destination == null) return;
-        Field field = destination.getClass().getDeclaredField(propName);
-
-        Method setterMethod = destination.getClass().getMethod("set" + capitalize(propName), new Class[]{field.getType()});
-        setterMethod.invoke(destination, new Object[]{value});
+        PojoAccessors.forClass(destination.getClass()).setValue(destination, propName, value);
     }
 
     @Override
@@ -119,11 +108,7 @@ public class PojoDataHolder extends DefaultDataHolder  {
     @Override
     public Object readValue(Object source, String propName) throws Exception {
         if (source == null) return null;
-
-        Method getter = source.getClass().getMethod("get" + capitalize(propName));
-        Object value = getter.invoke(source);
-
-        return value;
+        return PojoAccessors.forClass(source.getClass()).getValue(source, propName);
     }
 
     private String capitalize(String string) {
@@ -134,8 +119,10 @@ public class PojoDataHolder extends DefaultDataHolder  {
     @Override
     public Set<DataFieldHolder> getFieldHolders() {
         try{
-            if(dataFieldHolders == null || dataFieldHolders.size()==0)
+            if(dataFieldHolders == null || dataFieldHolders.size()==0) {
                 dataFieldHolders = calculatePropertyNames();
+                dataFieldHoldersById = null;
+            }
             return dataFieldHolders;
         }catch (Exception e){
         }
@@ -155,13 +142,18 @@ public class PojoDataHolder extends DefaultDataHolder  {
 
     @Override
     public DataFieldHolder getDataFieldHolderById(String fieldHolderId) {
-        if(getFieldHolders()!=null){
-            for(DataFieldHolder dataFieldHolder: getFieldHolders() ){
-                if(dataFieldHolder.getId().equals(fieldHolderId))
-                    return dataFieldHolder;
+        Set<DataFieldHolder> fieldHolders = getFieldHolders();
+        if (fieldHolders == null) return null;
+
+        Map<String, DataFieldHolder> holdersById = dataFieldHoldersById;
+        if (holdersById == null || holdersById.size() != fieldHolders.size()) {
+            holdersById = new HashMap<String, DataFieldHolder>();
+            for (DataFieldHolder dataFieldHolder : fieldHolders) {
+                holdersById.put(dataFieldHolder.getId(), dataFieldHolder);
             }
+            dataFieldHoldersById = holdersById;
         }
-        return null;
+        return holdersById.get(fieldHolderId);
     }
 
     protected Class getHolderClass() throws ClassNotFoundException {
@@ -179,40 +171,9 @@ public class PojoDataHolder extends DefaultDataHolder  {
 
         Set<DataFieldHolder> dataFieldHolders = new TreeSet<DataFieldHolder>();
 
-        for (Field field : clazz.getDeclaredFields()) {
-
-            if (isValidType(field.getType().getName())) {
-                String capitalizedName = capitalize(field.getName());
-                try {
-                    Method setter = clazz.getDeclaredMethod("set" + capitalizedName, field.getType());
-
-                    if (!setter.getReturnType().getName().equals("void") && !Modifier.isPublic(setter.getModifiers())) continue;
-
-                    Method getter;
-
-                    if (field.getType().equals(boolean.class)) getter = clazz.getDeclaredMethod("is" + capitalizedName);
-                    else getter = clazz.getDeclaredMethod("get" + capitalizedName);
-
-                    if (!getter.getReturnType().equals(field.getType()) && !Modifier.isPublic(getter.getModifiers())) continue;
-
-                    Type type = field.getGenericType();
-
-                    DataFieldHolder fieldHolder;
-
-                    if (type instanceof ParameterizedType) {
-                        ParameterizedType generictype = (ParameterizedType)type;
-                        Type[] arguments = generictype.getActualTypeArguments();
-                        if (arguments == null || arguments.length > 1) fieldHolder =  new DataFieldHolder(this, field.getName(), field.getType().getName());
-                        else fieldHolder =  new DataFieldHolder(this, field.getName(), field.getType().getName(), ((Class<?>)arguments[0]).getName());
-                    } else {
-                        fieldHolder =  new DataFieldHolder(this, field.getName(), field.getType().getName());
-                    }
-
-                    dataFieldHolders.add(fieldHolder);
-
-                } catch (Exception e) {
-                    getLogger().debug("Unable to generate field holder for '{}': {}", field.getName(), e);
-                }
+        for (PojoAccessors.Property property : PojoAccessors.forClass(clazz).getProperties()) {
+            if (isValidType(property.getClassName())) {
+                dataFieldHolders.add(new DataFieldHolder(this, property.getName(), property.getClassName(), property.getBag()));
             }
         }
 
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+
+package org.jbpm.formModeler.core.rendering;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.enterprise.context.ApplicationScoped;
+
+import freemarker.ext.beans.BeansWrapper;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Shared FreeMarker engine that keeps a bounded cache of compiled templates, so templates are only parsed the first
+ * time they are rendered. Templates are cached by name, with the version of the source they were parsed from:
+ * <ul>
+ *     <li>Resources are only read again when their file is modified. Resources packaged in the application can't
+ *     change while it's deployed, so they are read once.</li>
+ *     <li>Templates given as text are compared by a digest of their source.</li>
+ * </ul>
+ * All the methods are thread safe.
+ */
+@ApplicationScoped
+public class FreeMarkerTemplateCache {
+
+    public static final int DEFAULT_MAX_TEMPLATES = 256;
+
+    /**
+     * Max size of the buffers kept to be reused by the next render on the same thread.
+     */
+    protected static final int MAX_REUSED_BUFFER = 64 * 1024;
+
+    private final Configuration configuration;
+    private final Map<String, CachedTemplate> templates;
+    private final ThreadLocal<StringWriter> writers = new ThreadLocal<StringWriter>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public FreeMarkerTemplateCache() {
+        this(DEFAULT_MAX_TEMPLATES);
+    }
+
+    public FreeMarkerTemplateCache(final int maxTemplates) {
+        BeansWrapper wrapper = new BeansWrapper();
+        wrapper.setSimpleMapWrapper(true);
+
+        configuration = new Configuration();
+        configuration.setObjectWrapper(wrapper);
+        configuration.setTemplateUpdateDelay(0);
+
+        templates = Collections.synchronizedMap(new LinkedHashMap<String, CachedTemplate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedTemplate> eldest) {
+                return size() > maxTemplates;
+            }
+        });
+    }
+
+    /**
+     * Get the compiled template for given resource, that is only read if it isn't cached or it was modified.
+     *
+     * @param resource the template resource
+     * @return the compiled template
+     */
+    public Template getTemplate(URL resource) throws IOException {
+        String name = resource.toExternalForm();
+        String version = String.valueOf(getLastModified(resource));
+
+        Template template = getCachedTemplate(name, version);
+        if (template == null) {
+            Reader reader = new InputStreamReader(resource.openStream());
+            try {
+                template = parseTemplate(name, version, reader);
+            } finally {
+                reader.close();
+            }
+        }
+        return template;
+    }
+
+    /**
+     * Get the compiled template for given name and source.
+     *
+     * @param name   the template name, that identifies it on the cache
+     * @param source the template source
+     * @return the compiled template
+     */
+    public Template getTemplate(String name, String source) throws IOException {
+        String version = DigestUtils.md5Hex(source);
+
+        Template template = getCachedTemplate(name, version);
+        if (template == null) template = parseTemplate(name, version, new StringReader(source));
+        return template;
+    }
+
+    protected Template getCachedTemplate(String name, String version) {
+        CachedTemplate cached = templates.get(name);
+        if (cached != null && cached.version.equals(version)) {
+            hits.incrementAndGet();
+            return cached.template;
+        }
+        return null;
+    }
+
+    protected Template parseTemplate(String name, String version, Reader source) throws IOException {
+        misses.incrementAndGet();
+        // Templates may be parsed twice by concurrent renders, but parsing is kept out of the lock
+        Template template = new Template(name, source, configuration);
+        templates.put(name, new CachedTemplate(template, version));
+        return template;
+    }
+
+    /**
+     * Determines the version of a resource. Only resources on the file system can change, the ones packaged in the
+     * application always have the same version.
+     */
+    protected long getLastModified(URL resource) {
+        if (!"file".equals(resource.getProtocol())) return 0;
+        try {
+            return new File(resource.toURI()).lastModified();
+        } catch (URISyntaxException e) {
+            return new File(resource.getPath()).lastModified();
+        }
+    }
+
+    /**
+     * Renders given template resource into a String.
+     */
+    public String render(URL resource, Map<String, Object> context) throws IOException, TemplateException {
+        return process(getTemplate(resource), context);
+    }
+
+    /**
+     * Renders given template source into a String.
+     */
+    public String render(String name, String source, Map<String, Object> context) throws IOException, TemplateException {
+        return process(getTemplate(name, source), context);
+    }
+
+    /**
+     * Renders given template resource into the given writer.
+     */
+    public void render(URL resource, Map<String, Object> context, Writer out) throws IOException, TemplateException {
+        getTemplate(resource).process(context, out);
+    }
+
+    /**
+     * Renders given template into a String, using a buffer reused by the renders on the current thread.
+     */
+    protected String process(Template template, Map<String, Object> context) throws IOException, TemplateException {
+        StringWriter out = writers.get();
+        // Nested renders on the same thread use their own writer
+        writers.set(null);
+        if (out == null) out = new StringWriter();
+        try {
+            template.process(context, out);
+            return out.toString();
+        } finally {
+            StringBuffer buffer = out.getBuffer();
+            buffer.setLength(0);
+            if (buffer.capacity() <= MAX_REUSED_BUFFER) writers.set(out);
+        }
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    public void clear() {
+        templates.clear();
+    }
+
+    /**
+     * @return the number of templates found on the cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of templates parsed because they weren't on the cache or they changed
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    protected static class CachedTemplate {
+        private final Template template;
+        private final String version;
+
+        protected CachedTemplate(Template template, String version) {
+            this.template = template;
+            this.version = version;
+        }
+    }
+}
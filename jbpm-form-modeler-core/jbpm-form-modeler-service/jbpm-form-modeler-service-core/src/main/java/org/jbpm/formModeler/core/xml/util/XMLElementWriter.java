@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.core.xml.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedList;
+
+/**
+ * Writes XML elements directly to a Writer, in the same format than XMLNode.writeXML, without building a node tree.
+ * The attributes of an element must be added before its children.
+ */
+public class XMLElementWriter {
+
+    private static final String INDENT_STR = "    ";
+
+    private Writer writer;
+    private boolean blanks;
+    private boolean indent;
+
+    private LinkedList<String> openElements = new LinkedList<String>();
+    private boolean startTagOpen = false;
+
+    /**
+     * For subclasses that build the elements instead of writing them.
+     */
+    protected XMLElementWriter() {
+    }
+
+    public XMLElementWriter(Writer writer, boolean blanks) {
+        this(writer, blanks, false);
+    }
+
+    public XMLElementWriter(Writer writer, boolean blanks, boolean indent) {
+        this.writer = writer;
+        this.blanks = blanks;
+        this.indent = indent;
+    }
+
+    public void startElement(String name) throws IOException {
+        closeStartTag();
+        writeBlanks();
+        writer.write("<");
+        writer.write(name);
+        openElements.addFirst(name);
+        startTagOpen = true;
+    }
+
+    /**
+     * Adds an attribute to the current element, attributes without value aren't written.
+     */
+    public void addAttribute(String name, String value) throws IOException {
+        if (!startTagOpen) throw new IllegalStateException("Attributes must be added before the element content");
+        if (name == null || value == null) return;
+        writer.write(" ");
+        writer.write(name);
+        writer.write("=\"");
+        XMLNode.escapeXml(value, writer);
+        writer.write("\"");
+    }
+
+    public void endElement() throws IOException {
+        String name = openElements.removeFirst();
+        if (startTagOpen) {
+            writer.write("/>");
+            startTagOpen = false;
+            return;
+        }
+        writeBlanks();
+        writer.write("</");
+        writer.write(name);
+        writer.write(">");
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    protected void closeStartTag() throws IOException {
+        if (startTagOpen) {
+            writer.write(">");
+            startTagOpen = false;
+        }
+    }
+
+    protected void writeBlanks() throws IOException {
+        if (!blanks) return;
+        writer.write("\n");
+        if (indent) {
+            for (int i = 0; i < openElements.size(); i++) {
+                writer.write(INDENT_STR);
+            }
+        }
+    }
+}
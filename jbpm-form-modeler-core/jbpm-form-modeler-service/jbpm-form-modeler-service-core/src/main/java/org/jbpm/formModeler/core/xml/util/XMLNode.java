@@ -17,6 +17,7 @@ package org.jbpm.formModeler.core.xml.util;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -181,16 +182,33 @@ public class XMLNode implements Serializable {
     }
 
     public static String escapeXml(String s) {
-        s = StringEscapeUtils.escapeXml(s);
-        StringBuffer dest = new StringBuffer();
+        StringWriter dest = new StringWriter(s.length());
+        try {
+            escapeXml(s, dest);
+        } catch (IOException e) {
+            // Never thrown by a StringWriter
+        }
+        return dest.toString();
+    }
+
+    /**
+     * Writes the escaped value to the writer, skipping the chars that aren't valid on XML. Escapes the same chars
+     * than StringEscapeUtils.escapeXml.
+     */
+    public static void escapeXml(String s, Writer writer) throws IOException {
         char c;
         for (int i = 0; i < s.length(); i++) {
             c = s.charAt(i);
-            if (XMLChar.isValid(c)) {
-                dest.append(c);
+            if (!XMLChar.isValid(c)) continue;
+            switch (c) {
+                case '"': writer.write("&quot;"); break;
+                case '&': writer.write("&amp;"); break;
+                case '<': writer.write("&lt;"); break;
+                case '>': writer.write("&gt;"); break;
+                case '\'': writer.write("&apos;"); break;
+                default: writer.write(c);
             }
         }
-        return dest.toString();
     }
     
     public String indentStr(int indent) {
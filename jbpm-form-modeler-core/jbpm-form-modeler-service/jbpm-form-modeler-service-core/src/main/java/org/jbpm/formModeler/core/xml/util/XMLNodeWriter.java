@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.core.xml.util;
+
+import java.util.LinkedList;
+
+/**
+ * XMLElementWriter that builds an XMLNode structure instead of writing the XML text, so the code written against the
+ * streaming writer can still fill XMLNodes.
+ */
+public class XMLNodeWriter extends XMLElementWriter {
+
+    private XMLNode parent;
+    private XMLNode rootNode;
+
+    private LinkedList<XMLNode> openNodes = new LinkedList<XMLNode>();
+
+    /**
+     * The elements written are added as children of the parent node.
+     */
+    public XMLNodeWriter(XMLNode parent) {
+        this(parent, null);
+    }
+
+    /**
+     * The first element written fills the given rootNode, keeping its name, instead of creating a new node.
+     */
+    public XMLNodeWriter(XMLNode parent, XMLNode rootNode) {
+        this.parent = parent;
+        this.rootNode = rootNode;
+    }
+
+    @Override
+    public void startElement(String name) {
+        XMLNode node;
+        if (openNodes.isEmpty() && rootNode != null) {
+            node = rootNode;
+            rootNode = null;
+        } else {
+            XMLNode nodeParent = openNodes.isEmpty() ? parent : openNodes.getFirst();
+            if (nodeParent == null) throw new IllegalStateException("There's no node to add the element " + name + " to");
+            node = new XMLNode(name, nodeParent);
+            nodeParent.addChild(node);
+        }
+        openNodes.addFirst(node);
+    }
+
+    @Override
+    public void addAttribute(String name, String value) {
+        if (openNodes.isEmpty()) throw new IllegalStateException("There's no element to add the attribute to");
+        if (name == null || value == null) return;
+        openNodes.getFirst().addAttribute(name, value);
+    }
+
+    @Override
+    public void endElement() {
+        openNodes.removeFirst();
+    }
+
+    @Override
+    public void flush() {
+    }
+}
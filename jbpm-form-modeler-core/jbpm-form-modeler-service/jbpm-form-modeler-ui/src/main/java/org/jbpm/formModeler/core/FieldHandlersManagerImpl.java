@@ -17,23 +17,47 @@ package org.jbpm.formModeler.core;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jbpm.formModeler.api.model.FieldType;
+import org.jbpm.formModeler.core.config.FieldTypeManager;
 import org.jbpm.formModeler.core.processing.FieldHandler;
 import org.jbpm.formModeler.core.processing.fieldHandlers.*;
 import org.jbpm.formModeler.core.processing.fieldHandlers.multipleSubform.CreateDynamicObjectFieldHandler;
 import org.jbpm.formModeler.core.processing.formDecorators.*;
 import org.jbpm.formModeler.service.cdi.CDIBeanLocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Resolves the handlers of the field types. Handlers are looked up on the bean manager only the first time a manager
+ * class is requested, the resolved handlers (or the lack of handler) are kept in a table indexed by manager class.
+ */
 @ApplicationScoped
 public class FieldHandlersManagerImpl implements FieldHandlersManager {
 
+    private Logger log = LoggerFactory.getLogger(FieldHandlersManagerImpl.class);
+
+    /**
+     * Marks the manager classes without handler, so they aren't looked up again.
+     */
+    private static final Object NO_HANDLER = new Object();
+
+    @Inject
+    protected FieldTypeManager fieldTypeManager;
+
     private List<FieldHandler> handlers;
     private List<FieldHandler> decorators;
 
+    private final ConcurrentMap<String, Object> resolvedHandlers = new ConcurrentHashMap<String, Object>();
+    private final AtomicLong handlerCacheMisses = new AtomicLong();
+
     @PostConstruct
     protected void init() {
         handlers = new ArrayList<FieldHandler>();
@@ -54,6 +78,37 @@ public class FieldHandlersManagerImpl implements FieldHandlersManager {
 
         decorators.add(new SubformFieldHandler());
         decorators.add(new CreateDynamicObjectFieldHandler());
+
+        refreshHandlers();
+    }
+
+    /**
+     * Rebuilds the handlers table from the types registered on the FieldTypeManager. Handlers of types registered
+     * later are resolved the first time they are requested.
+     */
+    public void refreshHandlers() {
+        resolvedHandlers.clear();
+        if (fieldTypeManager == null) return;
+
+        List<FieldType> types = new ArrayList<FieldType>();
+        types.addAll(fieldTypeManager.getFieldTypes());
+        types.addAll(fieldTypeManager.getFormDecoratorTypes());
+        types.addAll(fieldTypeManager.getFormComplexTypes());
+
+        for (FieldType type : types) {
+            try {
+                getHandler(type);
+            } catch (Exception e) {
+                log.warn("Error resolving handler for field type '" + type.getCode() + "': ", e);
+            }
+        }
+    }
+
+    /**
+     * @return the number of handler requests that had to look up the handler on the bean manager
+     */
+    public long getHandlerCacheMisses() {
+        return handlerCacheMisses.get();
     }
 
     public List<FieldHandler> getDecorators() {
@@ -70,6 +125,17 @@ public class FieldHandlersManagerImpl implements FieldHandlersManager {
         String handlerClass = fieldType.getManagerClass();
         if (StringUtils.isBlank(handlerClass)) return null;
 
+        Object handler = resolvedHandlers.get(handlerClass);
+        if (handler == null) {
+            handlerCacheMisses.incrementAndGet();
+            handler = resolveHandler(handlerClass);
+            if (handler == null) handler = NO_HANDLER;
+            resolvedHandlers.put(handlerClass, handler);
+        }
+        return handler != NO_HANDLER ? (FieldHandler) handler : null;
+    }
+
+    protected FieldHandler resolveHandler(String handlerClass) {
         return (FieldHandler) CDIBeanLocator.getBeanByNameOrType(handlerClass);
     }
 }
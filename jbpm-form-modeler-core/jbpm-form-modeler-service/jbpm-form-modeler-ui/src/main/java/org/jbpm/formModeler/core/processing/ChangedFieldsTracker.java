@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.core.processing;
+
+import java.util.Set;
+
+import org.jbpm.formModeler.api.model.Form;
+
+/**
+ * A form processor that tracks which field values change, so only the formulas depending on them are evaluated.
+ * Processors that don't implement it get all the formulas evaluated on every change.
+ */
+public interface ChangedFieldsTracker {
+
+    /**
+     * Returns the fields which value has changed (through setValues or modify) since the last call, and forgets them.
+     *
+     * @param form      Form to process
+     * @param namespace Form namespace
+     * @return the names of the changed fields
+     */
+    public Set<String> pollChangedFields(Form form, String namespace);
+}
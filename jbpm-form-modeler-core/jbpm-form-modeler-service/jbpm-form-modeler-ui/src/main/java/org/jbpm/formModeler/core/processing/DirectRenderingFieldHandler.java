@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.core.processing;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.jbpm.formModeler.api.model.Field;
+
+/**
+ * A field handler that can write its markup by itself. When all the fields of a form are handled by one of these,
+ * and all of them support it, the form is rendered without including the handler pages for each field.
+ * <p/>
+ * Only the plugable handlers, whose markup is already built in Java, implement it. The core handlers (input text,
+ * numeric, date...) render through formatters that read the wrong values, ranges and formulas of the form status, so
+ * forms with any of their fields keep including the handler pages.
+ */
+public interface DirectRenderingFieldHandler extends FieldHandler {
+
+    /**
+     * Determines if the markup written by this handler is the one its pages would output, so they can be skipped.
+     * Handlers that provide their own pages must return false to keep them included.
+     */
+    public boolean isDirectRenderingSupported();
+
+    /**
+     * Writes the markup that renders the input(s) of the field, the same the page returned by
+     * getPageToIncludeForRendering() would output.
+     */
+    public void writeInputHTML(Writer out, Object value, Field field, String inputName, String namespace, Boolean readonly) throws IOException;
+
+    /**
+     * Writes the markup that displays the value of the field, the same the page returned by
+     * getPageToIncludeForDisplaying() would output.
+     */
+    public void writeShowHTML(Writer out, Object value, Field field, String inputName, String namespace) throws IOException;
+}
@@ -119,7 +119,7 @@ public class DateFieldHandler extends DefaultFieldHandler {
     }
     
     protected SimpleDateFormat getSimpleDateFormat(Field field, boolean useDefault, String pattern) {
-        return new SimpleDateFormat(getPattern(field, useDefault, pattern));
+        return FormatterCache.getDateFormat(getPattern(field, useDefault, pattern));
     }
     
     public Object getTheDate(String[] values, SimpleDateFormat sdf) throws Exception {
@@ -131,7 +131,7 @@ public class DateFieldHandler extends DefaultFieldHandler {
     public Map getParamValue(Field field, String inputName, Object objectValue) {
         Map m = new HashMap();
         if (objectValue != null) {
-            SimpleDateFormat sdf = new SimpleDateFormat(StringUtils.defaultString(getFieldPattern(field), defaultPattern));
+            SimpleDateFormat sdf = FormatterCache.getDateFormat(StringUtils.defaultString(getFieldPattern(field), defaultPattern));
             m.put(inputName, new String[]{sdf.format(objectValue)});
         }
         return m;
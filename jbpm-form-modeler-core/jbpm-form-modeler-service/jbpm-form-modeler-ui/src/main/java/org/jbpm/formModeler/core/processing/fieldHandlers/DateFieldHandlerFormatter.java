@@ -64,7 +64,7 @@ public class DateFieldHandlerFormatter extends DefaultFieldHandlerFormatter {
             inputPattern += " " + dateFieldHandler.getDefaultPatterTimeSuffix();
         }
 
-        SimpleDateFormat sdf = new SimpleDateFormat(inputPattern,  LocaleManager.currentLocale());
+        SimpleDateFormat sdf = FormatterCache.getDateFormat(inputPattern, LocaleManager.currentLocale());
         String dateValue = "";
         if (value != null) dateValue = sdf.format(value);
 
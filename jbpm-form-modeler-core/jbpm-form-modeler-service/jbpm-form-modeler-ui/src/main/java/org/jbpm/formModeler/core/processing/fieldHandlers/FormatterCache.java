@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.core.processing.fieldHandlers;
+
+import java.text.DecimalFormat;
+import java.text.Format;
+import java.text.SimpleDateFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Number and date formats by locale and pattern, so the numeric and date handlers don't build a new format for every
+ * value they parse or format.
+ * Formats aren't thread safe, so each thread keeps its own ones (the last MAX_FORMATS used). The returned formats
+ * must be used right away and never modified.
+ */
+public class FormatterCache {
+
+    public static final int MAX_FORMATS = 64;
+
+    private static final ThreadLocal<Map<String, Format>> formats = new ThreadLocal<Map<String, Format>>() {
+        @Override
+        protected Map<String, Format> initialValue() {
+            return new LinkedHashMap<String, Format>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Format> eldest) {
+                    return size() > MAX_FORMATS;
+                }
+            };
+        }
+    };
+
+    /**
+     * Returns a DecimalFormat for the locale with the given pattern applied.
+     */
+    public static DecimalFormat getDecimalFormat(Locale locale, String pattern, boolean parseBigDecimal) {
+        String key = (parseBigDecimal ? "B/" : "D/") + locale + "/" + pattern;
+        Map<String, Format> threadFormats = formats.get();
+
+        DecimalFormat df = (DecimalFormat) threadFormats.get(key);
+        if (df == null) {
+            df = (DecimalFormat) DecimalFormat.getInstance(locale);
+            df.setParseBigDecimal(parseBigDecimal);
+            df.applyPattern(pattern);
+            threadFormats.put(key, df);
+        }
+        return df;
+    }
+
+    /**
+     * Returns a SimpleDateFormat for the pattern and the default locale.
+     */
+    public static SimpleDateFormat getDateFormat(String pattern) {
+        return getDateFormat(pattern, Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    /**
+     * Returns a SimpleDateFormat for the pattern and the locale.
+     */
+    public static SimpleDateFormat getDateFormat(String pattern, Locale locale) {
+        String key = "S/" + locale + "/" + pattern;
+        Map<String, Format> threadFormats = formats.get();
+
+        SimpleDateFormat sdf = (SimpleDateFormat) threadFormats.get(key);
+        if (sdf == null) {
+            sdf = new SimpleDateFormat(pattern, locale);
+            threadFormats.put(key, sdf);
+        }
+        return sdf;
+    }
+
+    /**
+     * Discards the formats kept by the current thread.
+     */
+    public static void clear() {
+        formats.remove();
+    }
+}
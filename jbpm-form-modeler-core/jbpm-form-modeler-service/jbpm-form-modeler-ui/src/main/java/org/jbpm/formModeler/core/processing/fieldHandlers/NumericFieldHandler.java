@@ -40,6 +40,33 @@ public class NumericFieldHandler extends DefaultFieldHandler {
 
     private static transient Logger log = LoggerFactory.getLogger(NumericFieldHandler.class);
 
+    /**
+     * Kinds of the classes this handler can read, so a value is read with a single lookup by class name.
+     */
+    protected enum NumericClass {
+        PRIMITIVE_BYTE, PRIMITIVE_SHORT, PRIMITIVE_INT, PRIMITIVE_LONG,
+        BYTE, SHORT, INTEGER, LONG, FLOAT, DOUBLE, BIG_DECIMAL, BIG_INTEGER
+    }
+
+    protected static final Map<String, NumericClass> numericClasses = new HashMap<String, NumericClass>();
+
+    static {
+        numericClasses.put("byte", NumericClass.PRIMITIVE_BYTE);
+        numericClasses.put("short", NumericClass.PRIMITIVE_SHORT);
+        numericClasses.put("int", NumericClass.PRIMITIVE_INT);
+        numericClasses.put("long", NumericClass.PRIMITIVE_LONG);
+        numericClasses.put(Byte.class.getName(), NumericClass.BYTE);
+        numericClasses.put(Short.class.getName(), NumericClass.SHORT);
+        numericClasses.put(Integer.class.getName(), NumericClass.INTEGER);
+        numericClasses.put(Long.class.getName(), NumericClass.LONG);
+        numericClasses.put("float", NumericClass.FLOAT);
+        numericClasses.put(Float.class.getName(), NumericClass.FLOAT);
+        numericClasses.put("double", NumericClass.DOUBLE);
+        numericClasses.put(Double.class.getName(), NumericClass.DOUBLE);
+        numericClasses.put(BigDecimal.class.getName(), NumericClass.BIG_DECIMAL);
+        numericClasses.put(BigInteger.class.getName(), NumericClass.BIG_INTEGER);
+    }
+
     /**
      * Read a parameter value (normally from a request), and translate it to
      * an object with desired class (that must be one of the returned by this handler)
@@ -57,67 +84,55 @@ public class NumericFieldHandler extends DefaultFieldHandler {
         if (paramValue == null || paramValue.length == 0)
             return null;
 
-        if (desiredClassName.equals("byte")) {
-            if (StringUtils.isEmpty(paramValue[0])) return new Byte( (byte)0 );
-            else return Byte.decode(paramValue[0]);
-        } else if (desiredClassName.equals("short")) {
-            if (StringUtils.isEmpty(paramValue[0])) return new Short( (short)0 );
-            else return Short.decode(paramValue[0]);
-        } else if (desiredClassName.equals("int")) {
-            if (StringUtils.isEmpty(paramValue[0])) return new Integer(0);
-            else return Integer.decode(paramValue[0]);
-        } else if (desiredClassName.equals("long")) {
-            if (StringUtils.isEmpty(paramValue[0])) return new Long(0L);
-            else return Long.decode(paramValue[0]);
-        } else if (desiredClassName.equals(Byte.class.getName())) {
-            if (StringUtils.isEmpty(paramValue[0])) throw new EmptyNumberException();
-            return Byte.decode(paramValue[0]);
-        } else if (desiredClassName.equals(Short.class.getName())) {
-            if (StringUtils.isEmpty(paramValue[0])) throw new EmptyNumberException();
-            return Short.decode(paramValue[0]);
-
-        } else if (desiredClassName.equals(Integer.class.getName())) {
-            if (StringUtils.isEmpty(paramValue[0])) throw new EmptyNumberException();
-            return Integer.decode(paramValue[0]);
-
-        } else if (desiredClassName.equals(Long.class.getName())) {
-            if (StringUtils.isEmpty(paramValue[0])) throw new EmptyNumberException();
-            return Long.decode(paramValue[0]);
-
-        } else if (desiredClassName.equals(Double.class.getName()) || desiredClassName.equals("double") ||
-                   desiredClassName.equals(Float.class.getName())  || desiredClassName.equals("float") ||
-                   desiredClassName.equals(BigDecimal.class.getName())) {
-
-            if (StringUtils.isEmpty(paramValue[0])) throw new EmptyNumberException();
-
-            DecimalFormat df = (DecimalFormat) DecimalFormat.getInstance(new Locale(LocaleManager.currentLang()));
-            if (desiredClassName.equals(BigDecimal.class.getName())) df.setParseBigDecimal(true);
-            String pattern = getFieldPattern(field);
-            if (pattern != null && !"".equals(pattern)) {
-                df.applyPattern(pattern);
-            } else {
-                df.applyPattern("###.##");
-            }
-            ParsePosition pp = new ParsePosition(0);
-            Number num = df.parse(paramValue[0], pp);            
-            if (paramValue[0].length() != pp.getIndex() || num == null) {
-                log.debug("Error on parsing value");
-                throw new ParseException("Error parsing value", pp.getIndex());
-            }
+        NumericClass numericClass = numericClasses.get(desiredClassName);
+        if (numericClass == null) throw new IllegalArgumentException("Invalid class for NumericFieldHandler: " + desiredClassName);
+
+        String value = paramValue[0];
+
+        switch (numericClass) {
+            case PRIMITIVE_BYTE:
+                if (StringUtils.isEmpty(value)) return new Byte( (byte)0 );
+                else return Byte.decode(value);
+            case PRIMITIVE_SHORT:
+                if (StringUtils.isEmpty(value)) return new Short( (short)0 );
+                else return Short.decode(value);
+            case PRIMITIVE_INT:
+                if (StringUtils.isEmpty(value)) return new Integer(0);
+                else return Integer.decode(value);
+            case PRIMITIVE_LONG:
+                if (StringUtils.isEmpty(value)) return new Long(0L);
+                else return Long.decode(value);
+        }
 
-            if (desiredClassName.equals(BigDecimal.class.getName())) {
-                return num;
-            } else if (desiredClassName.equals(Float.class.getName()) || desiredClassName.equals("float")) {
-                return new Float(num.floatValue());
-            } else if (desiredClassName.equals(Double.class.getName()) || desiredClassName.equals("double")) {
-                return new Double(num.doubleValue());
-            }
-        }  else if (desiredClassName.equals(BigInteger.class.getName())) {
-            if (StringUtils.isEmpty(paramValue[0])) throw new EmptyNumberException();
-            return new BigInteger(paramValue[0]);
+        if (StringUtils.isEmpty(value)) throw new EmptyNumberException();
+
+        switch (numericClass) {
+            case BYTE:
+                return Byte.decode(value);
+            case SHORT:
+                return Short.decode(value);
+            case INTEGER:
+                return Integer.decode(value);
+            case LONG:
+                return Long.decode(value);
+            case BIG_INTEGER:
+                return new BigInteger(value);
+        }
+
+        String pattern = getFieldPattern(field);
+        if (pattern == null || "".equals(pattern)) pattern = "###.##";
 
+        DecimalFormat df = FormatterCache.getDecimalFormat(new Locale(LocaleManager.currentLang()), pattern, numericClass == NumericClass.BIG_DECIMAL);
+        ParsePosition pp = new ParsePosition(0);
+        Number num = df.parse(value, pp);
+        if (value.length() != pp.getIndex() || num == null) {
+            log.debug("Error on parsing value");
+            throw new ParseException("Error parsing value", pp.getIndex());
         }
-        throw new IllegalArgumentException("Invalid class for NumericFieldHandler: " + desiredClassName);
+
+        if (numericClass == NumericClass.FLOAT) return new Float(num.floatValue());
+        if (numericClass == NumericClass.DOUBLE) return new Double(num.doubleValue());
+        return num;
     }
 
    @Override
@@ -137,12 +152,10 @@ public class NumericFieldHandler extends DefaultFieldHandler {
      */
     protected String[] buildParamValue(Object value, String pattern) {
         String[] result = null;
-        if (value != null && Arrays.asList(getCompatibleClassNames()).contains(value.getClass().getName())) {
+        if (value != null && (value instanceof String || numericClasses.containsKey(value.getClass().getName()))) {
             if (pattern != null && !"".equals(pattern)) { // Float and Double fields type always have pattern
                 try {
-                    DecimalFormat df = (DecimalFormat) DecimalFormat.getInstance(new Locale(LocaleManager.currentLang()));
-                    if (value instanceof BigDecimal) df.setParseBigDecimal(true);
-                    df.applyPattern(pattern);
+                    DecimalFormat df = FormatterCache.getDecimalFormat(new Locale(LocaleManager.currentLang()), pattern, value instanceof BigDecimal);
 
                     if (value instanceof Float) {
                         value = df.format((((Float) value).floatValue()));
@@ -119,8 +119,7 @@ public class RangeInputTextFieldHandlerFormatter extends DefaultFieldHandlerForm
                 if (pattern == null || "".equals(pattern))
                     pattern = field.getFieldType().getPattern();
                 if (pattern != null && !"".equals(value)) {
-                    DecimalFormat nf = (DecimalFormat) DecimalFormat.getInstance(getLocale());
-                    nf.applyPattern(pattern);
+                    DecimalFormat nf = FormatterCache.getDecimalFormat(getLocale(), pattern, false);
                     value = nf.format(((Double) value).doubleValue());
                 }
             }
@@ -129,8 +128,7 @@ public class RangeInputTextFieldHandlerFormatter extends DefaultFieldHandlerForm
                 if (pattern == null || "".equals(pattern))
                     pattern = field.getFieldType().getPattern();
                 if (pattern != null) {
-                    DecimalFormat nf = (DecimalFormat) DecimalFormat.getInstance(getLocale());
-                    nf.applyPattern(pattern);
+                    DecimalFormat nf = FormatterCache.getDecimalFormat(getLocale(), pattern, false);
                     Object[] values = (Object[]) value;
                     for (int i = 0; i < values.length; i++) {
                         Object object = values[i];
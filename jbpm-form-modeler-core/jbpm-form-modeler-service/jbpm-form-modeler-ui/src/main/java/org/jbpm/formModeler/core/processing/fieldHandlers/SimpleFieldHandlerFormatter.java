@@ -75,8 +75,7 @@ public class SimpleFieldHandlerFormatter extends DefaultFieldHandlerFormatter {
             if (pattern == null || "".equals(pattern))
                 pattern = field.getFieldType().getPattern();
             if (pattern != null && !"".equals(value)) {
-                DecimalFormat nf = (DecimalFormat) DecimalFormat.getInstance(new Locale(LocaleManager.currentLang()));
-                nf.applyPattern(pattern);
+                DecimalFormat nf = FormatterCache.getDecimalFormat(new Locale(LocaleManager.currentLang()), pattern, false);
                 return nf.format(((Double) value).doubleValue());
             }
         }
@@ -85,8 +84,7 @@ public class SimpleFieldHandlerFormatter extends DefaultFieldHandlerFormatter {
             if (pattern == null || "".equals(pattern))
                 pattern = field.getFieldType().getPattern();
             if (pattern != null) {
-                DecimalFormat nf = (DecimalFormat) DecimalFormat.getInstance(new Locale(LocaleManager.currentLang()));
-                nf.applyPattern(pattern);
+                DecimalFormat nf = FormatterCache.getDecimalFormat(new Locale(LocaleManager.currentLang()), pattern, false);
                 Double[] values = (Double[]) value;
                 Object[] _res = new Object[values.length];
                 for (int i = 0; i < values.length; i++) {
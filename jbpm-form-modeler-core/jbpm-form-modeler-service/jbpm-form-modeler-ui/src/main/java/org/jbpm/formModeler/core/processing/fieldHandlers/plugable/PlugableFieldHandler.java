@@ -15,21 +15,54 @@
 
 package org.jbpm.formModeler.core.processing.fieldHandlers.plugable;
 
+import java.io.IOException;
+import java.io.Writer;
+
+import org.apache.commons.lang3.StringUtils;
 import org.jbpm.formModeler.api.model.Field;
-import org.jbpm.formModeler.core.processing.FieldHandler;
+import org.jbpm.formModeler.core.processing.DirectRenderingFieldHandler;
+
+public abstract class PlugableFieldHandler implements DirectRenderingFieldHandler {
 
-public abstract class PlugableFieldHandler implements FieldHandler {
+    public static final String INPUT_PAGE = "/formModeler/fieldHandlers/Plugable/input.jsp";
+    public static final String SHOW_PAGE = "/formModeler/fieldHandlers/Plugable/show.jsp";
 
     public abstract String getInputHTML(Object value, Field field, String inputName, String namespace, Boolean readonly);
     public abstract String getShowHTML(Object value, Field field, String inputName, String namespace);
 
     @Override
     public String getPageToIncludeForRendering() {
-        return "/formModeler/fieldHandlers/Plugable/input.jsp";
+        return INPUT_PAGE;
     }
 
     @Override
     public String getPageToIncludeForDisplaying() {
-        return "/formModeler/fieldHandlers/Plugable/show.jsp";
+        return SHOW_PAGE;
+    }
+
+    /**
+     * The markup written directly is the one the default plugable pages output, so subclasses that include their
+     * own pages are always rendered through them.
+     */
+    @Override
+    public boolean isDirectRenderingSupported() {
+        return INPUT_PAGE.equals(getPageToIncludeForRendering()) && SHOW_PAGE.equals(getPageToIncludeForDisplaying());
+    }
+
+    @Override
+    public void writeInputHTML(Writer out, Object value, Field field, String inputName, String namespace, Boolean readonly) throws IOException {
+        writeHTML(out, getInputHTML(value, field, inputName, namespace, readonly));
+    }
+
+    @Override
+    public void writeShowHTML(Writer out, Object value, Field field, String inputName, String namespace) throws IOException {
+        writeHTML(out, getShowHTML(value, field, inputName, namespace));
+    }
+
+    protected void writeHTML(Writer out, String htmlCode) throws IOException {
+        if (StringUtils.isEmpty(htmlCode)) return;
+        out.write("<div>");
+        out.write(htmlCode);
+        out.write("</div>");
     }
 }
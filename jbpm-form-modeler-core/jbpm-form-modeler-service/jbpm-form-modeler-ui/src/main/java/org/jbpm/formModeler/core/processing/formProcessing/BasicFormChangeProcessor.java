@@ -17,6 +17,8 @@ package org.jbpm.formModeler.core.processing.formProcessing;
 
 import bsh.EvalError;
 import bsh.Interpreter;
+import bsh.NameSpace;
+import bsh.UtilEvalError;
 import org.apache.commons.jxpath.JXPathContext;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.jbpm.formModeler.api.model.Field;
@@ -24,29 +26,72 @@ import org.jbpm.formModeler.api.model.Form;
 import org.jbpm.formModeler.core.processing.FieldHandler;
 import org.jbpm.formModeler.core.processing.FormProcessor;
 import org.jbpm.formModeler.core.processing.FormStatusData;
+import org.jbpm.formModeler.core.processing.formProcessing.replacers.DateReplacer;
 import org.jbpm.formModeler.core.processing.formProcessing.replacers.FormulaReplacementContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 public abstract class BasicFormChangeProcessor extends FormChangeProcessor {
     private static transient Logger log = LoggerFactory.getLogger(BasicFormChangeProcessor.class);
 
-    protected HashSet evaluatedFields = new HashSet();
-    protected FunctionsProvider functionsProvider = FunctionsProvider.lookup();
+    @Inject
+    protected FunctionsProvider functionsProvider;
 
-    protected String replaceFieldValues(Form form, FormStatusData statusData, String namespace, Field field, String rangeFormula, Object loadedObject, FormChangeResponse response) {
+    @Inject
+    protected FormulaEngine formulaEngine;
+
+    @Override
+    public FormChangeResponse doProcess(FormProcessingContext context, FormChangeResponse response) {
+        try {
+            Form form = context.getForm();
+            if (form == null) {
+                //TODO evaluate if this control should be removed
+                log.warn("Form object is not present in current FormProcessingContext, formula evaluation will be canceled. context: " + context);
+                return response;
+            }
+
+            FormStatusData statusData = formProcessor.read(form, context.getNamespace());
+            FormulaEvaluationContext evaluation = new FormulaEvaluationContext(context, statusData, response);
+
+            Collection fieldNames = getEvaluableFields(context);
+            if (context.isIncremental()) {
+                // Formulas not affected by the change keep their current values
+                Set fieldsToEvaluate = new HashSet(fieldNames);
+                for (Field field : form.getFormFields()) {
+                    if (!fieldsToEvaluate.contains(field.getFieldName())) evaluation.setEvaluated(field.getFieldName());
+                }
+            }
+
+            for (Iterator iterator = fieldNames.iterator(); iterator.hasNext();) {
+                String fieldName = (String) iterator.next();
+                Field field = form.getField(fieldName);
+                evaluateFormulaForField(evaluation, field, new Date());
+            }
+        } catch (Exception e) {
+            log.error("Error: ", e);
+        }
+        return response;
+    }
+
+    protected String replaceFieldValues(FormulaEvaluationContext evaluation, String rangeFormula) {
         while (rangeFormula.indexOf("{") != -1) {
             int beginIndex = rangeFormula.indexOf("{");
             int endIndex = rangeFormula.indexOf("}", beginIndex);
             if (endIndex == -1) break;
             String entityValue = rangeFormula.substring(beginIndex + 1, endIndex);
-            Object value = evaluateEntityValue(form, namespace, entityValue, loadedObject, statusData, response);
+            Object value = evaluateEntityValue(evaluation, entityValue);
             value = value == null ? "" : value;
             rangeFormula = rangeFormula.substring(0, beginIndex) + value + rangeFormula.substring(endIndex + 1);
         }
@@ -54,17 +99,30 @@ public abstract class BasicFormChangeProcessor extends FormChangeProcessor {
         return rangeFormula;
     }
 
-    protected Object evaluateEntityValue(Form form, String namespace, String entityValue, Object loadedObject, FormStatusData statusData, FormChangeResponse response) {
+    protected Object evaluateEntityValue(FormulaEvaluationContext evaluation, String entityValue) {
+        Object value = resolveEntityValue(evaluation, entityValue);
+
+        if (value instanceof String)
+            value = "\"" + StringEscapeUtils.escapeJava((String) value) + "\"";
+        if (value instanceof Date)
+            value = "new java.util.Date(" + ((Date) value).getTime() + "l)";
+
+        return value;
+    }
+
+    protected Object resolveEntityValue(FormulaEvaluationContext evaluation, String entityValue) {
         String fieldName = entityValue;
         if (fieldName.indexOf("/") != -1)
             fieldName = fieldName.substring(0, fieldName.indexOf("/"));
 
-        Field relatedField = form.getField(fieldName);
-        if (relatedField != null && relatedField.getFieldFormula() != null && !"".equals(relatedField.getFieldFormula()) && !evaluatedFields.contains(fieldName)) {
+        Field relatedField = evaluation.getForm().getField(fieldName);
+        if (relatedField != null && relatedField.getFieldFormula() != null && !"".equals(relatedField.getFieldFormula()) && !evaluation.isEvaluated(fieldName)) {
             //Evaluate dependent formula first
-            evaluateFormulaForField(form, namespace, relatedField, loadedObject, statusData, response, new Date());
+            evaluateFormulaForField(evaluation, relatedField, new Date());
         }
 
+        Object loadedObject = evaluation.getLoadedObject();
+        FormStatusData statusData = evaluation.getStatusData();
         Object value = null;
         // Get value from the loaded object.
         if (loadedObject != null) {
@@ -90,30 +148,30 @@ public abstract class BasicFormChangeProcessor extends FormChangeProcessor {
             }
         }
 
-        if (value instanceof String)
-            value = "\"" + StringEscapeUtils.escapeJava((String) value) + "\"";
-        if (value instanceof Date)
-            value = "new java.util.Date(" + ((Date) value).getTime() + "l)";
-
         return value;
     }
 
-    protected void evaluateFormulaForField(Form form, String namespace, Field field, Object loadedObject, FormStatusData statusData, FormChangeResponse response, Date date) {
-        evaluatedFields.add(field.getFieldName());
+    protected void evaluateFormulaForField(FormulaEvaluationContext evaluation, Field field, Date date) {
+        evaluation.setEvaluated(field.getFieldName());
         if (field.getFieldFormula() != null && field.getFieldFormula().startsWith("=")) {
-            Object value = evaluateFormula(form, namespace, field.getFieldFormula().substring(1), loadedObject, statusData, response, field, date);
+            Form form = evaluation.getForm();
+            String namespace = evaluation.getNamespace();
+            Object value = evaluateFormula(evaluation, field.getFieldFormula().substring(1), field, date);
             FormStatusData status1 = formProcessor.read(form, namespace);
             Object currentFieldValue = status1.getCurrentValue(field.getFieldName());
             if ((currentFieldValue != null && value == null) || (value != null && !value.equals(currentFieldValue))) {
                 FieldHandler fieldHandler = fieldHandlersManager.getHandler(field.getFieldType());
                 Map fieldValuesMap = fieldHandler.getParamValue(field, namespace + FormProcessor.NAMESPACE_SEPARATOR + form.getId() + FormProcessor.NAMESPACE_SEPARATOR + field.getFieldName(), value);
                 formProcessor.setFieldValue(field, namespace, fieldValuesMap, fieldValuesMap, true);
-                response.addInstruction(new SetFieldValueInstruction(fieldValuesMap));
+                if (evaluation.getResponse() != null) evaluation.getResponse().addInstruction(new SetFieldValueInstruction(fieldValuesMap));
             }
         }
     }
 
-    protected Object evaluateFormula(final Form form, final String namespace, final String formula, final Object loadedObject, final FormStatusData statusData, final FormChangeResponse response, final Field field, final Date date) {
+    protected Object evaluateFormula(final FormulaEvaluationContext evaluation, final String formula, final Field field, final Date date) {
+        Form form = evaluation.getForm();
+        String namespace = evaluation.getNamespace();
+        FormStatusData statusData = evaluation.getStatusData();
 
         if (log.isDebugEnabled()) log.debug("Evaluating formula " + formula);
         FormulaReplacementContext ctx = new FormulaReplacementContext();
@@ -138,31 +196,60 @@ public abstract class BasicFormChangeProcessor extends FormChangeProcessor {
             log.debug("Error: ", e);
         }
         ctx.setParamValue(paramValue == null ? "" : paramValue);
-        String modifiedFormula = replacementManager.replace(ctx);
-
-        // Compute the entity properties
-        modifiedFormula = replaceFieldValues(form, statusData, namespace, field, modifiedFormula, loadedObject, response);
+        // Dates are given to the compiled formula as values, so the formula text doesn't change with the current date
+        String modifiedFormula = replacementManager.replaceAllButDates(ctx);
+
+        CompiledFormula compiledFormula = formulaEngine.getCompiledFormula(modifiedFormula);
+        List<Object> referenceValues = null;
+        Object[] variableValues = null;
+        if (compiledFormula.isCompiled()) {
+            // Compute the entity properties, dependent formulas are evaluated here
+            referenceValues = new ArrayList<Object>(compiledFormula.getReferences().size());
+            for (String reference : compiledFormula.getReferences()) {
+                if (DateReplacer.isDateReference(reference)) referenceValues.add(DateReplacer.formatDate(reference, date));
+                else referenceValues.add(resolveEntityValue(evaluation, reference));
+            }
+            variableValues = formulaEngine.toVariableValues(referenceValues);
+        }
 
-        //Evaluate the resulting formula
-        Interpreter interpreter = getInterpreter(form, namespace);
+        //Evaluate the resulting formula on its own namespace, so its variables don't outlive the evaluation
+        Interpreter interpreter = acquireInterpreter();
         try {
+            NameSpace nameSpace = new NameSpace(interpreter.getNameSpace(), "formula");
+            functionsProvider.populate(nameSpace);
+            ctx.populate(nameSpace);
+            if (variableValues != null) {
+                if (log.isDebugEnabled()) log.debug("Evaluating compiled formula: '" + modifiedFormula + "' with values " + referenceValues);
+                return compiledFormula.evaluate(interpreter, nameSpace, variableValues);
+            }
+
+            // Values that cannot be passed as variables (nulls, objects...) are written on the formula
+            modifiedFormula = replaceFieldValues(evaluation, replacementManager.replaceDates(ctx));
             if (log.isDebugEnabled()) log.debug("Interpreting formula: '" + modifiedFormula + "'");
-            functionsProvider.populate(interpreter);
-            ctx.populate(interpreter);
-            Object result = interpreter.eval(modifiedFormula);
+            Object result = interpreter.eval(modifiedFormula, nameSpace);
             return result;
         } catch (EvalError evalError) {
             log.debug("Error interpreting formula: " + evalError + " will cause formula evaluation to fail quietly.");
             return null;
+        } catch (UtilEvalError evalError) {
+            log.debug("Error populating formula context: " + evalError + " will cause formula evaluation to fail quietly.");
+            return null;
+        } finally {
+            releaseInterpreter(interpreter);
         }
 
     }
 
-    protected Interpreter getInterpreter(Form form, String namespace) {
-        Interpreter i = (Interpreter) formProcessor.getAttribute(form, namespace, FormProcessor.ATTR_INTERPRETER);
-        if (i == null)
-            formProcessor.setAttribute(form, namespace, FormProcessor.ATTR_INTERPRETER, i = new Interpreter());
-        return i;
+    /**
+     * Formulas are evaluated on interpreters shared by all the forms, an interpreter is only used by one evaluation
+     * at a time.
+     */
+    protected Interpreter acquireInterpreter() {
+        return formulaEngine.acquireInterpreter();
+    }
+
+    protected void releaseInterpreter(Interpreter interpreter) {
+        formulaEngine.releaseInterpreter(interpreter);
     }
 
 }
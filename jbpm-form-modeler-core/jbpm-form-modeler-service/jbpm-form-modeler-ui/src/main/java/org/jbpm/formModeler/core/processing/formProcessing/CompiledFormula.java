@@ -0,0 +1,213 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.core.processing.formProcessing;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import bsh.CallStack;
+import bsh.EvalError;
+import bsh.Interpreter;
+import bsh.InterpreterError;
+import bsh.NameSpace;
+import bsh.Parser;
+import bsh.Primitive;
+import bsh.SimpleNode;
+import bsh.TokenMgrError;
+import bsh.UtilEvalError;
+import org.jbpm.formModeler.core.processing.formProcessing.replacers.DateReplacer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A formula parsed once into BeanShell statements. Field references (<code>{fieldName}</code> or
+ * <code>{fieldName/property}</code>) are turned into variables, so the formula can be evaluated many times with
+ * different field values without building and parsing a new script each time.
+ */
+public class CompiledFormula {
+    private static transient Logger log = LoggerFactory.getLogger(CompiledFormula.class);
+
+    public static final String VARIABLE_PREFIX = "__formulaRef";
+
+    private static final String RETURN_STATEMENT = "bsh.BSHReturnStatement";
+
+    private final String source;
+    private final List<String> references;
+    private final SimpleNode[] statements;
+
+    protected CompiledFormula(String source, List<String> references, SimpleNode[] statements) {
+        this.source = source;
+        this.references = references;
+        this.statements = statements;
+    }
+
+    /**
+     * Compiles the formula. Date tokens (<code>{$date(format)}</code>) inside string literals are turned into
+     * variables too, their value is the formatted date. Formulas with other references inside string literals, or
+     * with date tokens written as code, aren't compiled: the values are written on their text, so they must be
+     * interpreted.
+     */
+    public static CompiledFormula compile(String formula) {
+        List<String> references = new ArrayList<String>();
+        StringBuilder script = new StringBuilder(formula.length());
+        boolean compilable = true;
+
+        // Quote of the literal being read, 0 outside literals
+        char quote = 0;
+        int literalStart = -1;
+        boolean literalSplit = false;
+
+        int index = 0;
+        while (index < formula.length()) {
+            char c = formula.charAt(index);
+            if (quote != 0 && c == '\\' && index + 1 < formula.length()) {
+                script.append(c).append(formula.charAt(index + 1));
+                index += 2;
+                continue;
+            }
+            if (quote != 0 && c == quote) {
+                script.append(c);
+                if (literalSplit) script.append(')');
+                quote = 0;
+                literalSplit = false;
+                index++;
+                continue;
+            }
+            if (quote == 0 && (c == '"' || c == '\'')) {
+                quote = c;
+                literalStart = script.length();
+                script.append(c);
+                index++;
+                continue;
+            }
+            int endIndex = c == '{' ? formula.indexOf('}', index) : -1;
+            if (endIndex == -1) {
+                script.append(c);
+                index++;
+                continue;
+            }
+
+            String reference = formula.substring(index + 1, endIndex);
+            boolean dateReference = reference.startsWith(DateReplacer.DATE_REFERENCE_PREFIX);
+            if (quote == 0 && !dateReference) {
+                script.append(VARIABLE_PREFIX).append(referenceIndex(references, reference));
+            } else if (quote == '"' && DateReplacer.isDateReference(reference)) {
+                // "text {$date(format)} text" is compiled as ("text " + variable + " text")
+                if (!literalSplit) {
+                    script.insert(literalStart, '(');
+                    literalSplit = true;
+                }
+                script.append("\" + ").append(VARIABLE_PREFIX).append(referenceIndex(references, reference)).append(" + \"");
+            } else {
+                compilable = false;
+                script.append(formula, index, endIndex + 1);
+            }
+            index = endIndex + 1;
+        }
+
+        SimpleNode[] statements = null;
+        try {
+            if (compilable) statements = parse(script.toString());
+        } catch (Exception e) {
+            log.debug("Formula '" + formula + "' cannot be compiled, it will be interpreted on every evaluation: " + e);
+        } catch (TokenMgrError e) {
+            log.debug("Formula '" + formula + "' cannot be compiled, it will be interpreted on every evaluation: " + e);
+        }
+
+        return new CompiledFormula(formula, Collections.unmodifiableList(references), statements);
+    }
+
+    protected static int referenceIndex(List<String> references, String reference) {
+        int referenceIndex = references.indexOf(reference);
+        if (referenceIndex == -1) {
+            referenceIndex = references.size();
+            references.add(reference);
+        }
+        return referenceIndex;
+    }
+
+    /**
+     * Parses the script statements. Scripts with top level return, break or continue statements aren't compiled,
+     * only the interpreter knows how to unwind them.
+     */
+    protected static SimpleNode[] parse(String script) throws EvalError {
+        Parser parser = new Parser(new StringReader(script.endsWith(";") ? script : script + ";"));
+        List<SimpleNode> nodes = new ArrayList<SimpleNode>();
+        while (!parser.Line()) {
+            SimpleNode node = parser.popNode();
+            if (node == null) continue;
+            if (RETURN_STATEMENT.equals(node.getClass().getName())) return null;
+            nodes.add(node);
+        }
+        return nodes.toArray(new SimpleNode[nodes.size()]);
+    }
+
+    /**
+     * Evaluates the formula on the given interpreter.
+     *
+     * @param interpreter the interpreter with the formula context (functions, ctx...) already populated
+     * @param values the value for each reference, in the same order than <code>getReferences()</code>
+     * @return the formula result
+     */
+    public Object evaluate(Interpreter interpreter, Object[] values) throws EvalError {
+        return evaluate(interpreter, interpreter.getNameSpace(), values);
+    }
+
+    /**
+     * Evaluates the formula on the given interpreter and namespace, the reference variables are set on the namespace.
+     *
+     * @param interpreter the interpreter that runs the formula
+     * @param nameSpace the namespace with the formula context (functions, ctx...) already populated
+     * @param values the value for each reference, in the same order than <code>getReferences()</code>
+     * @return the formula result
+     */
+    public Object evaluate(Interpreter interpreter, NameSpace nameSpace, Object[] values) throws EvalError {
+        if (!isCompiled()) throw new IllegalStateException("Formula '" + source + "' isn't compiled");
+
+        CallStack callstack = new CallStack(nameSpace);
+        for (int i = 0; i < values.length; i++) {
+            try {
+                nameSpace.setVariable(VARIABLE_PREFIX + i, values[i], false);
+            } catch (UtilEvalError e) {
+                throw new EvalError("Error setting formula variable: " + e, statements[0], callstack);
+            }
+        }
+
+        Object result = null;
+        for (SimpleNode statement : statements) {
+            try {
+                result = statement.eval(callstack, interpreter);
+            } catch (InterpreterError e) {
+                throw new EvalError("Internal error evaluating formula: " + e, statement, callstack);
+            }
+        }
+        return Primitive.unwrap(result);
+    }
+
+    public boolean isCompiled() {
+        return statements != null;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public List<String> getReferences() {
+        return references;
+    }
+}
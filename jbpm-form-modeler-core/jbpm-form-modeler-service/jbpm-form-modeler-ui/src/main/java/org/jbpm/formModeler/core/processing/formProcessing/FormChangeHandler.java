@@ -15,6 +15,8 @@
  */
 package org.jbpm.formModeler.core.processing.formProcessing;
 
+import org.jbpm.formModeler.api.model.Form;
+import org.jbpm.formModeler.core.processing.ChangedFieldsTracker;
 import org.slf4j.Logger;
 import org.jbpm.formModeler.core.processing.FormNamespaceData;
 import org.jbpm.formModeler.service.bb.mvc.components.handling.BeanHandler;
@@ -26,6 +28,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import java.util.List;
+import java.util.Set;
 
 //@SessionScoped
 @ApplicationScoped
@@ -39,6 +43,9 @@ public class FormChangeHandler extends BeanHandler {
     @Inject
     private FormulasCalculatorChangeProcessor changeProcessor;
 
+    @Inject
+    private FormulaDependencyManager formulaDependencyManager;
+
     @Override
     public boolean isEnabledForActionHandling() {
         //WM
@@ -58,10 +65,27 @@ public class FormChangeHandler extends BeanHandler {
         //forms has already been closed. TODO check this extra control with sr_pere
         while (formNamespaceData != null && formNamespaceData.getForm() != null) {
             if (getChangeProcessor() != null) {
-                formProcessor.setValues(formNamespaceData.getForm(), formNamespaceData.getNamespace(), request.getRequestObject().getParameterMap(), request.getFilesByParamName(), false);
-                getChangeProcessor().process(formNamespaceData.getForm(), formNamespaceData.getNamespace(), changeResponse);
+                Form form = formNamespaceData.getForm();
+                String namespace = formNamespaceData.getNamespace();
+                formProcessor.setValues(form, namespace, request.getRequestObject().getParameterMap(), request.getFilesByParamName(), false);
+
+                if (formProcessor instanceof ChangedFieldsTracker) {
+                    ChangedFieldsTracker tracker = (ChangedFieldsTracker) formProcessor;
+                    // Only the formulas depending on the changed fields (the modified field or the subform that contains it) are evaluated
+                    Set<String> changedFields = tracker.pollChangedFields(form, namespace);
+                    changedFields.add(formNamespaceData.getFieldNameInParent());
+                    List<String> fieldsToEvaluate = formulaDependencyManager.getDependencyGraph(form).getFieldsToEvaluate(changedFields);
+                    if (!fieldsToEvaluate.isEmpty()) {
+                        getChangeProcessor().process(FormProcessingContext.incrementalFormulaProcessingContext(form, namespace, null, fieldsToEvaluate), changeResponse);
+                        // Values set by the formulas have already been propagated to their dependents
+                        tracker.pollChangedFields(form, namespace);
+                    }
+                } else {
+                    getChangeProcessor().process(form, namespace, changeResponse);
+                }
+
                 // Clear errors that might be stored in formStatuses
-                formProcessor.clearFieldErrors(formNamespaceData.getForm(), formNamespaceData.getNamespace());
+                formProcessor.clearFieldErrors(form, namespace);
             }
             // Evaluate parent's formulas
             formNamespaceData = NamespaceManager.lookup().getNamespace(formNamespaceData.getNamespace());
@@ -31,7 +31,6 @@ public abstract class FormChangeProcessor {
     public static final int MAX_ELEMENTS_TO_SHOW = 20;
 
     private FormChangeProcessor nextProcessor;
-    FormProcessingContext context;
 
     protected String[] supportedFormModes;
     protected String[] sizeRestrictedFormModes;
@@ -66,8 +65,7 @@ public abstract class FormChangeProcessor {
 
     public FormChangeResponse process(FormProcessingContext context, FormChangeResponse response) {
         if (canProcess(context)) {
-            this.context = context;
-            response = doProcess(response);
+            response = doProcess(context, response);
         }
         if (nextProcessor != null) {
             response = nextProcessor.process(context, response);
@@ -75,7 +73,11 @@ public abstract class FormChangeProcessor {
         return response;
     }
 
-    public abstract FormChangeResponse doProcess(FormChangeResponse response);
+    /**
+     * Processes the given context. Processors are shared by all the requests, so the state of the processing must be
+     * kept in the context or in local objects, never in the processor.
+     */
+    public abstract FormChangeResponse doProcess(FormProcessingContext context, FormChangeResponse response);
 
     public abstract int getSupportedContextType();
 
@@ -122,15 +124,15 @@ public abstract class FormChangeProcessor {
         return items.size() < MAX_ELEMENTS_TO_SHOW ? items.size() : MAX_ELEMENTS_TO_SHOW;
     }
 
-    protected Collection getEvaluableFields() {
-        Collection fields = getContextEvaluableFields();
+    protected Collection getEvaluableFields(FormProcessingContext context) {
+        Collection fields = getContextEvaluableFields(context);
 
         if (CollectionUtils.isEmpty(fields)) fields = context.getForm().getFieldNames();
 
         return fields;
     }
 
-    protected Collection getContextEvaluableFields() {
+    protected Collection getContextEvaluableFields(FormProcessingContext context) {
         switch (getSupportedContextType()) {
             case FormProcessingContext.TYPE_FORMULA: return context.getFieldsToEvaluateFormula();
             case FormProcessingContext.TYPE_DEFAULT_FORMULA: return context.getFieldsToEvaluateDefaultFormula();
@@ -36,6 +36,7 @@ public class FormProcessingContext {
     private List<String> fieldsToEvaluateRange;
     private List<String> fieldsToEvaluateStyle;
     private List<String> fieldsToEvaluateDefaultFormula;
+    private boolean incremental;
 
     
     public static FormProcessingContext fullProcessingContext(Form form, String namespace, String formMode) {
@@ -46,6 +47,16 @@ public class FormProcessingContext {
         return new FormProcessingContext(TYPE_FORMULA, form, namespace, formMode, fieldsToEvaluateFormula);
     }
     
+    /**
+     * Context to evaluate only the given formulas, the ones affected by a change. The formulas the given ones depend
+     * on keep their current values.
+     */
+    public static FormProcessingContext incrementalFormulaProcessingContext(Form form, String namespace, String formMode, List<String> fieldsToEvaluateFormula) {
+        FormProcessingContext context = formulaProcessingContext(form, namespace, formMode, fieldsToEvaluateFormula);
+        context.incremental = true;
+        return context;
+    }
+
     public static FormProcessingContext rangeProcessingContext(Form form, String namespace, String formMode, List<String> fieldsToEvaluateRange) {
         return new FormProcessingContext(TYPE_RANGE, form, namespace, formMode, fieldsToEvaluateRange);
     }
@@ -128,6 +139,10 @@ public class FormProcessingContext {
         return TYPE_FORMULA == type;
     }
 
+    public boolean isIncremental() {
+        return incremental;
+    }
+
     public boolean isRange() {
         return TYPE_RANGE == type;
     }
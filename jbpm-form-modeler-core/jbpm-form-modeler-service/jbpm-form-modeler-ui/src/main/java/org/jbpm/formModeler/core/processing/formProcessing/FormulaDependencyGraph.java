@@ -0,0 +1,240 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.core.processing.formProcessing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jbpm.formModeler.api.model.Field;
+import org.jbpm.formModeler.api.model.Form;
+
+/**
+ * Dependencies between the field formulas of a form, built from the <code>{field}</code> references on the formulas.
+ * It gives the formulas that must be evaluated when some fields change, in the order they must be evaluated (a
+ * formula is evaluated after the formulas it depends on) and the formulas that depend on each other in a cycle.
+ * <p/>
+ * Formulas that don't reference any field of the form (i.e. <code>=new java.util.Date()</code>) are evaluated on every
+ * change, as they were before.
+ */
+public class FormulaDependencyGraph {
+    public static final String THIS_REFERENCE = "$this";
+
+    // Field formulas by field name, a snapshot of the form used to check if the graph is up to date
+    private final Map<String, String> formulas = new HashMap<String, String>();
+
+    // Formula fields that depend on each field
+    private final Map<String, Set<String>> dependents = new HashMap<String, Set<String>>();
+
+    // Fields each formula field depends on
+    private final Map<String, Set<String>> dependencies = new HashMap<String, Set<String>>();
+
+    private final Set<String> volatileFields = new LinkedHashSet<String>();
+
+    private final Map<String, Integer> evaluationOrder = new HashMap<String, Integer>();
+
+    private final List<List<String>> cycles = new ArrayList<List<String>>();
+
+    public FormulaDependencyGraph(Form form) {
+        if (form == null) return;
+
+        for (Field field : form.getFormFields()) {
+            formulas.put(field.getFieldName(), field.getFieldFormula());
+        }
+
+        for (Field field : form.getFormFields()) {
+            String fieldName = field.getFieldName();
+            if (!isEvaluable(field.getFieldFormula())) continue;
+
+            Set<String> fieldDependencies = new LinkedHashSet<String>();
+            for (String reference : getReferences(field.getFieldFormula())) {
+                String referencedField = getReferencedField(fieldName, reference);
+                if (referencedField != null && formulas.containsKey(referencedField)) fieldDependencies.add(referencedField);
+            }
+            dependencies.put(fieldName, fieldDependencies);
+
+            if (fieldDependencies.isEmpty()) volatileFields.add(fieldName);
+            for (String dependency : fieldDependencies) {
+                Set<String> fieldDependents = dependents.get(dependency);
+                if (fieldDependents == null) dependents.put(dependency, fieldDependents = new LinkedHashSet<String>());
+                fieldDependents.add(fieldName);
+            }
+        }
+
+        sort();
+    }
+
+    /**
+     * Returns the formula fields that must be evaluated after the given fields have changed. The changed fields are
+     * included if they have a formula. Fields are returned in evaluation order.
+     */
+    public List<String> getFieldsToEvaluate(Collection<String> changedFields) {
+        Set<String> result = new HashSet<String>(volatileFields);
+
+        LinkedList<String> pending = new LinkedList<String>();
+        if (changedFields != null) pending.addAll(changedFields);
+        Set<String> visited = new HashSet<String>();
+        while (!pending.isEmpty()) {
+            String fieldName = pending.removeFirst();
+            if (!visited.add(fieldName)) continue;
+            if (dependencies.containsKey(fieldName)) result.add(fieldName);
+            Set<String> fieldDependents = dependents.get(fieldName);
+            if (fieldDependents != null) pending.addAll(fieldDependents);
+        }
+
+        return sortByEvaluationOrder(result);
+    }
+
+    /**
+     * @return all the formula fields in evaluation order.
+     */
+    public List<String> getFormulaFields() {
+        return sortByEvaluationOrder(dependencies.keySet());
+    }
+
+    /**
+     * @return the groups of formula fields that depend on each other. References of a formula to its own field
+     * (<code>{$this}</code>) aren't considered cycles.
+     */
+    public List<List<String>> getCycles() {
+        return Collections.unmodifiableList(cycles);
+    }
+
+    public List<String> getCycle(String fieldName) {
+        for (List<String> cycle : cycles) {
+            if (cycle.contains(fieldName)) return cycle;
+        }
+        return null;
+    }
+
+    public Set<String> getDependencies(String fieldName) {
+        Set<String> result = dependencies.get(fieldName);
+        return result == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * @return true if the graph has been built with the current fields and formulas of the form.
+     */
+    public boolean isUpToDate(Form form) {
+        if (form == null || form.getFormFields().size() != formulas.size()) return false;
+        for (Field field : form.getFormFields()) {
+            if (!formulas.containsKey(field.getFieldName())) return false;
+            String formula = formulas.get(field.getFieldName());
+            if (formula == null ? field.getFieldFormula() != null : !formula.equals(field.getFieldFormula())) return false;
+        }
+        return true;
+    }
+
+    protected List<String> sortByEvaluationOrder(Collection<String> fieldNames) {
+        String[] result = new String[evaluationOrder.size()];
+        for (String fieldName : fieldNames) {
+            Integer position = evaluationOrder.get(fieldName);
+            if (position != null) result[position] = fieldName;
+        }
+        List<String> sorted = new ArrayList<String>(fieldNames.size());
+        for (String fieldName : result) {
+            if (fieldName != null) sorted.add(fieldName);
+        }
+        return sorted;
+    }
+
+    /**
+     * Sorts the formula fields with Tarjan's strongly connected components algorithm following the edges from each
+     * formula to its dependencies: components are found dependencies first, which is the evaluation order, and the
+     * components with more than one field are the cycles.
+     */
+    protected void sort() {
+        TarjanState state = new TarjanState();
+        for (String fieldName : dependencies.keySet()) {
+            if (!state.indexes.containsKey(fieldName)) strongConnect(fieldName, state);
+        }
+    }
+
+    private void strongConnect(String fieldName, TarjanState state) {
+        state.indexes.put(fieldName, state.index);
+        state.lowLinks.put(fieldName, state.index);
+        state.index++;
+        state.stack.addFirst(fieldName);
+        state.onStack.add(fieldName);
+
+        for (String dependency : getDependencies(fieldName)) {
+            if (!dependencies.containsKey(dependency)) continue;
+            if (!state.indexes.containsKey(dependency)) {
+                strongConnect(dependency, state);
+                state.lowLinks.put(fieldName, Math.min(state.lowLinks.get(fieldName), state.lowLinks.get(dependency)));
+            } else if (state.onStack.contains(dependency)) {
+                state.lowLinks.put(fieldName, Math.min(state.lowLinks.get(fieldName), state.indexes.get(dependency)));
+            }
+        }
+
+        if (state.lowLinks.get(fieldName).equals(state.indexes.get(fieldName))) {
+            List<String> component = new ArrayList<String>();
+            String member;
+            do {
+                member = state.stack.removeFirst();
+                state.onStack.remove(member);
+                component.add(member);
+            } while (!member.equals(fieldName));
+
+            Collections.reverse(component);
+            for (String componentField : component) {
+                evaluationOrder.put(componentField, evaluationOrder.size());
+            }
+            if (component.size() > 1) cycles.add(Collections.unmodifiableList(component));
+        }
+    }
+
+    public static boolean isEvaluable(String formula) {
+        return formula != null && formula.startsWith("=");
+    }
+
+    protected static List<String> getReferences(String formula) {
+        List<String> references = new ArrayList<String>();
+        int index = 0;
+        while (true) {
+            int beginIndex = formula.indexOf('{', index);
+            if (beginIndex == -1) break;
+            int endIndex = formula.indexOf('}', beginIndex);
+            if (endIndex == -1) break;
+            references.add(formula.substring(beginIndex + 1, endIndex));
+            index = endIndex + 1;
+        }
+        return references;
+    }
+
+    protected static String getReferencedField(String fieldName, String reference) {
+        if (THIS_REFERENCE.equals(reference)) return fieldName;
+        // Other replacers ($lang, $date...) don't depend on the form fields
+        if (reference.startsWith("$")) return null;
+        int slashIndex = reference.indexOf('/');
+        return slashIndex == -1 ? reference : reference.substring(0, slashIndex);
+    }
+
+    private static class TarjanState {
+        private int index;
+        private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+        private final Map<String, Integer> lowLinks = new HashMap<String, Integer>();
+        private final LinkedList<String> stack = new LinkedList<String>();
+        private final Set<String> onStack = new HashSet<String>();
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.core.processing.formProcessing;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.jbpm.formModeler.api.model.Form;
+import org.jbpm.formModeler.service.cdi.CDIBeanLocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the formula dependency graph of each form. Graphs are built the first time they are needed and rebuilt when
+ * the fields or formulas of the form change.
+ */
+@ApplicationScoped
+public class FormulaDependencyManager {
+    private static transient Logger log = LoggerFactory.getLogger(FormulaDependencyManager.class);
+
+    public static FormulaDependencyManager lookup() {
+        return (FormulaDependencyManager) CDIBeanLocator.getBeanByType(FormulaDependencyManager.class);
+    }
+
+    private final ConcurrentMap<Long, FormulaDependencyGraph> graphs = new ConcurrentHashMap<Long, FormulaDependencyGraph>();
+
+    public FormulaDependencyGraph getDependencyGraph(Form form) {
+        if (form == null || form.getId() == null) return new FormulaDependencyGraph(form);
+
+        FormulaDependencyGraph graph = graphs.get(form.getId());
+        if (graph == null || !graph.isUpToDate(form)) {
+            graph = new FormulaDependencyGraph(form);
+            graphs.put(form.getId(), graph);
+            for (List<String> cycle : graph.getCycles()) {
+                log.warn("Form '" + form.getName() + "' has formulas with circular dependencies between fields " + cycle);
+            }
+        }
+        return graph;
+    }
+
+    public void invalidate(Form form) {
+        if (form != null && form.getId() != null) graphs.remove(form.getId());
+    }
+
+    public void clear() {
+        graphs.clear();
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.core.processing.formProcessing;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.enterprise.context.ApplicationScoped;
+
+import bsh.Interpreter;
+import org.jbpm.formModeler.service.cdi.CDIBeanLocator;
+
+/**
+ * Keeps the compiled formulas. Formulas are compiled once their replacers ({$this}, {$lang}...) have been applied, so
+ * the same compiled formula is shared by all the fields and forms that define the same formula.
+ * <p/>
+ * It also keeps the interpreters the formulas are evaluated on, shared by all the forms. An interpreter is used by
+ * one evaluation at a time, and formulas never write on its global namespace (see
+ * <code>BasicFormChangeProcessor.evaluateFormula</code>), so nothing is left behind from one form to another.
+ */
+@ApplicationScoped
+public class FormulaEngine {
+    public static final int DEFAULT_MAX_SIZE = 2000;
+    public static final int DEFAULT_MAX_IDLE_INTERPRETERS = 16;
+
+    public static FormulaEngine lookup() {
+        return (FormulaEngine) CDIBeanLocator.getBeanByType(FormulaEngine.class);
+    }
+
+    /**
+     * Marks the values that cannot be given to a compiled formula as a variable.
+     */
+    protected static final Object UNSUPPORTED_VALUE = new Object();
+
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    private int maxIdleInterpreters = DEFAULT_MAX_IDLE_INTERPRETERS;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong createdInterpreters = new AtomicLong();
+
+    private final Deque<Interpreter> idleInterpreters = new ArrayDeque<Interpreter>();
+
+    private final Map<String, CompiledFormula> formulas = new LinkedHashMap<String, CompiledFormula>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledFormula> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    /**
+     * Gets the compiled formula for a formula text, after the replacers but the date one have run. Formulas are kept
+     * by their text for all the forms: a compiled formula holds no form state, the field values and dates are given
+     * on every evaluation, so the keys are the distinct formulas of the deployed forms and forms sharing a formula
+     * share its compilation.
+     */
+    public CompiledFormula getCompiledFormula(String formula) {
+        CompiledFormula compiledFormula;
+        synchronized (formulas) {
+            compiledFormula = formulas.get(formula);
+        }
+        if (compiledFormula != null) {
+            hits.incrementAndGet();
+            return compiledFormula;
+        }
+
+        misses.incrementAndGet();
+        compiledFormula = CompiledFormula.compile(formula);
+        synchronized (formulas) {
+            formulas.put(formula, compiledFormula);
+        }
+        return compiledFormula;
+    }
+
+    /**
+     * Get an interpreter to evaluate formulas on. It must be given back with <code>releaseInterpreter</code> once
+     * the evaluation is done, and no variables must be set on its global namespace.
+     */
+    public Interpreter acquireInterpreter() {
+        Interpreter interpreter;
+        synchronized (idleInterpreters) {
+            interpreter = idleInterpreters.pollFirst();
+        }
+        if (interpreter == null) {
+            createdInterpreters.incrementAndGet();
+            interpreter = new Interpreter();
+        }
+        return interpreter;
+    }
+
+    /**
+     * Gives back an interpreter obtained with <code>acquireInterpreter</code>. Interpreters beyond the maximum idle
+     * ones are discarded.
+     */
+    public void releaseInterpreter(Interpreter interpreter) {
+        if (interpreter == null) return;
+        synchronized (idleInterpreters) {
+            if (idleInterpreters.size() < maxIdleInterpreters) idleInterpreters.offerFirst(interpreter);
+        }
+    }
+
+    /**
+     * Converts the values of the formula references to the variables the compiled formula is evaluated with.
+     * Values are converted to the same types they got when they were written as literals in the formula text.
+     *
+     * @return the variable values or null if any of the values cannot be passed as a variable, in that case the
+     * formula must be interpreted with the values written on it.
+     */
+    public Object[] toVariableValues(List values) {
+        Object[] result = new Object[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            Object value = toVariableValue(values.get(i));
+            if (value == UNSUPPORTED_VALUE) return null;
+            result[i] = value;
+        }
+        return result;
+    }
+
+    protected Object toVariableValue(Object value) {
+        if (value instanceof String || value instanceof Boolean) return value;
+        if (value instanceof Date) return new Date(((Date) value).getTime());
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64)
+                || (value instanceof BigDecimal && isIntegralLong((BigDecimal) value))) {
+            // Integral literals are ints
+            long longValue = ((Number) value).longValue();
+            if (longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE) return (int) longValue;
+            return longValue;
+        }
+        if (value instanceof Double || value instanceof Float || value instanceof BigDecimal) {
+            double doubleValue = ((Number) value).doubleValue();
+            if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) return UNSUPPORTED_VALUE;
+            return doubleValue;
+        }
+        return UNSUPPORTED_VALUE;
+    }
+
+    // Integral decimals, as BigDecimal("7"), are written as integral literals too
+    protected boolean isIntegralLong(BigDecimal value) {
+        return value.scale() <= 0 && value.precision() - value.scale() <= 19 && value.toBigInteger().bitLength() < 64;
+    }
+
+    public void clear() {
+        synchronized (formulas) {
+            formulas.clear();
+        }
+        synchronized (idleInterpreters) {
+            idleInterpreters.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (formulas) {
+            return formulas.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int getIdleInterpreters() {
+        synchronized (idleInterpreters) {
+            return idleInterpreters.size();
+        }
+    }
+
+    public long getCreatedInterpreters() {
+        return createdInterpreters.get();
+    }
+
+    public int getMaxIdleInterpreters() {
+        return maxIdleInterpreters;
+    }
+
+    public void setMaxIdleInterpreters(int maxIdleInterpreters) {
+        if (maxIdleInterpreters < 0) throw new IllegalArgumentException("Idle interpreters can't be negative");
+        this.maxIdleInterpreters = maxIdleInterpreters;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("Cache size must be greater than 0");
+        this.maxSize = maxSize;
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.core.processing.formProcessing;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jbpm.formModeler.api.model.Form;
+import org.jbpm.formModeler.core.processing.FormStatusData;
+
+/**
+ * State of one formulas evaluation. Change processors are application scoped and shared by all the requests, so
+ * everything an evaluation needs to keep is kept here and each evaluation uses its own instance.
+ */
+public class FormulaEvaluationContext {
+
+    private final FormProcessingContext processingContext;
+    private final FormStatusData statusData;
+    private final FormChangeResponse response;
+    private final Object loadedObject;
+    private final Set<String> evaluatedFields = new HashSet<String>();
+
+    public FormulaEvaluationContext(FormProcessingContext processingContext, FormStatusData statusData, FormChangeResponse response) {
+        this(processingContext, statusData, response, null);
+    }
+
+    public FormulaEvaluationContext(FormProcessingContext processingContext, FormStatusData statusData, FormChangeResponse response, Object loadedObject) {
+        this.processingContext = processingContext;
+        this.statusData = statusData;
+        this.response = response;
+        this.loadedObject = loadedObject;
+    }
+
+    public FormProcessingContext getProcessingContext() {
+        return processingContext;
+    }
+
+    public Form getForm() {
+        return processingContext.getForm();
+    }
+
+    public String getNamespace() {
+        return processingContext.getNamespace();
+    }
+
+    public FormStatusData getStatusData() {
+        return statusData;
+    }
+
+    public FormChangeResponse getResponse() {
+        return response;
+    }
+
+    public Object getLoadedObject() {
+        return loadedObject;
+    }
+
+    public boolean isEvaluated(String fieldName) {
+        return evaluatedFields.contains(fieldName);
+    }
+
+    public void setEvaluated(String fieldName) {
+        evaluatedFields.add(fieldName);
+    }
+}
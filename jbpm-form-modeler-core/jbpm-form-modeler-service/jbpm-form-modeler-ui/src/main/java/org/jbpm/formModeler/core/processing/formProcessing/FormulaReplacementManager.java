@@ -15,6 +15,7 @@
  */
 package org.jbpm.formModeler.core.processing.formProcessing;
 
+import org.jbpm.formModeler.core.processing.formProcessing.replacers.DateReplacer;
 import org.jbpm.formModeler.core.processing.formProcessing.replacers.FormulaReplacer;
 import org.jbpm.formModeler.service.cdi.CDIBeanLocator;
 import org.jbpm.formModeler.core.processing.formProcessing.replacers.FormulaReplacementContext;
@@ -35,9 +36,26 @@ public class FormulaReplacementManager {
     private Instance<FormulaReplacer> formulaReplacements;
 
     public String replace(FormulaReplacementContext ctx) {
+        return replace(ctx, true, true);
+    }
+
+    /**
+     * Runs all the replacers but the date one. The {$date(format)} tokens are kept, so the formula text doesn't
+     * change with the current date.
+     */
+    public String replaceAllButDates(FormulaReplacementContext ctx) {
+        return replace(ctx, false, true);
+    }
+
+    public String replaceDates(FormulaReplacementContext ctx) {
+        return replace(ctx, true, false);
+    }
+
+    protected String replace(FormulaReplacementContext ctx, boolean dates, boolean others) {
         Iterator<FormulaReplacer> it = formulaReplacements.iterator();
         while (it.hasNext()) {
             FormulaReplacer fr = it.next();
+            if (fr instanceof DateReplacer ? !dates : !others) continue;
             String formula = fr.replace(ctx);
             ctx.setFormula(formula);
         }
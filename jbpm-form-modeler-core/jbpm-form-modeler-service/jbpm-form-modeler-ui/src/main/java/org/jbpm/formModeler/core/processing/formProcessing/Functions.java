@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 import javax.enterprise.context.ApplicationScoped;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Util functions that can be used on field Formulas.
@@ -35,6 +36,11 @@ public class Functions {
 
     private static String[] MONTHS = {"jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"};
 
+    /**
+     * Month names by locale, so they aren't read from the bundle every time.
+     */
+    private static Map<Locale, Map<String, String>> monthsByLocale = new ConcurrentHashMap<Locale, Map<String, String>>();
+
     /**
      * This enables using StringUtils functions by using something like Functions.String.replace(...)
      */
@@ -63,16 +69,21 @@ public class Functions {
     }
 
     public Map getMonths() {
-        Map months = new TreeMap();
-
-        ResourceBundle bundle = ResourceBundle.getBundle("org.jbpm.formModeler.core.processing.formProcessing.messages", LocaleManager.currentLocale());
-        for (int i = 0; i < MONTHS.length; i++) {
-            String key = java.lang.String.valueOf(i);
-            if (key.length() == 1) key = "0" + key;
-            months.put(key, bundle.getString("months." + MONTHS[i]));
+        Locale locale = LocaleManager.currentLocale();
+
+        Map<String, String> months = monthsByLocale.get(locale);
+        if (months == null) {
+            months = new TreeMap<String, String>();
+            ResourceBundle bundle = ResourceBundle.getBundle("org.jbpm.formModeler.core.processing.formProcessing.messages", locale);
+            for (int i = 0; i < MONTHS.length; i++) {
+                String key = java.lang.String.valueOf(i);
+                if (key.length() == 1) key = "0" + key;
+                months.put(key, bundle.getString("months." + MONTHS[i]));
+            }
+            monthsByLocale.put(locale, months);
         }
 
-        return months;
+        return new TreeMap(months);
     }
 
     public Map getValidDays() {
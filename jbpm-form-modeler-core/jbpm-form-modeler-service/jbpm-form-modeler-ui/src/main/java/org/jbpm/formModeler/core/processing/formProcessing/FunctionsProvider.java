@@ -17,6 +17,8 @@ package org.jbpm.formModeler.core.processing.formProcessing;
 
 import bsh.EvalError;
 import bsh.Interpreter;
+import bsh.NameSpace;
+import bsh.UtilEvalError;
 import org.slf4j.Logger;
 import org.jbpm.formModeler.service.cdi.CDIBeanLocator;
 import org.slf4j.LoggerFactory;
@@ -40,4 +42,8 @@ public class FunctionsProvider extends Properties {
     public void populate(Interpreter interpreter) throws EvalError {
         interpreter.set("Functions", new Functions());
     }
+
+    public void populate(NameSpace nameSpace) throws UtilEvalError {
+        nameSpace.setVariable("Functions", new Functions(), false);
+    }
 }
@@ -17,6 +17,7 @@ package org.jbpm.formModeler.core.processing.formProcessing.replacers;
 
 import javax.enterprise.context.ApplicationScoped;
 import java.text.SimpleDateFormat;
+import java.util.Date;
 
 /**
  * Replaces the {$date(format)} token on formula.
@@ -24,6 +25,31 @@ import java.text.SimpleDateFormat;
 @ApplicationScoped
 public class DateReplacer implements FormulaReplacer {
 
+    public static final String DATE_REFERENCE_PREFIX = "$date(";
+
+    /**
+     * Checks if a formula reference, the text between braces, is a date token.
+     */
+    public static boolean isDateReference(String reference) {
+        return reference.startsWith(DATE_REFERENCE_PREFIX) && reference.endsWith(")");
+    }
+
+    /**
+     * Gets the value of a date reference, the date formatted with the reference pattern.
+     */
+    public static String formatDate(String reference, Date date) {
+        return format(reference.substring(DATE_REFERENCE_PREFIX.length(), reference.length() - 1), date);
+    }
+
+    protected static String format(String pattern, Date date) {
+        try {
+            SimpleDateFormat sdf = new SimpleDateFormat(pattern);
+            return sdf.format(date);
+        } catch (Exception e) {
+            return "{$WRONG_PATTERN}";
+        }
+    }
+
     public String replace(FormulaReplacementContext ctx) {
         String formula = ctx.getFormula();
         while (formula.indexOf("{$date(") != -1) {
@@ -37,12 +63,7 @@ public class DateReplacer implements FormulaReplacer {
             }
             index1 = index1 + 2;
 
-            String result = "{$WRONG_PATTERN}";
-            try {
-                SimpleDateFormat sdf = new SimpleDateFormat(pattern);
-                result = sdf.format(ctx.getDate());
-            } catch (Exception e) {
-            }
+            String result = format(pattern, ctx.getDate());
             formula = formula.substring(0, index0) + result + formula.substring(index1);
         }
 
@@ -17,6 +17,8 @@ package org.jbpm.formModeler.core.processing.formProcessing.replacers;
 
 import bsh.EvalError;
 import bsh.Interpreter;
+import bsh.NameSpace;
+import bsh.UtilEvalError;
 import org.jbpm.formModeler.api.model.Field;
 import org.jbpm.formModeler.core.processing.FormProcessor;
 import org.jbpm.formModeler.core.rendering.SubformFinderService;
@@ -161,4 +163,11 @@ public class FormulaReplacementContext {
         }
         interpreter.set("ctx", this);
     }
+
+    public void populate(NameSpace nameSpace) throws UtilEvalError {
+        if (item != null) {
+            nameSpace.setVariable("item", item, false);
+        }
+        nameSpace.setVariable("ctx", this, false);
+    }
 }
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.core.processing.formRendering;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.jbpm.formModeler.api.model.Field;
+import org.jbpm.formModeler.core.processing.FieldHandler;
+
+/**
+ * The layout of a form for a render mode, label mode and display mode: the field groups in order, their colspans and
+ * widths, and the handler and page that render each field. It doesn't depend on the form status, so it's built once
+ * and kept on the form until its fields are modified.
+ */
+public class FormRenderPlan {
+
+    private final long modificationCount;
+    private final String width;
+    private final int maxCols;
+    private final List<Group> groups;
+    private final boolean directRendering;
+
+    public FormRenderPlan(long modificationCount, String width, int maxCols, List<Group> groups, boolean directRendering) {
+        this.modificationCount = modificationCount;
+        this.width = width;
+        this.maxCols = maxCols;
+        this.groups = Collections.unmodifiableList(groups);
+        this.directRendering = directRendering;
+    }
+
+    public static String getKey(String renderMode, String labelMode, String displayMode) {
+        return FormRenderPlan.class.getName() + "/" + renderMode + "/" + labelMode + "/" + displayMode;
+    }
+
+    /**
+     * Determines if the plan was built when the form had the given modification count. Fields added or removed
+     * without going through the FormManager are detected here, see Form.getModificationCount().
+     */
+    public boolean isPlanOf(long modificationCount) {
+        return this.modificationCount == modificationCount;
+    }
+
+    public String getWidth() {
+        return width;
+    }
+
+    public int getMaxCols() {
+        return maxCols;
+    }
+
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    /**
+     * Determines if all the fields are handled by a DirectRenderingFieldHandler
+     */
+    public boolean isDirectRendering() {
+        return directRendering;
+    }
+
+    /**
+     * Fields rendered in the same line.
+     */
+    public static class Group {
+        private final int position;
+        private final List<FieldPlan> fields;
+
+        public Group(int position, List<FieldPlan> fields) {
+            this.position = position;
+            this.fields = Collections.unmodifiableList(fields);
+        }
+
+        /**
+         * Position of the last field of the group in the form.
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        public List<FieldPlan> getFields() {
+            return fields;
+        }
+    }
+
+    /**
+     * A field with its handler, page and place in its group.
+     */
+    public static class FieldPlan {
+        private final Field field;
+        private final FieldHandler handler;
+        private final String renderPage;
+        private final int colspan;
+        private final int width;
+        private final String labelMode;
+        private final boolean labelInSameLine;
+
+        public FieldPlan(Field field, FieldHandler handler, String renderPage, int colspan, int width, String labelMode, boolean labelInSameLine) {
+            this.field = field;
+            this.handler = handler;
+            this.renderPage = renderPage;
+            this.colspan = colspan;
+            this.width = width;
+            this.labelMode = labelMode;
+            this.labelInSameLine = labelInSameLine;
+        }
+
+        public Field getField() {
+            return field;
+        }
+
+        public FieldHandler getHandler() {
+            return handler;
+        }
+
+        public String getRenderPage() {
+            return renderPage;
+        }
+
+        public int getColspan() {
+            return colspan;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public String getLabelMode() {
+            return labelMode;
+        }
+
+        public boolean isLabelInSameLine() {
+            return labelInSameLine;
+        }
+    }
+}
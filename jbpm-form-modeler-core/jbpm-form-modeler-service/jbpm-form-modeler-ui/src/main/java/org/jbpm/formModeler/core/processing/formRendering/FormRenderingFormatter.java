@@ -31,6 +31,7 @@ import org.jbpm.formModeler.api.model.Form;
 import org.jbpm.formModeler.api.model.FormDisplayInfo;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.jbpm.formModeler.core.processing.DirectRenderingFieldHandler;
 import org.jbpm.formModeler.core.processing.FieldHandler;
 import org.jbpm.formModeler.core.processing.FormProcessor;
 import org.jbpm.formModeler.core.processing.FormStatusData;
@@ -40,6 +41,8 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.math.BigInteger;
 import java.util.*;
 
@@ -73,14 +76,22 @@ public class FormRenderingFormatter extends Formatter {
     @Inject @Config("/formModeler/defaultFormErrors.jsp")
     private String errorsPage;
 
-    private String[] formModes = new String[]{Form.RENDER_MODE_FORM, Form.RENDER_MODE_WYSIWYG_FORM};
-    private String[] displayModes = new String[]{Form.RENDER_MODE_DISPLAY, Form.RENDER_MODE_WYSIWYG_DISPLAY};
+    /**
+     * Render the fields through their handlers instead of including the handler pages, when all the fields of the
+     * form support it.
+     */
+    @Inject @Config("true")
+    protected boolean directRendering;
+
+    private List<String> formModes = Arrays.asList(Form.RENDER_MODE_FORM, Form.RENDER_MODE_WYSIWYG_FORM);
+    private List<String> displayModes = Arrays.asList(Form.RENDER_MODE_DISPLAY, Form.RENDER_MODE_WYSIWYG_DISPLAY);
 
     protected transient Form formToPaint;
     protected transient String namespace;
     protected transient String renderMode;
     protected transient Boolean isReadonly = Boolean.FALSE;
     protected transient FormStatusData formStatusData;
+    protected transient boolean renderFieldsDirectly = false;
 
     public FormManager getFormManager() {
         return FormCoreServices.lookup().getFormManager();
@@ -231,8 +242,18 @@ public class FormRenderingFormatter extends Formatter {
         }
     }
 
+    /**
+     * Rendering instructions of the form template, cached by form when the default helper is used.
+     */
+    protected List getRenderingInstructions(Form form) {
+        FormTemplateHelper helper = FormProcessingServices.lookup().getFormTemplateHelper();
+        if (helper instanceof FormTemplateHelperImpl) return ((FormTemplateHelperImpl) helper).getRenderingInstructions(form);
+        return helper.getRenderingInstructions(form.getFormTemplate());
+    }
+
     protected void templateDisplay(final Form form, final String namespace, final String renderMode) {
-        List renderingInstructions = FormProcessingServices.lookup().getFormTemplateHelper().getRenderingInstructions(form.getFormTemplate());
+        renderFieldsDirectly = directRendering && supportsDirectRendering(form);
+        List renderingInstructions = getRenderingInstructions(form);
         FormRenderer renderer = new FormRenderer() {
             public void writeToOut(String text) {
                 FormRenderingFormatter.this.writeToOut(text);
@@ -286,16 +307,13 @@ public class FormRenderingFormatter extends Formatter {
     }
 
     protected void renderField(Field field, String namespace, String renderMode) {
-        beforeRenderField(field, namespace, renderMode);
-        boolean fieldHasErrors = formStatusData.getWrongFields().contains(field.getFieldName());
-        String renderPage = "";
         FieldHandler fieldHandler = getFieldHandlersManager().getHandler(field.getFieldType());
+        renderField(field, fieldHandler, getRenderPage(fieldHandler, renderMode), namespace, renderMode);
+    }
 
-        if (Arrays.asList(formModes).contains(renderMode)) {
-            renderPage = fieldHandler.getPageToIncludeForRendering();
-        } else if (Arrays.asList(displayModes).contains(renderMode)) {
-            renderPage = fieldHandler.getPageToIncludeForDisplaying();
-        }
+    protected void renderField(Field field, FieldHandler fieldHandler, String renderPage, String namespace, String renderMode) {
+        beforeRenderField(field, namespace, renderMode);
+        boolean fieldHasErrors = formStatusData.getWrongFields().contains(field.getFieldName());
         if (!"".equals(renderPage)) {
             Boolean fieldIsRequired = field.getFieldRequired();
             boolean fieldRequired = fieldIsRequired != null && fieldIsRequired.booleanValue();
@@ -312,11 +330,15 @@ public class FormRenderingFormatter extends Formatter {
                 value = values != null && values.length > 0 ? values[0] : value;
             }
 
-            setRenderingAttributes(field, namespace, value, formStatusData, fieldHasErrors);
-            // If disabled and/or readonly parameters were received from a subformformatter, pass them on to the included
-            // fields (only relevant when they're set to true)
-            if (isReadonly) setAttribute(ATTR_FIELD_IS_READONLY, isReadonly);
-            includePage(renderPage);
+            if (renderFieldsDirectly) {
+                renderFieldDirectly((DirectRenderingFieldHandler) fieldHandler, field, namespace, value, renderMode);
+            } else {
+                setRenderingAttributes(field, namespace, value, formStatusData, fieldHasErrors);
+                // If disabled and/or readonly parameters were received from a subformformatter, pass them on to the included
+                // fields (only relevant when they're set to true)
+                if (isReadonly) setAttribute(ATTR_FIELD_IS_READONLY, isReadonly);
+                includePage(renderPage);
+            }
             if (fieldRequired) renderFragment("afterRequiredField");
             if (fieldHasErrors) renderFragment("afterWrongField");
         } else {
@@ -328,6 +350,55 @@ public class FormRenderingFormatter extends Formatter {
         afterRenderField(field, namespace, renderMode);
     }
 
+    /**
+     * Determines the page of the handler that renders a field in the given render mode, or an empty string if the
+     * mode has no page.
+     */
+    protected String getRenderPage(FieldHandler fieldHandler, String renderMode) {
+        if (formModes.contains(renderMode)) {
+            return fieldHandler.getPageToIncludeForRendering();
+        } else if (displayModes.contains(renderMode)) {
+            return fieldHandler.getPageToIncludeForDisplaying();
+        }
+        return "";
+    }
+
+    /**
+     * Determines if all the fields of the form are handled by a DirectRenderingFieldHandler that supports it, that are
+     * only the plugable ones using the default pages, so forms with fields of the core types are always rendered
+     * including the handler pages.
+     */
+    protected boolean supportsDirectRendering(Form form) {
+        Set<Field> fields = form.getFormFields();
+        if (fields == null || fields.isEmpty()) return false;
+        for (Field field : fields) {
+            if (!supportsDirectRendering(getFieldHandlersManager().getHandler(field.getFieldType()))) return false;
+        }
+        return true;
+    }
+
+    protected boolean supportsDirectRendering(FieldHandler fieldHandler) {
+        return fieldHandler instanceof DirectRenderingFieldHandler && ((DirectRenderingFieldHandler) fieldHandler).isDirectRenderingSupported();
+    }
+
+    /**
+     * Writes the field markup as the handler page would do, but without including it.
+     */
+    protected void renderFieldDirectly(DirectRenderingFieldHandler fieldHandler, Field field, String namespace, Object value, String renderMode) {
+        String inputName = namespaceManager.generateFieldNamesPace(namespace, field);
+        StringWriter out = new StringWriter();
+        try {
+            if (formModes.contains(renderMode)) {
+                fieldHandler.writeInputHTML(out, value, field, inputName, namespace, isReadonly);
+            } else {
+                fieldHandler.writeShowHTML(out, value, field, inputName, namespace);
+            }
+        } catch (IOException e) {
+            log.error("Error rendering field " + field.getFieldName(), e);
+        }
+        if (out.getBuffer().length() > 0) writeToOut(out.toString());
+    }
+
     protected void beforeRenderField(Field field, String namespace, String renderMode) {
         String uid = namespaceManager.generateSquashedInputName(namespace, field);
         String fieldTypeCss = field.getFieldType().getCssStyle();
@@ -440,60 +511,111 @@ public class FormRenderingFormatter extends Formatter {
      * @param renderMode
      */
     protected void defaultDisplay(Form form, String namespace, String renderMode, String labelMode, String mode) {
-        Set<Field> fields = form.getFormFields();
-        List<Field> sortedFields = new ArrayList(fields);
-        Collections.sort(sortedFields, new Field.Comparator());
+        FormRenderPlan plan = getRenderPlan(form, renderMode, labelMode, mode);
         FormStatusData formStatusData = getFormProcessor().read(form, namespace);
+        renderFieldsDirectly = directRendering && plan.isDirectRendering();
 
-        setAttribute("width", deduceWidthForForm(form, renderMode, labelMode, mode));
+        setAttribute("width", plan.getWidth());
         renderFragment("outputStart");
         renderFragment("formHeader");
+
+        boolean first = true;
+
+        for (FormRenderPlan.Group group : plan.getGroups()) {
+            if (group.getPosition() > 0 && Form.DISPLAY_MODE_NONE.equals(mode)) {
+                renderFragment("outputEnd");
+                setAttribute("width", plan.getWidth());
+                renderFragment("outputStart");
+            }
+            defaultDisplayGroup(form, group, plan.getMaxCols(), renderMode, formStatusData, mode, namespace, first);
+            first = false;
+        }
+
+        displayFooter(form);
+        renderFragment("outputEnd");
+    }
+
+    /**
+     * Get the render plan of the form for the given modes, building it if the form has none or its fields changed.
+     */
+    protected FormRenderPlan getRenderPlan(Form form, String renderMode, String labelMode, String mode) {
+        String key = FormRenderPlan.getKey(renderMode, labelMode, mode);
+        FormRenderPlan plan = (FormRenderPlan) form.getRenderPlan(key);
+        if (plan == null || !plan.isPlanOf(form.getModificationCount())) {
+            plan = buildRenderPlan(form, renderMode, labelMode, mode);
+            form.setRenderPlan(key, plan);
+        }
+        return plan;
+    }
+
+    protected FormRenderPlan buildRenderPlan(Form form, String renderMode, String labelMode, String mode) {
+        long modificationCount = form.getModificationCount();
+        Set<Field> fields = form.getFieldsSource();
+        List<Field> sortedFields = new ArrayList(fields);
+        Collections.sort(sortedFields, new Field.Comparator());
+
         /*Calculate colspans*/
         List colspans = new ArrayList();
-        List fieldGroups = new ArrayList();
-        fieldGroups.add(new ArrayList());
-        for (Field field : sortedFields) {
-            List currentList = (List) fieldGroups.get(fieldGroups.size() - 1);
-            if (!Boolean.TRUE.equals(field.getGroupWithPrevious())) {
-                fieldGroups.add(currentList = new ArrayList());
+        List<List<Field>> fieldGroups = new ArrayList<List<Field>>();
+        List<Integer> groupPositions = new ArrayList<Integer>();
+        for (int i = 0; i < sortedFields.size(); i++) {
+            Field field = sortedFields.get(i);
+            if (fieldGroups.isEmpty() || !Boolean.TRUE.equals(field.getGroupWithPrevious())) {
+                fieldGroups.add(new ArrayList<Field>());
+                groupPositions.add(i);
+            } else {
+                groupPositions.set(groupPositions.size() - 1, i);
             }
-            currentList.add(field);
+            fieldGroups.get(fieldGroups.size() - 1).add(field);
         }
-        for (int i = 0; i < fieldGroups.size(); i++) {
-            List list = (List) fieldGroups.get(i);
-            if (!list.isEmpty())
-                colspans.add(new BigInteger(String.valueOf(list.size())));
+        for (List<Field> group : fieldGroups) {
+            colspans.add(new BigInteger(String.valueOf(group.size())));
         }
 
-        BigInteger mcm = calculateMCM(colspans);
-        BigInteger max = calculateMax(colspans);
+        int maxCols = calculateMCM(colspans).intValue();
+        int maxMembers = calculateMax(colspans).intValue();
 
-        /*Render fields with colspans*/
-        List groupList = new ArrayList();
+        boolean allDirect = !sortedFields.isEmpty();
+        List<FormRenderPlan.Group> groups = new ArrayList<FormRenderPlan.Group>();
 
-        boolean first = true;
+        for (int g = 0; g < fieldGroups.size(); g++) {
+            List<Field> groupMembers = fieldGroups.get(g);
+            List<FormRenderPlan.FieldPlan> fieldPlans = new ArrayList<FormRenderPlan.FieldPlan>();
 
-        for (int i = 0; i < sortedFields.size(); i++) {
-            Field field = sortedFields.get(i);
-            groupList.add(field);
-            if (i < sortedFields.size() - 1) {
-                Field nextField = sortedFields.get(i + 1);
-                if (nextField.getGroupWithPrevious() != null && nextField.getGroupWithPrevious().booleanValue()) {
-                    continue;
-                }
+            int fieldColspan = maxCols / groupMembers.size();
+            int fieldWidth = (100 * fieldColspan) / maxCols;
+            if (Form.DISPLAY_MODE_ALIGNED.equals(mode)) {
+                fieldColspan = maxCols / maxMembers;
             }
-            if (i > 0 && Form.DISPLAY_MODE_NONE.equals(mode)) {
-                renderFragment("outputEnd");
-                setAttribute("width", deduceWidthForForm(form, renderMode, labelMode, mode));
-                renderFragment("outputStart");
+            if (Form.DISPLAY_MODE_NONE.equals(mode)) {
+                fieldColspan = 1;
             }
-            defaultDisplayGroup(form, groupList, mcm.intValue(), max.intValue(), renderMode, labelMode, formStatusData, mode, namespace, i, first);
-            groupList.clear();
-            first = false;
+            for (int i = 0; i < groupMembers.size(); i++) {
+                Field field = groupMembers.get(i);
+                if (i == groupMembers.size() - 1 && Form.DISPLAY_MODE_ALIGNED.equals(mode)) {
+                    fieldColspan = maxCols - i * maxCols / maxMembers;
+                    fieldWidth = (100 * fieldColspan) / maxCols;
+                }
+
+                String fieldLabelMode = labelMode;
+                boolean labelInSameLine = Form.LABEL_MODE_LEFT.equals(labelMode) || Form.LABEL_MODE_RIGHT.equals(labelMode);
+
+                // TODO: improve alignment for checkbox label
+                if ((field.getFieldType().getCode().equals("CheckBox") || field.getFieldType().getCode().equals("CheckBoxPrimitiveBoolean")) && !Form.LABEL_MODE_LEFT.equals(labelMode)) {
+                    fieldLabelMode = Form.LABEL_MODE_AFTER;
+                    labelInSameLine = true;
+                }
+
+                FieldHandler fieldHandler = getFieldHandlersManager().getHandler(field.getFieldType());
+                String renderPage = fieldHandler != null ? getRenderPage(fieldHandler, renderMode) : "";
+                allDirect &= supportsDirectRendering(fieldHandler);
+
+                fieldPlans.add(new FormRenderPlan.FieldPlan(field, fieldHandler, renderPage, fieldColspan, fieldWidth, fieldLabelMode, labelInSameLine));
+            }
+            groups.add(new FormRenderPlan.Group(groupPositions.get(g), fieldPlans));
         }
 
-        displayFooter(form);
-        renderFragment("outputEnd");
+        return new FormRenderPlan(modificationCount, deduceWidthForForm(form, renderMode, labelMode, mode), maxCols, groups, allDirect);
     }
 
 
@@ -529,46 +651,34 @@ public class FormRenderingFormatter extends Formatter {
         }
     }
 
-    protected void defaultDisplayGroup(Form form, List groupMembers, int maxCols, int maxMembers, String renderMode, String labelMode, FormStatusData formStatusData, String mode, String namespace, int position, boolean first) {
-        int fieldColspan = maxCols / groupMembers.size();
-        int fieldWidth = (100 * fieldColspan) / maxCols;
-        if (Form.DISPLAY_MODE_ALIGNED.equals(mode)) {
-            fieldColspan = maxCols / maxMembers;
-        }
-        if (Form.DISPLAY_MODE_NONE.equals(mode)) {
-            fieldColspan = 1;
-        }
-        setAttribute("groupPosition", position);
-        setAttribute("field", groupMembers.get(0));
+    protected void defaultDisplayGroup(Form form, FormRenderPlan.Group group, int maxCols, String renderMode, FormStatusData formStatusData, String mode, String namespace, boolean first) {
+        List<FormRenderPlan.FieldPlan> groupMembers = group.getFields();
+        setAttribute("groupPosition", group.getPosition());
+        setAttribute("field", groupMembers.get(0).getField());
         setAttribute("colspan", maxCols);
         setAttribute("isFirst", first);
         renderFragment("groupStart");
         for (int i = 0; i < groupMembers.size(); i++) {
-            if (i == groupMembers.size() - 1 && Form.DISPLAY_MODE_ALIGNED.equals(mode)) {
-                fieldColspan = maxCols - i * maxCols / maxMembers;
-                fieldWidth = (100 * fieldColspan) / maxCols;
-            }
-            renderInputElement((Field) groupMembers.get(i), fieldColspan, fieldWidth, namespace, renderMode, labelMode, i);
+            renderInputElement(groupMembers.get(i), namespace, renderMode, i);
         }
-        setAttribute("field", groupMembers.get(groupMembers.size()-1));
+        setAttribute("field", groupMembers.get(groupMembers.size() - 1).getField());
         setAttribute("colspan", maxCols);
         renderFragment("groupEnd");
     }
 
-    protected void renderInputElement(Field field, int fieldColspan, int fieldWidth, String namespace, String renderMode, String labelMode, int index) {
+    protected void renderInputElement(FormRenderPlan.FieldPlan fieldPlan, String namespace, String renderMode, int index) {
+        Field field = fieldPlan.getField();
+        int fieldColspan = fieldPlan.getColspan();
+        int fieldWidth = fieldPlan.getWidth();
+        String labelMode = fieldPlan.getLabelMode();
+        boolean labelInSameLine = fieldPlan.isLabelInSameLine();
+
         setAttribute("field", field);
         setAttribute("colspan", fieldColspan);
         setAttribute("width", fieldWidth);
         setAttribute("index", index);
-        boolean labelInSameLine = Form.LABEL_MODE_LEFT.equals(labelMode) || Form.LABEL_MODE_RIGHT.equals(labelMode);
         renderFragment("beforeInputElement");
 
-        // TODO: improve alignment for checkbox label
-        if((field.getFieldType().getCode().equals("CheckBox") || field.getFieldType().getCode().equals("CheckBoxPrimitiveBoolean")) && !Form.LABEL_MODE_LEFT.equals(labelMode)){
-            labelMode =Form.LABEL_MODE_AFTER;
-            labelInSameLine=true;
-        }
-
         if (Form.LABEL_MODE_BEFORE.equals(labelMode) || Form.LABEL_MODE_LEFT.equals(labelMode)) {
             setAttribute("colspan", fieldColspan);
             setAttribute("width", fieldWidth);
@@ -586,7 +696,7 @@ public class FormRenderingFormatter extends Formatter {
         setAttribute("colspan", fieldColspan);
         setAttribute("width", fieldWidth);
         renderFragment("beforeField");
-        renderField(field, namespace, renderMode);
+        renderField(field, fieldPlan.getHandler(), fieldPlan.getRenderPage(), namespace, renderMode);
         setAttribute("field", field);
         renderFragment("afterField");
 
@@ -16,66 +16,211 @@
 package org.jbpm.formModeler.core.processing.formRendering;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import java.text.MessageFormat;
-import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Hashtable;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.jbpm.formModeler.api.model.Form;
+import org.jbpm.formModeler.service.annotation.config.Config;
+
+/**
+ * Splits the form templates in rendering instructions, in a single pass over the template.
+ * <p/>
+ * The instructions are cached by form id and template, without locking the readers. When there are more than
+ * <code>maxCachedTemplates</code> templates the least recently used ones are evicted.
+ */
 @ApplicationScoped
 public class FormTemplateHelperImpl implements FormTemplateHelper {
 
+    public static final String FIELD_START = Form.TEMPLATE_FIELD + "{";
+    public static final String LABEL_START = Form.TEMPLATE_LABEL + "{";
+    public static final String ELEMENT_END = "}";
+
+    /**
+     * @deprecated templates aren't parsed with MessageFormat anymore, use {@link #FIELD_START} and {@link #ELEMENT_END}
+     */
+    @Deprecated
     public static final MessageFormat fieldMsgFormat = new MessageFormat(FIELD_FORMAT);
+
+    /**
+     * @deprecated templates aren't parsed with MessageFormat anymore, use {@link #LABEL_START} and {@link #ELEMENT_END}
+     */
+    @Deprecated
     public static final MessageFormat labelMsgFormat = new MessageFormat(LABEL_FORMAT);
 
-    private Hashtable templatesCache = new Hashtable();
+    @Inject @Config("256")
+    protected int maxCachedTemplates;
+
+    private final ConcurrentHashMap<TemplateKey, CachedInstructions> templatesCache = new ConcurrentHashMap<TemplateKey, CachedInstructions>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicLong clock = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
 
     @Override
-    public synchronized List getRenderingInstructions(String template) {
+    public List getRenderingInstructions(String template) {
+        return getRenderingInstructions(null, template);
+    }
+
+    /**
+     * Rendering instructions for the template of the given form.
+     */
+    public List getRenderingInstructions(Form form) {
+        if (form == null) return Collections.EMPTY_LIST;
+        return getRenderingInstructions(form.getId(), form.getFormTemplate());
+    }
+
+    protected List getRenderingInstructions(Long formId, String template) {
         if (template == null) {
             return Collections.EMPTY_LIST;
         }
-        List l = (List) templatesCache.get(template);
-        if (l == null) {
-            l = calculateInstructions(template);
-            if (templatesCache.size() > 50)
-                templatesCache.remove(templatesCache.keySet().iterator().next());
-            templatesCache.put(template, l);
+
+        TemplateKey key = new TemplateKey(formId, template);
+        CachedInstructions cached = templatesCache.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            cached.lastAccess = clock.incrementAndGet();
+            return cached.instructions;
         }
-        return l;
+
+        misses.incrementAndGet();
+        cached = new CachedInstructions(Collections.unmodifiableList(calculateInstructions(template)), clock.incrementAndGet());
+        CachedInstructions current = templatesCache.putIfAbsent(key, cached);
+        if (current != null) return current.instructions;
+
+        evictTemplates();
+        return cached.instructions;
     }
 
-    protected synchronized List calculateInstructions(String template) {
+    /**
+     * Evicts the least recently used templates until the cache fits in its size. Only one thread evicts at a time,
+     * the others just go on.
+     */
+    protected void evictTemplates() {
+        if (maxCachedTemplates <= 0 || templatesCache.size() <= maxCachedTemplates) return;
+        if (!evictionLock.tryLock()) return;
+        try {
+            while (templatesCache.size() > maxCachedTemplates) {
+                Map.Entry<TemplateKey, CachedInstructions> eldest = null;
+                for (Iterator<Map.Entry<TemplateKey, CachedInstructions>> it = templatesCache.entrySet().iterator(); it.hasNext();) {
+                    Map.Entry<TemplateKey, CachedInstructions> entry = it.next();
+                    if (eldest == null || entry.getValue().lastAccess < eldest.getValue().lastAccess) eldest = entry;
+                }
+                if (eldest == null || !templatesCache.remove(eldest.getKey(), eldest.getValue())) break;
+                evictions.incrementAndGet();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Splits the template in its HTML pieces, fields and labels. Fields take precedence over labels, and an element
+     * without its closing bracket is kept as HTML. Blank HTML pieces are skipped, unless they precede a label.
+     */
+    protected List calculateInstructions(String template) {
         if (template == null || "".equals(template.trim()))
             return Collections.EMPTY_LIST;
         List result = new ArrayList();
 
-        Object[] parsedResult = splitByElement(template, fieldMsgFormat);
-        if (parsedResult == null) {
-            Object[] parsedResult2 = splitByElement(template, labelMsgFormat);
-            if (parsedResult2 == null) {
-                result.add(new HTMLPieceRenderingInstruction(template));
-            } else {
-                result.add(new HTMLPieceRenderingInstruction((String) parsedResult2[0]));
-                result.add(new RenderLabelInstruction((String) parsedResult2[1]));
-                result.addAll(calculateInstructions(((String) parsedResult2[2])));
+        int position = 0;
+        while (position < template.length()) {
+            int fieldStart = template.indexOf(FIELD_START, position);
+            int fieldEnd = fieldStart == -1 ? -1 : template.indexOf(ELEMENT_END, fieldStart + FIELD_START.length());
+            if (fieldEnd == -1) {
+                addHTMLAndLabels(result, template, position, template.length());
+                break;
             }
-        } else {
-            result.addAll((calculateInstructions((String) parsedResult[0])));
-            result.add(new RenderFieldInstruction((String) parsedResult[1]));
-            result.addAll((calculateInstructions((String) parsedResult[2])));
+            addHTMLAndLabels(result, template, position, fieldStart);
+            result.add(new RenderFieldInstruction(template.substring(fieldStart + FIELD_START.length(), fieldEnd)));
+            position = fieldEnd + ELEMENT_END.length();
         }
         return result;
     }
 
+    protected void addHTMLAndLabels(List result, String template, int start, int end) {
+        int position = start;
+        while (!isBlank(template, position, end)) {
+            int labelStart = template.indexOf(LABEL_START, position);
+            int labelEnd = labelStart == -1 || labelStart + LABEL_START.length() > end ? -1 : template.indexOf(ELEMENT_END, labelStart + LABEL_START.length());
+            if (labelEnd == -1 || labelEnd >= end) {
+                result.add(new HTMLPieceRenderingInstruction(template.substring(position, end)));
+                return;
+            }
+            result.add(new HTMLPieceRenderingInstruction(template.substring(position, labelStart)));
+            result.add(new RenderLabelInstruction(template.substring(labelStart + LABEL_START.length(), labelEnd)));
+            position = labelEnd + ELEMENT_END.length();
+        }
+    }
+
+    protected boolean isBlank(String template, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (template.charAt(i) > ' ') return false;
+        }
+        return true;
+    }
+
+    public int getCachedTemplates() {
+        return templatesCache.size();
+    }
 
-    protected synchronized Object[] splitByElement(String template, MessageFormat s) {
-        try {
-            return s.parse(template);
-        } catch (ParseException e) {
+    public long getCacheHits() {
+        return hits.get();
+    }
+
+    public long getCacheMisses() {
+        return misses.get();
+    }
+
+    public long getCacheEvictions() {
+        return evictions.get();
+    }
+
+    public void clearCache() {
+        templatesCache.clear();
+    }
+
+    protected static class TemplateKey {
+        private final Long formId;
+        private final String template;
+        private final int hash;
+
+        public TemplateKey(Long formId, String template) {
+            this.formId = formId;
+            this.template = template;
+            this.hash = 31 * (formId != null ? formId.hashCode() : 0) + template.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TemplateKey)) return false;
+            TemplateKey other = (TemplateKey) o;
+            return hash == other.hash && (formId == null ? other.formId == null : formId.equals(other.formId)) && template.equals(other.template);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
         }
-        return null;
     }
 
+    protected static class CachedInstructions {
+        private final List instructions;
+        private volatile long lastAccess;
+
+        public CachedInstructions(List instructions, long lastAccess) {
+            this.instructions = instructions;
+            this.lastAccess = lastAccess;
+        }
+    }
 }
@@ -36,6 +36,7 @@ public class FormStatus implements Serializable {
     private String namespace;
     private Map attributes = new HashMap();
     private Map<String, Object> loadedObjects = new HashMap<String, Object>();
+    private Set<String> changedFields = new HashSet<String>();
 
     public FormStatus(Form relatedForm, String namespace, Map currentValues) {
         this.relatedForm = relatedForm;
@@ -74,6 +75,7 @@ public class FormStatus implements Serializable {
     protected void clear() {
         inputValues.clear();
         attributes.clear();
+        changedFields.clear();
         lastParameterMap = null;
     }
 
@@ -112,6 +114,13 @@ public class FormStatus implements Serializable {
         this.wrongFieldsMessages = wrongFieldsMessages;
     }
 
+    /**
+     * Fields which value has changed since the formulas were last evaluated.
+     */
+    public Set<String> getChangedFields() {
+        return changedFields;
+    }
+
     public Map<String, Object> getLoadedObjects() {
         return loadedObjects;
     }
@@ -24,14 +24,19 @@ import org.jbpm.formModeler.service.cdi.CDIBeanLocator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.SessionScoped;
+import javax.inject.Inject;
 import java.io.Serializable;
-import java.util.Hashtable;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 /**
- * Holds session information for forms.
+ * Holds session information for forms. The form statuses are kept on the application wide FormStatusStore, under
+ * keys prefixed with an id of this session so statuses with the same namespace on different sessions don't collide.
  */
 @SessionScoped
 public class FormStatusManager implements Serializable {
@@ -40,9 +45,17 @@ public class FormStatusManager implements Serializable {
         return (FormStatusManager) CDIBeanLocator.getBeanByType(FormStatusManager.class);
     }
 
+    protected static final String OWNER_SEPARATOR = "/";
+
     private Logger log = LoggerFactory.getLogger(FormStatusManager.class);
 
-    private transient Map formStatuses = new Hashtable();
+    @Inject
+    private FormStatusStore formStatusStore;
+
+    // Without namespace separators, so the statuses of every session are kept on contexts of their own
+    private final String ownerId = UUID.randomUUID().toString().replace(FormProcessor.NAMESPACE_SEPARATOR, "");
+
+    private final Set<String> contextKeys = Collections.synchronizedSet(new HashSet<String>());
 
     /**
      * Get form status associated with given form id and namespace
@@ -52,8 +65,7 @@ public class FormStatusManager implements Serializable {
      * @return the form status associated with given form id and namespace
      */
     public FormStatus getFormStatus(Form form, String namespace) {
-        namespace = StringUtils.defaultIfEmpty(namespace, FormProcessor.DEFAULT_NAMESPACE);
-        return (FormStatus) formStatuses.get(namespace + FormProcessor.NAMESPACE_SEPARATOR + form.getId());
+        return formStatusStore.get(getStatusKey(form.getId(), namespace));
     }
 
     /**
@@ -66,7 +78,9 @@ public class FormStatusManager implements Serializable {
     public FormStatus createFormStatus(Form form, String namespace, Map<String, Object> currentValues) {
         namespace = StringUtils.defaultIfEmpty(namespace, FormProcessor.DEFAULT_NAMESPACE);
         FormStatus fs = new FormStatus(form, namespace, currentValues);
-        formStatuses.put(namespace + FormProcessor.NAMESPACE_SEPARATOR + form.getId(), fs);
+        String key = getStatusKey(form.getId(), namespace);
+        contextKeys.add(StringUtils.substringBefore(key, FormProcessor.NAMESPACE_SEPARATOR));
+        formStatusStore.put(key, fs);
         return fs;
     }
 
@@ -77,15 +91,8 @@ public class FormStatusManager implements Serializable {
      * @param namespace namespace
      */
     public void destroyFormStatus(Long formId, String namespace) {
-        namespace = StringUtils.defaultIfEmpty(namespace, FormProcessor.DEFAULT_NAMESPACE);
-        // Delete this forms tatus and all nested form statuses
-        String requestedPreffix = namespace + FormProcessor.NAMESPACE_SEPARATOR + formId;
-        for (Iterator it = formStatuses.keySet().iterator(); it.hasNext();) {
-            String key = (String) it.next();
-            if (key.startsWith(requestedPreffix)) {
-                it.remove();
-            }
-        }
+        // Delete this form status and all nested form statuses
+        formStatusStore.removeTree(getStatusKey(formId, namespace));
     }
 
     /**
@@ -95,18 +102,29 @@ public class FormStatusManager implements Serializable {
      * @param namespace form starting namespace
      */
     public void cascadeClearWrongFields(Long formId, String namespace) {
-        namespace = StringUtils.defaultIfEmpty(namespace, FormProcessor.DEFAULT_NAMESPACE);
-        // Delete this form status and all nested form statuses
-        String requestedPreffix = namespace + FormProcessor.NAMESPACE_SEPARATOR + formId;
-        for (Iterator it = formStatuses.keySet().iterator(); it.hasNext();) {
-            String key = (String) it.next();
-            if (key.startsWith(requestedPreffix)) {
-                FormStatus formStatus = (FormStatus) formStatuses.get(key);
-                formStatus.clearFormErrors();
+        for (FormStatus formStatus : formStatusStore.getTree(getStatusKey(formId, namespace))) {
+            formStatus.clearFormErrors();
+        }
+    }
+
+    /**
+     * Remove the statuses of this session from the store, the ones left are evicted once they are idle
+     */
+    @PreDestroy
+    public void destroy() {
+        synchronized (contextKeys) {
+            for (String contextKey : contextKeys) {
+                formStatusStore.removeTree(contextKey);
             }
+            contextKeys.clear();
         }
     }
 
+    protected String getStatusKey(Long formId, String namespace) {
+        namespace = StringUtils.defaultIfEmpty(namespace, FormProcessor.DEFAULT_NAMESPACE);
+        return ownerId + OWNER_SEPARATOR + namespace + FormProcessor.NAMESPACE_SEPARATOR + formId;
+    }
+
     public FormStatus getParent(FormStatus fs) {
         if (fs == null) return null;
 
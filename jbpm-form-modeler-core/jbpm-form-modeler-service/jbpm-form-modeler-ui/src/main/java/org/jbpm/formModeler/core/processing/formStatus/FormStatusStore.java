@@ -0,0 +1,64 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.core.processing.formStatus;
+
+import java.util.List;
+
+/**
+ * Storage for the form statuses used by the FormStatusManager. Statuses are stored by their key, that is made of
+ * namespace parts joined with FormProcessor.NAMESPACE_SEPARATOR. The first part of the key identifies the context the
+ * status belongs to, and the statuses of subforms have keys starting with the key of their parent form status.
+ * <p/>
+ * The default implementation is InMemoryFormStatusStore, other implementations can be provided as CDI alternatives.
+ */
+public interface FormStatusStore {
+
+    /**
+     * Get the form status stored with given key
+     *
+     * @param key the status key
+     * @return the form status or null if there isn't any status with given key
+     */
+    FormStatus get(String key);
+
+    /**
+     * Store a form status, replacing the status already stored with the same key
+     *
+     * @param key    the status key
+     * @param status the form status
+     */
+    void put(String key, FormStatus status);
+
+    /**
+     * Get the form status stored with given key and all the nested form statuses
+     *
+     * @param key the status key
+     * @return the statuses found, parent statuses before nested ones
+     */
+    List<FormStatus> getTree(String key);
+
+    /**
+     * Remove the form status stored with given key and all the nested form statuses
+     *
+     * @param key the status key
+     */
+    void removeTree(String key);
+
+    /**
+     * @return the number of contexts with form statuses in this store
+     */
+    int getContextsCount();
+}
@@ -0,0 +1,309 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.core.processing.formStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.jbpm.formModeler.core.processing.FormProcessor;
+import org.jbpm.formModeler.service.annotation.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the form statuses in memory, in a tree indexed by the namespace parts of their keys, so the statuses of a
+ * form and its subforms are found or removed visiting only their subtree.
+ * <p/>
+ * The first level of the tree are the contexts, each one locking only its own subtree. Contexts are evicted when
+ * they have been idle for more than <code>maxIdleTime</code> milliseconds or, least recently used first, when there
+ * are more than <code>maxContexts</code> contexts. A value of 0 disables each of the limits. Idle contexts are
+ * dropped when they are accessed, and the rest of the eviction runs every <code>evictionInterval</code> milliseconds
+ * or when <code>maxContexts</code> is exceeded, on the thread that gets the eviction lock while the others go on.
+ */
+@ApplicationScoped
+public class InMemoryFormStatusStore implements FormStatusStore {
+
+    private static transient Logger log = LoggerFactory.getLogger(InMemoryFormStatusStore.class);
+
+    @Inject @Config("1800000")
+    protected long maxIdleTime;
+
+    @Inject @Config("10000")
+    protected int maxContexts;
+
+    @Inject @Config("60000")
+    protected long evictionInterval;
+
+    private final ConcurrentHashMap<String, Context> contexts = new ConcurrentHashMap<String, Context>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final AtomicLong accessCounter = new AtomicLong();
+
+    private final AtomicLong evictedContexts = new AtomicLong();
+
+    private volatile long lastEviction;
+
+    public FormStatus get(String key) {
+        String[] parts = splitKey(key);
+        long now = currentTimeMillis();
+
+        FormStatus status = null;
+        Context context = getContext(parts[0], now);
+        if (context != null) {
+            synchronized (context) {
+                Node node = context.removed ? null : context.findNode(parts);
+                if (node != null) status = node.status;
+            }
+        }
+        evictContexts(now, false);
+        return status;
+    }
+
+    public void put(String key, FormStatus status) {
+        String[] parts = splitKey(key);
+        long now = currentTimeMillis();
+
+        boolean created = false;
+        while (true) {
+            Context context = getContext(parts[0], now);
+            if (context == null) {
+                Context newContext = new Context();
+                context = contexts.putIfAbsent(parts[0], newContext);
+                if (context == null) {
+                    context = newContext;
+                    created = true;
+                }
+            }
+            synchronized (context) {
+                // Evicted after it was got, it's put again on a new context
+                if (context.removed) continue;
+                context.touch(now);
+
+                Node node = context;
+                for (int i = 1; i < parts.length; i++) {
+                    node = node.getOrCreateChild(parts[i]);
+                }
+                node.status = status;
+            }
+            break;
+        }
+        evictContexts(now, created && maxContexts > 0 && contexts.size() > maxContexts);
+    }
+
+    public List<FormStatus> getTree(String key) {
+        String[] parts = splitKey(key);
+        long now = currentTimeMillis();
+
+        List<FormStatus> result = new ArrayList<FormStatus>();
+        Context context = getContext(parts[0], now);
+        if (context != null) {
+            synchronized (context) {
+                Node node = context.removed ? null : context.findNode(parts);
+                if (node != null) node.collectStatuses(result);
+            }
+        }
+        return result;
+    }
+
+    public void removeTree(String key) {
+        String[] parts = splitKey(key);
+
+        Context context = contexts.get(parts[0]);
+        if (context == null) return;
+
+        synchronized (context) {
+            if (parts.length == 1) {
+                removeContext(parts[0], context);
+                return;
+            }
+            context.touch(currentTimeMillis());
+
+            // Keep the path to prune the nodes that become empty
+            LinkedList<Node> path = new LinkedList<Node>();
+            Node node = context;
+            for (int i = 1; i < parts.length && node != null; i++) {
+                path.addFirst(node);
+                node = node.getChild(parts[i]);
+            }
+            if (node == null) return;
+
+            int partIndex = parts.length - 1;
+            for (Node parent : path) {
+                parent.children.remove(parts[partIndex--]);
+                if (parent.status != null || !parent.children.isEmpty()) return;
+            }
+            removeContext(parts[0], context);
+        }
+    }
+
+    public int getContextsCount() {
+        return contexts.size();
+    }
+
+    /**
+     * @return the number of contexts evicted since the store was created
+     */
+    public long getEvictedContexts() {
+        return evictedContexts.get();
+    }
+
+    /**
+     * Gets the context and marks it as accessed, unless it has been idle for too long and it's evicted.
+     */
+    protected Context getContext(String contextKey, long now) {
+        Context context = contexts.get(contextKey);
+        if (context == null) return null;
+
+        synchronized (context) {
+            if (context.removed) return null;
+            if (isIdle(context, now)) {
+                evictContext(contextKey, context);
+                return null;
+            }
+            context.touch(now);
+        }
+        return context;
+    }
+
+    /**
+     * Drops the idle contexts and the least recently used ones over <code>maxContexts</code>. Only one thread evicts
+     * at a time, the threads that don't get the lock don't wait for it.
+     */
+    protected void evictContexts(long now, boolean exceeded) {
+        if (!exceeded && now - lastEviction < evictionInterval) return;
+        if (!evictionLock.tryLock()) return;
+        try {
+            lastEviction = now;
+
+            List<Map.Entry<String, Context>> entries = new ArrayList<Map.Entry<String, Context>>();
+            for (Map.Entry<String, Context> entry : contexts.entrySet()) {
+                if (isIdle(entry.getValue(), now)) evictContext(entry.getKey(), entry.getValue());
+                else entries.add(entry);
+            }
+
+            if (maxContexts <= 0 || entries.size() <= maxContexts) return;
+
+            // Evict some more than the exceeding contexts, so the contexts don't get sorted on every new one
+            int toEvict = entries.size() - maxContexts + maxContexts / 10;
+            Collections.sort(entries, new Comparator<Map.Entry<String, Context>>() {
+                public int compare(Map.Entry<String, Context> e1, Map.Entry<String, Context> e2) {
+                    long a1 = e1.getValue().accessOrder;
+                    long a2 = e2.getValue().accessOrder;
+                    return a1 < a2 ? -1 : (a1 == a2 ? 0 : 1);
+                }
+            });
+            for (int i = 0; i < toEvict; i++) {
+                evictContext(entries.get(i).getKey(), entries.get(i).getValue());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    protected boolean isIdle(Context context, long now) {
+        return maxIdleTime > 0 && now - context.lastAccess > maxIdleTime;
+    }
+
+    protected void evictContext(String contextKey, Context context) {
+        if (removeContext(contextKey, context)) {
+            if (log.isDebugEnabled()) log.debug("Evicting form statuses of context '" + contextKey + "'.");
+            evictedContexts.incrementAndGet();
+        }
+    }
+
+    protected boolean removeContext(String contextKey, Context context) {
+        synchronized (context) {
+            if (context.removed) return false;
+            context.removed = true;
+            contexts.remove(contextKey, context);
+            return true;
+        }
+    }
+
+    protected String[] splitKey(String key) {
+        List<String> parts = new ArrayList<String>();
+        int start = 0;
+        int index;
+        while ((index = key.indexOf(FormProcessor.NAMESPACE_SEPARATOR, start)) != -1) {
+            parts.add(key.substring(start, index));
+            start = index + FormProcessor.NAMESPACE_SEPARATOR.length();
+        }
+        parts.add(key.substring(start));
+        return parts.toArray(new String[parts.size()]);
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    protected class Context extends Node {
+        protected volatile long lastAccess;
+        protected volatile long accessOrder;
+        protected boolean removed;
+
+        protected void touch(long now) {
+            lastAccess = now;
+            accessOrder = accessCounter.incrementAndGet();
+        }
+
+        protected Node findNode(String[] parts) {
+            Node node = this;
+            for (int i = 1; i < parts.length && node != null; i++) {
+                node = node.getChild(parts[i]);
+            }
+            return node;
+        }
+    }
+
+    protected static class Node {
+        protected FormStatus status;
+        protected Map<String, Node> children;
+
+        protected Node getChild(String part) {
+            return children != null ? children.get(part) : null;
+        }
+
+        protected Node getOrCreateChild(String part) {
+            if (children == null) children = new HashMap<String, Node>();
+            Node child = children.get(part);
+            if (child == null) {
+                child = new Node();
+                children.put(part, child);
+            }
+            return child;
+        }
+
+        protected void collectStatuses(List<FormStatus> result) {
+            if (status != null) result.add(status);
+            if (children != null) {
+                for (Node child : children.values()) {
+                    child.collectStatuses(result);
+                }
+            }
+        }
+    }
+}
@@ -40,7 +40,7 @@ import java.io.Serializable;
 import java.util.*;
 
 @ApplicationScoped
-public class FormProcessorImpl implements FormProcessor, Serializable {
+public class FormProcessorImpl implements FormProcessor, ChangedFieldsTracker, Serializable {
 
     private Logger log = LoggerFactory.getLogger(FormProcessor.class);
 
@@ -160,9 +160,20 @@ public class FormProcessorImpl implements FormProcessor, Serializable {
     public void modify(Form form, String namespace, String fieldName, Object value) {
         FormStatus formStatus = getFormStatus(form, namespace);
         formStatus.getInputValues().put(fieldName, value);
+        formStatus.getChangedFields().add(fieldName);
         propagateChangesToParentFormStatuses(formStatus, fieldName, value);
     }
 
+    public Set<String> pollChangedFields(Form form, String namespace) {
+        Set<String> result = new HashSet<String>();
+        if (form != null) {
+            FormStatus formStatus = getFormStatus(form, StringUtils.defaultIfEmpty(namespace, DEFAULT_NAMESPACE));
+            result.addAll(formStatus.getChangedFields());
+            formStatus.getChangedFields().clear();
+        }
+        return result;
+    }
+
     public void setAttribute(Form form, String namespace, String attributeName, Object attributeValue) {
         if (form != null) {
             FormStatus formStatus = getFormStatus(form, namespace);
@@ -204,6 +215,7 @@ public class FormProcessorImpl implements FormProcessor, Serializable {
                 if (log.isDebugEnabled()) log.debug("Refusing to overwrite input value for parameter " + fieldName);
             } else {
                 formStatus.getInputValues().put(fieldName, value);
+                if (value == null ? previousValue != null : !value.equals(previousValue)) formStatus.getChangedFields().add(fieldName);
                 try {
                     propagateChangesToParentFormStatuses(formStatus, fieldName, value);
                 } catch (Exception e) {
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.api.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+import junit.framework.TestCase;
+import org.jbpm.formModeler.api.client.FormRenderContext;
+import org.jbpm.formModeler.api.model.wrappers.I18nSet;
+import org.junit.Test;
+
+public class FormDefinitionViewTest extends TestCase {
+
+    protected static final int CONTEXTS = 500;
+    protected static final int FIELDS = 40;
+
+    protected FieldType textType;
+    protected Form definition;
+
+    @Override
+    protected void setUp() throws Exception {
+        textType = new FieldType();
+        textType.setCode("InputText");
+        textType.setFieldClass(String.class.getName());
+
+        definition = new Form();
+        definition.setId(1l);
+        definition.setName("task");
+        definition.setFormFields(new TreeSet<Field>());
+        definition.setFormTemplate("<div>$field</div>");
+        for (int i = 0; i < FIELDS; i++) {
+            addField(definition, i);
+        }
+    }
+
+    @Test
+    public void testViewsShareTheDefinition() {
+        Form view = definition.copyView();
+        Form other = definition.copyView();
+
+        assertTrue(view.isSharingDefinition());
+        assertEquals(FIELDS, view.getFormFields().size());
+        assertSame(definition.getField("field0"), view.getField("field0"));
+        assertSame(definition.getFieldIndex(), view.getFieldIndex());
+        assertSame(definition.getFieldsSource(), view.getFieldsSource());
+        assertSame(definition.getFieldsSource(), other.getFieldsSource());
+
+        Object plan = new Object();
+        view.setRenderPlan("plan", plan);
+        assertSame(plan, other.getRenderPlan("plan"));
+        assertSame(plan, definition.getRenderPlan("plan"));
+
+        assertTrue(view.copyView().isSharingDefinition());
+        assertSame(definition.getFieldsSource(), view.copyView().getFieldsSource());
+    }
+
+    @Test
+    public void testModifiedViews() {
+        Form view = definition.copyView();
+        Form other = definition.copyView();
+
+        Field field = addField(view, FIELDS);
+        assertFalse(view.isSharingDefinition());
+        assertEquals(FIELDS + 1, view.getFormFields().size());
+        assertSame(field, view.getField(field.getFieldName()));
+        assertNotSame(definition.getFieldIndex(), view.getFieldIndex());
+        assertNotSame(definition.getFieldsSource(), view.getFieldsSource());
+
+        assertEquals(FIELDS, definition.getFormFields().size());
+        assertNull(definition.getField(field.getFieldName()));
+        assertTrue(other.isSharingDefinition());
+        assertNull(other.getField(field.getFieldName()));
+
+        view.setRenderPlan("plan", new Object());
+        assertNull(definition.getRenderPlan("plan"));
+
+        for (Iterator<Field> it = other.getFormFields().iterator(); it.hasNext();) {
+            if ("field0".equals(it.next().getFieldName())) it.remove();
+        }
+        assertEquals(FIELDS - 1, other.getFormFields().size());
+        assertNull(other.getField("field0"));
+        assertNotNull(definition.getField("field0"));
+    }
+
+    @Test
+    public void testModifiedTemplate() {
+        Form view = definition.copyView();
+        view.setFormTemplate("<span>$field</span>");
+
+        assertEquals("<span>$field</span>", view.getFormTemplate());
+        assertEquals("<div>$field</div>", definition.getFormTemplate());
+        assertEquals("<div>$field</div>", definition.copyView().getFormTemplate());
+        assertTrue(view.isSharingDefinition());
+    }
+
+    @Test
+    public void testSerializedView() throws Exception {
+        Form view = (Form) copy(definition.copyView());
+
+        assertFalse(view.isSharingDefinition());
+        assertEquals(FIELDS, view.getFormFields().size());
+        assertEquals("field1", view.getField("field1").getFieldName());
+        assertEquals("<div>$field</div>", view.getFormTemplate());
+    }
+
+    /**
+     * Concurrent render contexts of the same form keep views of a single definition instead of their own form graphs.
+     */
+    @Test
+    public void testContextsShareTheDefinition() {
+        List<FormRenderContext> contexts = new ArrayList<FormRenderContext>();
+        for (int i = 0; i < CONTEXTS; i++) {
+            Form form = definition.copyView();
+            form.getFieldIndex();
+            contexts.add(new FormRenderContext("ctx" + i, form, new HashMap<String, Object>(), new HashMap<String, Object>()));
+        }
+
+        Field field = definition.getField("field" + (FIELDS - 1));
+        for (FormRenderContext context : contexts) {
+            Form form = context.getForm();
+            assertNotSame(definition, form);
+            assertTrue(form.isSharingDefinition());
+            assertSame(definition.getFieldIndex(), form.getFieldIndex());
+            assertSame(definition.getFieldsSource(), form.getFieldsSource());
+            assertSame(field, form.getField(field.getFieldName()));
+        }
+    }
+
+    protected Field addField(Form form, int i) {
+        Field field = new Field();
+        field.setId((long) i);
+        field.setFieldName("field" + i);
+        field.setFieldType(textType);
+        field.setPosition(i);
+        field.setForm(form);
+        I18nSet label = new I18nSet();
+        label.setValue("en", "Field " + i);
+        field.setLabel(label);
+        form.getFormFields().add(field);
+        return field;
+    }
+
+    protected Object copy(Object o) throws Exception {
+        return deserialize(serialize(o));
+    }
+
+    protected byte[] serialize(Object o) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        oos.writeObject(o);
+        oos.close();
+        return bos.toByteArray();
+    }
+
+    protected Object deserialize(byte[] bytes) throws Exception {
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+        try {
+            return ois.readObject();
+        } finally {
+            ois.close();
+        }
+    }
+}
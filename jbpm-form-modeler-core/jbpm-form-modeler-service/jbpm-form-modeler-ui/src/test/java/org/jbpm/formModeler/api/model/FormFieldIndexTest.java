@@ -0,0 +1,195 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.api.model;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.TreeSet;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FormFieldIndexTest extends TestCase {
+
+    protected Form form;
+    protected DataHolder invoice;
+    protected DataHolder client;
+
+    @Override
+    protected void setUp() throws Exception {
+        form = new Form();
+        form.setId(1l);
+        form.setFormFields(new TreeSet<Field>());
+        form.setHolders(new LinkedHashSet<DataHolder>());
+
+        invoice = mockHolder("invoice");
+        client = mockHolder("client");
+        form.setDataHolder(invoice);
+        form.setDataHolder(client);
+
+        addField("number", "invoice/number", "invoice/number");
+        addField("name", "client/name", null);
+        addField("notes", null, null);
+    }
+
+    @Test
+    public void testFieldsByName() {
+        assertSame(form.getField("name"), form.getFieldIndex().getField("name"));
+        assertEquals("number", form.getField("number").getFieldName());
+        assertTrue(form.containsFormField("notes"));
+        assertFalse(form.containsFormField("unknown"));
+        assertNull(form.getField("unknown"));
+        assertNull(form.getField(null));
+    }
+
+    @Test
+    public void testBindings() {
+        assertSame(invoice, form.getDataHolderByField(form.getField("number")));
+        assertSame(client, form.getDataHolderByField(form.getField("name")));
+        assertNull(form.getDataHolderByField(form.getField("notes")));
+
+        assertSame(client, form.getDataHolderFromInputExpression("client/name"));
+        assertNull(form.getDataHolderFromOutputExpression("client/name"));
+        assertSame(client, form.getDataHolderFromInputExpression("client/address"));
+
+        assertTrue(form.isFieldBinded(invoice, "number"));
+        assertTrue(form.isFieldBinded(client, "name"));
+        assertFalse(form.isFieldBinded(client, "address"));
+    }
+
+    @Test
+    public void testIndexIsRebuiltOnChanges() {
+        FormFieldIndex index = form.getFieldIndex();
+        assertSame(index, form.getFieldIndex());
+
+        form.getField("notes").setFieldName("comments");
+        assertNull(form.getField("notes"));
+        assertNotNull(form.getField("comments"));
+
+        addField("address", "client/address", null);
+        assertNotNull(form.getField("address"));
+        assertTrue(form.isFieldBinded(client, "address"));
+
+        form.getField("address").setInputBinding(null);
+        assertFalse(form.isFieldBinded(client, "address"));
+
+        form.removeDataHolder("client");
+        assertNull(form.getDataHolderByField(form.getField("name")));
+        assertNotSame(index, form.getFieldIndex());
+    }
+
+    @Test
+    public void testIndexIsRebuiltWhenSetsAreModifiedDirectly() {
+        FormFieldIndex index = form.getFieldIndex();
+        long modificationCount = form.getModificationCount();
+
+        // Same set and same size, but a different field
+        form.getFormFields().remove(form.getField("notes"));
+        addField("comments", null, null);
+        assertEquals(3, form.getFormFields().size());
+        assertTrue(form.getModificationCount() > modificationCount);
+        assertNull(form.getField("notes"));
+        assertNotNull(form.getField("comments"));
+        assertNotSame(index, form.getFieldIndex());
+
+        index = form.getFieldIndex();
+        for (Iterator<Field> it = form.getFormFields().iterator(); it.hasNext();) {
+            if ("comments".equals(it.next().getFieldName())) it.remove();
+        }
+        addField("notes", null, null);
+        assertNull(form.getField("comments"));
+        assertNotSame(index, form.getFieldIndex());
+
+        index = form.getFieldIndex();
+        form.getHolders().remove(client);
+        form.getHolders().add(mockHolder("customer"));
+        assertEquals(2, form.getHolders().size());
+        assertNull(form.getDataHolderByField(form.getField("name")));
+        assertNotSame(index, form.getFieldIndex());
+    }
+
+    @Test
+    public void testModificationCountOfViews() {
+        Form view = form.copyView();
+        assertEquals(form.getModificationCount(), view.getModificationCount());
+        assertSame(form.getFieldIndex(), view.getFieldIndex());
+
+        long modificationCount = form.getModificationCount();
+        Field field = new Field();
+        field.setId(10L);
+        field.setPosition(10);
+        field.setFieldName("viewField");
+        view.getFormFields().add(field);
+
+        assertEquals(modificationCount, form.getModificationCount());
+        assertNull(form.getField("viewField"));
+        assertNotNull(view.getField("viewField"));
+
+        // Replaced sets never take the count back, so an index of the old set can't be taken as current
+        modificationCount = form.getModificationCount();
+        form.setFormFields(new TreeSet<Field>());
+        assertTrue(form.getModificationCount() > modificationCount);
+        assertNull(form.getField("name"));
+    }
+
+    protected DataHolder mockHolder(final String id) {
+        DataHolder holder = mock(DataHolder.class);
+        when(holder.getUniqeId()).thenReturn(id);
+        when(holder.getInputId()).thenReturn(id);
+        when(holder.getOuputId()).thenReturn(id);
+        when(holder.getInputBinding(anyString())).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) throws Throwable {
+                return id + "/" + invocation.getArguments()[0];
+            }
+        });
+        when(holder.getOuputBinding(anyString())).thenReturn("");
+        when(holder.containsInputBinding(anyString())).thenAnswer(new StartsWithAnswer(id));
+        when(holder.containsBinding(anyString())).thenAnswer(new StartsWithAnswer(id));
+        return holder;
+    }
+
+    protected Field addField(String name, String inputBinding, String outputBinding) {
+        Field field = new Field();
+        field.setId((long) form.getFormFields().size());
+        field.setPosition(form.getFormFields().size());
+        field.setFieldName(name);
+        field.setInputBinding(inputBinding);
+        field.setOutputBinding(outputBinding);
+        field.setForm(form);
+        form.getFormFields().add(field);
+        return field;
+    }
+
+    protected static class StartsWithAnswer implements Answer<Boolean> {
+        private String id;
+
+        protected StartsWithAnswer(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public Boolean answer(InvocationOnMock invocation) throws Throwable {
+            String binding = (String) invocation.getArguments()[0];
+            return binding != null && binding.startsWith(id + "/");
+        }
+    }
+}
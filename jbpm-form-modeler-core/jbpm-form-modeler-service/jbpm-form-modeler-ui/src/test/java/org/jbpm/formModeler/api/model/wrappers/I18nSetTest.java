@@ -0,0 +1,189 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.api.model.wrappers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import org.jbpm.formModeler.core.wrappers.HTMLi18n;
+import org.jbpm.formModeler.core.xml.util.Base64;
+import org.junit.Test;
+
+public class I18nSetTest extends TestCase {
+
+    // {en=Name, es=Nombre} serialized when the set was backed by a TreeSet of I18nEntryImpl
+    protected static final String TREE_SET_SERIALIZATION = "rO0ABXNyAC9vcmcuamJwbS5mb3JtTW9kZWxlci5hcGkubW9kZWwud3JhcHBlcnMuSTE4blNldBTOgePQtTp/AgABTAAIZW50cnlTZXR0ABNMamF2YS91dGlsL1RyZWVTZXQ7eHBzcgARamF2YS51dGlsLlRyZWVTZXTdmFCTle2HWwMAAHhwc3IAO29yZy5qYnBtLmZvcm1Nb2RlbGVyLmFwaS5tb2RlbC53cmFwcGVycy5JMThuRW50cnlDb21wYXJhdG9yvwwyQWWTnh8CAAB4cHcEAAAAAnNyADVvcmcuamJwbS5mb3JtTW9kZWxlci5hcGkubW9kZWwud3JhcHBlcnMuSTE4bkVudHJ5SW1wbK8Gx5QKudnmAgACTAADbG5ndAASTGphdmEvbGFuZy9TdHJpbmc7TAADdmFsdAASTGphdmEvbGFuZy9PYmplY3Q7eHB0AAJlbnQABE5hbWVzcQB+AAd0AAJlc3QABk5vbWJyZXg=";
+
+    @Override
+    protected void setUp() throws Exception {
+        I18nSet.registerLanguages(new String[]{"en", "es", "ca", "fr"});
+    }
+
+    @Test
+    public void testValues() {
+        I18nSet set = new I18nSet();
+        assertTrue(set.isEmpty());
+
+        set.setValue("es", "Nombre");
+        set.setValue("en", "Name");
+        set.setValue("es", "Nombre completo");
+        assertEquals(2, set.size());
+        assertEquals("Name", set.getValue("en"));
+        assertEquals("Nombre completo", set.get("es"));
+        assertNull(set.getValue("fr"));
+        assertNull(set.getValue("xx"));
+        assertFalse(set.containsKey("fr"));
+
+        set.setValue("fr", null);
+        assertEquals(3, set.size());
+        assertTrue(set.containsKey("fr"));
+        assertNull(set.getValue("fr"));
+
+        assertEquals("Name", set.remove("en"));
+        assertEquals(2, set.size());
+        assertNull(set.getValue("en"));
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertNull(set.getValue("es"));
+    }
+
+    @Test
+    public void testLanguagesOutOfTheInstalledOnes() {
+        I18nSet set = new I18nSet();
+        set.setValue("zz_TEST", "Test");
+        set.setValue("es", "Prueba");
+        set.setValue("aa", null);
+        assertFalse(I18nSet.isRegisteredLanguage("zz_TEST"));
+        assertEquals(3, set.size());
+        assertEquals("Test", set.getValue("zz_TEST"));
+        assertTrue(set.containsKey("aa"));
+        assertEquals("[aa, es, zz_TEST]", langs(set).toString());
+        assertEquals("Test", new I18nSet(set.entrySet()).getValue("zz_TEST"));
+
+        for (Iterator it = set.iterator(); it.hasNext();) {
+            if ("aa".equals(((I18nEntry) it.next()).getLang())) it.remove();
+        }
+        assertEquals("Test", set.remove("zz_TEST"));
+        assertEquals(1, set.size());
+        assertEquals("[es]", langs(set).toString());
+    }
+
+    @Test
+    public void testLanguagesRegisteredAfterTheValues() {
+        I18nSet set = new I18nSet();
+        set.setValue("zz_LATE", "Late");
+        I18nSet.registerLanguages(new String[]{"zz_LATE"});
+
+        assertEquals("Late", set.getValue("zz_LATE"));
+        set.setValue("zz_LATE", "Later");
+        assertEquals(1, set.size());
+        assertEquals("Later", set.getValue("zz_LATE"));
+        assertEquals("[zz_LATE]", langs(set).toString());
+    }
+
+    @Test
+    public void testEntriesOrderedByLanguage() {
+        I18nSet set = new I18nSet();
+        set.setValue("fr", "Nom");
+        set.setValue("en", "Name");
+        set.setValue("ca", "Nom");
+        set.setValue("es", "Nombre");
+
+        assertEquals("[ca, en, es, fr]", langs(set).toString());
+        assertEquals("{ca=Nom, en=Name, es=Nombre, fr=Nom}", set.toString());
+    }
+
+    @Test
+    public void testEntries() {
+        I18nSet set = new I18nSet();
+        set.setValue("en", "Name");
+        set.setValue("es", "Nombre");
+
+        assertFalse(set.add(new I18nEntryImpl("en", "Other")));
+        assertEquals("Name", set.getValue("en"));
+        assertTrue(set.add(new I18nEntryImpl("fr", "Nom")));
+        assertFalse(set.add("fr"));
+
+        for (Iterator it = set.iterator(); it.hasNext();) {
+            I18nEntry entry = (I18nEntry) it.next();
+            if ("en".equals(entry.getLang())) entry.setValue("First name");
+            if ("fr".equals(entry.getLang())) it.remove();
+        }
+        assertEquals("First name", set.getValue("en"));
+        assertEquals("[en, es]", langs(set).toString());
+
+        Map<String, String> values = new HashMap<String, String>();
+        values.put("en", "First name");
+        values.put("es", "Nombre");
+        assertEquals(new I18nSet(values), set);
+        assertEquals(new HTMLi18n(values), set);
+        assertEquals(values, set);
+        assertEquals(values.hashCode(), set.hashCode());
+    }
+
+    @Test
+    public void testReadTreeSetSerialization() throws Exception {
+        I18nSet set = (I18nSet) deserialize(Base64.decode(TREE_SET_SERIALIZATION));
+        assertEquals(2, set.size());
+        assertEquals("Name", set.getValue("en"));
+        assertEquals("Nombre", set.getValue("es"));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        I18nSet set = new HTMLi18n();
+        set.setValue("es", "<b>Nombre</b>");
+        set.setValue("en", "<b>Name</b>");
+        set.setValue("fr", null);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        oos.writeObject(set);
+        oos.close();
+
+        I18nSet copy = (I18nSet) deserialize(bos.toByteArray());
+        assertTrue(copy instanceof HTMLi18n);
+        assertEquals(3, copy.size());
+        assertEquals("<b>Name</b>", copy.getValue("en"));
+        assertTrue(copy.containsKey("fr"));
+        assertEquals("[en, es, fr]", langs(copy).toString());
+    }
+
+    protected Object deserialize(byte[] bytes) throws Exception {
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+        try {
+            return ois.readObject();
+        } finally {
+            ois.close();
+        }
+    }
+
+    protected List<String> langs(I18nSet set) {
+        List<String> langs = new ArrayList<String>();
+        for (Iterator it = set.iterator(); it.hasNext();) {
+            langs.add(((I18nEntry) it.next()).getLang());
+        }
+        return langs;
+    }
+}
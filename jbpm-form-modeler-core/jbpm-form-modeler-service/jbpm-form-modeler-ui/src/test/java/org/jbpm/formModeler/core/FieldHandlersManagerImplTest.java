@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import org.jbpm.formModeler.api.model.FieldType;
+import org.jbpm.formModeler.core.config.FieldTypeManager;
+import org.jbpm.formModeler.core.processing.FieldHandler;
+import org.jbpm.formModeler.core.processing.fieldHandlers.InputTextFieldHandler;
+import org.jbpm.formModeler.core.processing.fieldHandlers.NumericFieldHandler;
+import org.jbpm.formModeler.core.processing.formDecorators.Separator;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FieldHandlersManagerImplTest extends TestCase {
+
+    protected Map<String, FieldHandler> beans = new HashMap<String, FieldHandler>();
+    protected List<String> lookups = new ArrayList<String>();
+
+    protected FieldHandlersManagerImpl manager;
+
+    @Override
+    protected void setUp() throws Exception {
+        beans.put(InputTextFieldHandler.class.getName(), new InputTextFieldHandler());
+        beans.put(NumericFieldHandler.class.getName(), new NumericFieldHandler());
+        beans.put(Separator.class.getName(), new Separator());
+
+        FieldTypeManager fieldTypeManager = mock(FieldTypeManager.class);
+        when(fieldTypeManager.getFieldTypes()).thenReturn(Arrays.asList(newType("InputText", InputTextFieldHandler.class.getName())));
+        when(fieldTypeManager.getFormDecoratorTypes()).thenReturn(Arrays.asList(newType("Separator", Separator.class.getName())));
+        when(fieldTypeManager.getFormComplexTypes()).thenReturn(new ArrayList<FieldType>());
+
+        manager = new FieldHandlersManagerImpl() {
+            @Override
+            protected FieldHandler resolveHandler(String handlerClass) {
+                lookups.add(handlerClass);
+                return beans.get(handlerClass);
+            }
+        };
+        manager.fieldTypeManager = fieldTypeManager;
+        manager.init();
+    }
+
+    @Test
+    public void testHandlersAreResolvedAtStartup() {
+        assertEquals(Arrays.asList(InputTextFieldHandler.class.getName(), Separator.class.getName()), lookups);
+        assertEquals(2, manager.getHandlerCacheMisses());
+
+        FieldHandler handler = manager.getHandler(newType("InputText", InputTextFieldHandler.class.getName()));
+        assertSame(beans.get(InputTextFieldHandler.class.getName()), handler);
+        assertSame(handler, manager.getHandler(newType("InputText", InputTextFieldHandler.class.getName())));
+        assertEquals(2, manager.getHandlerCacheMisses());
+    }
+
+    @Test
+    public void testLateTypesAreResolvedOnce() {
+        FieldType numeric = newType("InputTextInteger", NumericFieldHandler.class.getName());
+        assertSame(beans.get(NumericFieldHandler.class.getName()), manager.getHandler(numeric));
+        assertSame(beans.get(NumericFieldHandler.class.getName()), manager.getHandler(numeric));
+        assertEquals(3, manager.getHandlerCacheMisses());
+
+        FieldType unknown = newType("Unknown", "org.jbpm.UnknownHandler");
+        assertNull(manager.getHandler(unknown));
+        assertNull(manager.getHandler(unknown));
+        assertEquals(4, manager.getHandlerCacheMisses());
+
+        assertNull(manager.getHandler(null));
+        assertNull(manager.getHandler(newType("Empty", "")));
+    }
+
+    @Test
+    public void testRefresh() {
+        manager.getHandler(newType("InputTextInteger", NumericFieldHandler.class.getName()));
+        lookups.clear();
+
+        manager.refreshHandlers();
+
+        assertEquals(Arrays.asList(InputTextFieldHandler.class.getName(), Separator.class.getName()), lookups);
+    }
+
+    protected FieldType newType(String code, String managerClass) {
+        FieldType type = new FieldType();
+        type.setCode(code);
+        type.setManagerClass(managerClass);
+        return type;
+    }
+}
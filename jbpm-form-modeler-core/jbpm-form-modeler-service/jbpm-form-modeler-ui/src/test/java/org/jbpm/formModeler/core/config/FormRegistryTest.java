@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.core.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+import org.jbpm.formModeler.api.model.Form;
+import org.junit.Test;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+public class FormRegistryTest extends TestCase {
+
+    protected static final int MANY_FORMS = 2000;
+
+    protected FormRegistry registry;
+
+    @Override
+    protected void setUp() throws Exception {
+        registry = new FormRegistry();
+    }
+
+    @Test
+    public void testLookups() {
+        Form invoice = createForm(1L, "invoices", "invoice");
+        Form lines = createForm(2L, "invoices", "lines");
+        Form other = createForm(3L, "invoices", "invoice");
+
+        assertTrue(registry.add(invoice));
+        assertTrue(registry.add(lines));
+        assertTrue(registry.add(other));
+        assertFalse(registry.add(createForm(1L, "duplicated", "duplicated")));
+        assertFalse(registry.add(null));
+        assertFalse(registry.add(new Form()));
+
+        assertEquals(3, registry.size());
+        assertSame(invoice, registry.getById(1L));
+        assertNull(registry.getById(null));
+        assertNull(registry.getById(4L));
+        assertEquals(3, registry.getBySubject("invoices").size());
+        assertEquals(2, registry.getBySubjectAndName("invoices", "invoice").size());
+        assertTrue(registry.getBySubjectAndName("invoices", "invoice").contains(other));
+        assertTrue(registry.getBySubject("duplicated").isEmpty());
+        assertTrue(registry.getBySubjectAndName("invoices", "unknown").isEmpty());
+
+        // The results are copies, the registry isn't modified through them
+        registry.getBySubject("invoices").clear();
+        assertEquals(3, registry.getBySubject("invoices").size());
+    }
+
+    @Test
+    public void testFieldEditionForms() {
+        Form inputText = createForm(1L, null, "InputText");
+        Form inputTextPattern = createForm(2L, null, "InputText.*");
+        Form wrongPattern = createForm(3L, null, "Input[Text");
+
+        registry.add(inputTextPattern);
+        registry.add(wrongPattern);
+
+        assertSame(inputTextPattern, registry.getByFieldTypeCode("InputTextInteger"));
+        assertSame(inputTextPattern, registry.getByFieldTypeCode("InputText"));
+        assertSame(wrongPattern, registry.getByFieldTypeCode("Input[Text"));
+        assertNull(registry.getByFieldTypeCode("CheckBox"));
+
+        // Resolved codes are forgotten when a form is added, the form named as the code wins over the patterns
+        registry.add(inputText);
+        assertSame(inputText, registry.getByFieldTypeCode("InputText"));
+        assertSame(inputTextPattern, registry.getByFieldTypeCode("InputTextInteger"));
+
+        registry.add(createForm(4L, null, "Check.*"));
+        assertNotNull(registry.getByFieldTypeCode("CheckBox"));
+    }
+
+    @Test
+    public void testPatternsArePrecompiled() {
+        List<Form> forms = new ArrayList<Form>();
+        for (int i = 0; i < MANY_FORMS; i++) {
+            Form form = spy(createForm((long) i, "subject" + (i % 10), "Type" + i + "(Pattern)?"));
+            forms.add(form);
+            registry.add(form);
+        }
+        reset(forms.toArray());
+
+        for (int lookup = 0; lookup < 10; lookup++) {
+            for (int i = 0; i < MANY_FORMS; i += 100) {
+                assertSame(forms.get(i), registry.getById((long) i));
+                assertSame(forms.get(i), registry.getByFieldTypeCode("Type" + i + "Pattern"));
+            }
+            assertNull(registry.getByFieldTypeCode("Unknown"));
+        }
+        assertEquals(MANY_FORMS / 10, registry.getBySubject("subject0").size());
+        assertEquals(1, registry.getBySubjectAndName("subject0", "Type0(Pattern)?").size());
+
+        // Names are only read and compiled on registration, lookups use the pattern table and the resolved codes
+        for (Form form : forms) {
+            verify(form, never()).getName();
+        }
+    }
+
+    @Test
+    public void testConcurrentAdditionsAndLookups() throws Exception {
+        final int threadsCount = 8;
+        final int formsPerThread = 250;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<String> errors = Collections.synchronizedList(new ArrayList<String>());
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < threadsCount; t++) {
+            final int thread = t;
+            threads.add(new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < formsPerThread; i++) {
+                            long id = thread * formsPerThread + i;
+                            Form form = createForm(id, "subject" + thread, "Type" + id + "(Code)?");
+                            if (!registry.add(form)) errors.add("Form " + id + " not added");
+                            if (registry.getById(id) != form) errors.add("Form " + id + " not found by id");
+                            if (registry.getByFieldTypeCode("Type" + id + "Code") != form) errors.add("Form " + id + " not found by code");
+                            registry.getByFieldTypeCode("Type" + (id + 1) + "Code");
+                        }
+                    } catch (InterruptedException e) {
+                        errors.add(e.getMessage());
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) thread.start();
+        start.countDown();
+        for (Thread thread : threads) thread.join(TimeUnit.SECONDS.toMillis(30));
+
+        assertEquals(Collections.emptyList(), errors);
+        assertEquals(threadsCount * formsPerThread, registry.size());
+        assertEquals(threadsCount * formsPerThread, registry.getAll().length);
+        for (int t = 0; t < threadsCount; t++) {
+            assertEquals(formsPerThread, registry.getBySubject("subject" + t).size());
+        }
+
+        // Codes looked up before their form was added by another thread are resolved again
+        for (long id = 0; id < threadsCount * formsPerThread; id++) {
+            assertSame(registry.getById(id), registry.getByFieldTypeCode("Type" + id + "Code"));
+        }
+    }
+
+    protected Form createForm(Long id, String subject, String name) {
+        Form form = new Form();
+        form.setId(id);
+        form.setSubject(subject);
+        form.setName(name);
+        return form;
+    }
+}
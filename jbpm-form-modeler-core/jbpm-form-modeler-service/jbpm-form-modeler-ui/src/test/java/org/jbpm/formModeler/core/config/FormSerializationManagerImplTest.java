@@ -0,0 +1,233 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.core.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import junit.framework.TestCase;
+import org.apache.commons.io.IOUtils;
+import org.apache.xerces.parsers.DOMParser;
+import org.jboss.weld.environment.se.Weld;
+import org.jboss.weld.environment.se.WeldContainer;
+import org.jbpm.formModeler.api.model.Field;
+import org.jbpm.formModeler.api.model.Form;
+import org.jbpm.formModeler.api.model.wrappers.I18nSet;
+import org.jbpm.formModeler.core.model.BasicTypeDataHolder;
+import org.jbpm.formModeler.core.xml.util.XMLNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+
+/**
+ * Checks the streaming serializer and deserializer against the DOM based deserializer.
+ */
+public class FormSerializationManagerImplTest extends TestCase {
+    protected static final String[] CORE_FORMS = new String[] {"default", "InputText", "InputTextArea", "InputDate",
+            "CheckBox", "HTMLLabel", "HTMLEditor", "Separator", "Subform", "MultipleSubform", "MultipleInput", "SelectBox"};
+    protected static final String[] ALL_CORE_FORMS = new String[] {"default", "CheckBox", "CheckBoxPrimitiveBoolean",
+            "CustomInput", "HTMLEditor", "HTMLLabel", "InputDate", "InputShortDate", "InputText", "InputTextArea",
+            "InputTextBigDecimal", "InputTextBigInteger", "InputTextByte", "InputTextCharacter", "InputTextDouble",
+            "InputTextEmail", "InputTextFloat", "InputTextInteger", "InputTextLong", "InputTextPrimitiveByte",
+            "InputTextPrimitiveCharacter", "InputTextPrimitiveDouble", "InputTextPrimitiveFloat",
+            "InputTextPrimitiveInteger", "InputTextPrimitiveLong", "InputTextPrimitiveShort", "InputTextShort",
+            "MultipleInput", "MultipleSubform", "RadioGroup", "SelectBox", "Separator", "Subform"};
+    protected static final Pattern GOLDEN_TOKEN = Pattern.compile("<(?:form|field|dataHolder)\\b[^>]*?(?=/?>)|<property name=\"([^\"]*)\" value=\"([^\"]*)\"");
+
+    protected Weld weld;
+    protected WeldContainer weldContainer;
+
+    protected FormSerializationManagerImpl serializationManager;
+    protected FieldTypeManager fieldTypeManager;
+
+    @Before
+    public void setUp() {
+        weld = new Weld();
+        weldContainer = weld.initialize();
+
+        serializationManager = (FormSerializationManagerImpl) weldContainer.instance().select(FormSerializationManager.class).get();
+        fieldTypeManager = weldContainer.instance().select(FieldTypeManager.class).get();
+    }
+
+    @After
+    public void tearDown() {
+        if (weld != null) {
+            weld.shutdown();
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Form form = new Form();
+        form.setId(1234l);
+        form.setName("invoice");
+        form.setSubject("Invoice <draft>");
+        form.setDisplayMode("template");
+        form.setStatus(0l);
+        form.setFormTemplate("<table><tr><td>$field/name/input$</td></tr></table>");
+        form.setFormFields(new TreeSet<Field>());
+
+        addField(form, 1l, "name", "InputText");
+        Field total = addField(form, 2l, "total", "InputTextDouble");
+        total.setFormula("={amount} * {price} - \"discount\"");
+        total.setReadonly(Boolean.TRUE);
+        total.setSize(10l);
+        Field notes = addField(form, 3l, "notes", "InputTextArea");
+        notes.setCssStyle("width: 100%; font-family: 'Courier'");
+        notes.setRangeFormula("{a,b;c,d}");
+
+        form.setDataHolder(new BasicTypeDataHolder("name", "name", "name", "java.lang.String", "#FF0000"));
+
+        String xml = serializationManager.generateFormXML(form);
+        Form streamed = serializationManager.loadFormFromXML(xml);
+
+        assertEquals(xml, serializationManager.generateFormXML(streamed));
+        assertEquals(xml, serializationManager.generateFormXML(loadFormFromDOM(new InputSource(new StringReader(xml)), null)));
+        assertEquals(3, streamed.getFormFields().size());
+        assertEquals(1, streamed.getHolders().size());
+        assertEquals("Name es", streamed.getField("name").getLabel().getValue("es"));
+    }
+
+    @Test
+    public void testCoreForms() throws Exception {
+        for (String formName : CORE_FORMS) {
+            String formPath = "org/jbpm/formModeler/core/forms/" + formName + ".form";
+
+            Form streamed = serializationManager.loadFormFromXML(getResourceAsStream(formPath), getFormResources());
+            Form dom = loadFormFromDOM(new InputSource(getResourceAsStream(formPath)), getFormResources());
+
+            assertNotNull(formPath, streamed);
+            assertEquals(formPath, serializationManager.generateFormXML(dom), serializationManager.generateFormXML(streamed));
+            for (Field field : dom.getFormFields()) {
+                Field streamedField = streamed.getField(field.getFieldName());
+                assertEquals(formPath, field.getLabel(), streamedField.getLabel());
+                assertEquals(formPath, field.getTitle(), streamedField.getTitle());
+            }
+        }
+    }
+
+    /**
+     * Writes back every bundled core form and compares it with the stored file. The form, field and data holder
+     * elements must keep their attributes in the stored order, and the properties with a value must be written again
+     * in the same order. Empty properties are not written, and the field class comes from the field type.
+     */
+    @Test
+    public void testCoreFormsGolden() throws Exception {
+        for (String formName : ALL_CORE_FORMS) {
+            String formPath = "org/jbpm/formModeler/core/forms/" + formName + ".form";
+            String stored = IOUtils.toString(getResourceAsStream(formPath), "UTF-8");
+
+            String written = serializationManager.generateFormXML(serializationManager.loadFormFromXML(stored));
+
+            assertEquals(formPath, getGoldenTokens(stored), getGoldenTokens(written));
+            assertEquals(formPath, written, serializationManager.generateFormXML(serializationManager.loadFormFromXML(written)));
+
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            serializationManager.generateFormXML(serializationManager.loadFormFromXML(stored), os);
+            assertEquals(formPath, written, os.toString("UTF-8"));
+        }
+    }
+
+    @Test
+    public void testDataHolderAttributesOrder() throws Exception {
+        Form form = new Form();
+        form.setId(1l);
+        form.setFormFields(new TreeSet<Field>());
+        BasicTypeDataHolder holder = new BasicTypeDataHolder("name", "input", "output", "java.lang.String", "#FF0000");
+        form.setDataHolder(holder);
+
+        assertEquals("\n<form id=\"1\">\n<dataHolder name=\"#FF0000\" type=\"" + holder.getTypeCode() + "\" value=\"" + holder.getInfo()
+                + "\" id=\"name\" inputId=\"input\" outId=\"output\"/>\n</form>", serializationManager.generateFormXML(form));
+    }
+
+    @Test
+    public void testXMLNodeSerialization() throws Exception {
+        for (String formName : CORE_FORMS) {
+            String formPath = "org/jbpm/formModeler/core/forms/" + formName + ".form";
+            Form form = serializationManager.loadFormFromXML(getResourceAsStream(formPath), getFormResources());
+            form.setDataHolder(new BasicTypeDataHolder("name", "name", "name", "java.lang.String", "#FF0000"));
+
+            XMLNode rootNode = new XMLNode(FormSerializationManagerImpl.NODE_FORM, null);
+            String xml = serializationManager.generateFormXML(form, rootNode);
+
+            assertEquals(formPath, form.getId().toString(), rootNode.getAttributes().getProperty(FormSerializationManagerImpl.ATTR_ID));
+            assertEquals(formPath, serializationManager.generateFormXML(form), serializationManager.generateFormXML(serializationManager.loadFormFromXML(xml)));
+        }
+    }
+
+    @Test
+    public void testEmptyDocuments() throws Exception {
+        assertNull(serializationManager.loadFormFromXML(""));
+        assertNull(serializationManager.loadFormFromXML("<forms/>"));
+    }
+
+    protected Form loadFormFromDOM(InputSource source, Map<String, Properties> resources) throws Exception {
+        DOMParser parser = new DOMParser();
+        parser.parse(source);
+        return serializationManager.deserializeForm(parser.getDocument().getElementsByTagName(FormSerializationManagerImpl.NODE_FORM).item(0), null, resources);
+    }
+
+    protected Map<String, Properties> getFormResources() throws Exception {
+        Map<String, Properties> resources = new HashMap<String, Properties>();
+        for (String lang : new String[] {"", "_es", "_ca"}) {
+            Properties props = new Properties();
+            props.load(getResourceAsStream("org/jbpm/formModeler/core/forms/forms-resources" + lang + ".properties"));
+            resources.put(lang.length() == 0 ? "default" : lang.substring(1), props);
+        }
+        return resources;
+    }
+
+    /**
+     * The form, field and data holder start tags, and the properties that have a value, in document order.
+     */
+    protected List<String> getGoldenTokens(String xml) {
+        List<String> tokens = new ArrayList<String>();
+        Matcher matcher = GOLDEN_TOKEN.matcher(xml);
+        while (matcher.find()) {
+            if (matcher.group(1) != null && (matcher.group(2).length() == 0 || "fieldClass".equals(matcher.group(1)))) continue;
+            tokens.add(matcher.group());
+        }
+        return tokens;
+    }
+
+    protected InputStream getResourceAsStream(String path) {
+        return Thread.currentThread().getContextClassLoader().getResourceAsStream(path);
+    }
+
+    protected Field addField(Form form, Long id, String name, String typeCode) {
+        Field field = new Field();
+        field.setId(id);
+        field.setPosition(form.getFormFields().size());
+        field.setFieldName(name);
+        field.setFieldType(fieldTypeManager.getTypeByCode(typeCode));
+        I18nSet label = new I18nSet();
+        label.setValue("en", "Name & <surname>");
+        label.setValue("es", "Name es");
+        field.setLabel(label);
+        field.setForm(form);
+        form.getFormFields().add(field);
+        return field;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.core.model;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+public class PojoAccessorsTest extends TestCase {
+
+    protected static final int ITERATIONS = 1000;
+
+    @Test
+    public void testReadAndWrite() throws Exception {
+        PojoAccessors accessors = PojoAccessors.forClass(Invoice.class);
+        assertSame(accessors, PojoAccessors.forClass(Invoice.class));
+
+        Invoice invoice = (Invoice) accessors.newInstance();
+        accessors.setValue(invoice, "name", "invoice");
+        accessors.setValue(invoice, "amount", 3);
+        accessors.setValue(invoice, "paid", Boolean.TRUE);
+
+        assertEquals("invoice", invoice.getName());
+        assertEquals("invoice", accessors.getValue(invoice, "name"));
+        assertEquals(3, accessors.getValue(invoice, "amount"));
+        assertEquals(Boolean.TRUE, accessors.getValue(invoice, "paid"));
+
+        accessors.setValue(invoice, "name", null);
+        assertNull(accessors.getValue(invoice, "name"));
+    }
+
+    @Test
+    public void testMissingProperties() throws Exception {
+        PojoAccessors accessors = PojoAccessors.forClass(Invoice.class);
+        try {
+            accessors.getValue(new Invoice(), "unknown");
+            fail("Read of an unknown property");
+        } catch (NoSuchMethodException e) {
+        }
+        try {
+            accessors.setValue(new Invoice(), "unknown", "value");
+            fail("Write of an unknown property");
+        } catch (NoSuchFieldException e) {
+        }
+        assertNull(PojoAccessors.forClass(Integer.class).newInstance());
+    }
+
+    @Test
+    public void testProperties() throws Exception {
+        PojoAccessors accessors = PojoAccessors.forClass(Invoice.class);
+        List<PojoAccessors.Property> properties = accessors.getProperties();
+        assertSame(properties, accessors.getProperties());
+
+        Map<String, PojoAccessors.Property> byName = new HashMap<String, PojoAccessors.Property>();
+        for (PojoAccessors.Property property : properties) {
+            byName.put(property.getName(), property);
+        }
+        assertEquals(new HashSet<String>(Arrays.asList("name", "amount", "paid", "lines")), byName.keySet());
+        assertEquals("int", byName.get("amount").getClassName());
+        assertNull(byName.get("amount").getBag());
+        assertEquals(List.class.getName(), byName.get("lines").getClassName());
+        assertEquals(String.class.getName(), byName.get("lines").getBag());
+    }
+
+    @Test
+    public void testRelease() throws Exception {
+        PojoAccessors accessors = PojoAccessors.forClass(Invoice.class);
+        PojoAccessors.release(Invoice.class);
+        assertNotSame(accessors, PojoAccessors.forClass(Invoice.class));
+    }
+
+    @Test
+    public void testAccessorsAreResolvedOnce() throws Exception {
+        Invoice invoice = new Invoice();
+        CountingAccessors accessors = new CountingAccessors();
+        Method getter = Invoice.class.getMethod("getName");
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            accessors.setValue(invoice, "name", "invoice" + (i & 7));
+            assertEquals(getter.invoke(invoice), accessors.getValue(invoice, "name"));
+            assertEquals("invoice" + (i & 7), invoice.getName());
+        }
+
+        assertEquals(1, accessors.resolvedGetters);
+        assertEquals(1, accessors.resolvedSetters);
+    }
+
+    protected static class CountingAccessors extends PojoAccessors {
+        protected int resolvedGetters = 0;
+        protected int resolvedSetters = 0;
+
+        protected CountingAccessors() {
+            super(Invoice.class);
+        }
+
+        @Override
+        protected MethodHandle resolveGetter(String propName) throws Exception {
+            resolvedGetters++;
+            return super.resolveGetter(propName);
+        }
+
+        @Override
+        protected MethodHandle resolveSetter(String propName) throws Exception {
+            resolvedSetters++;
+            return super.resolveSetter(propName);
+        }
+    }
+
+    public static class Invoice {
+        private String name;
+        private int amount;
+        private Boolean paid;
+        private List<String> lines;
+        private String internal;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAmount() {
+            return amount;
+        }
+
+        public void setAmount(int amount) {
+            this.amount = amount;
+        }
+
+        public Boolean getPaid() {
+            return paid;
+        }
+
+        public void setPaid(Boolean paid) {
+            this.paid = paid;
+        }
+
+        public List<String> getLines() {
+            return lines;
+        }
+
+        public void setLines(List<String> lines) {
+            this.lines = lines;
+        }
+    }
+}
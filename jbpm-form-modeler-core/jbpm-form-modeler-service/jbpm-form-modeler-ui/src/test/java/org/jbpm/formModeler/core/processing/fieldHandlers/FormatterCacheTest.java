@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.core.processing.fieldHandlers;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+public class FormatterCacheTest extends TestCase {
+
+    @Override
+    protected void tearDown() throws Exception {
+        FormatterCache.clear();
+    }
+
+    @Test
+    public void testDecimalFormats() throws Exception {
+        DecimalFormat df = FormatterCache.getDecimalFormat(Locale.ENGLISH, "###.##", false);
+
+        assertSame(df, FormatterCache.getDecimalFormat(Locale.ENGLISH, "###.##", false));
+        assertNotSame(df, FormatterCache.getDecimalFormat(Locale.ENGLISH, "###.##", true));
+        assertNotSame(df, FormatterCache.getDecimalFormat(Locale.ENGLISH, "#,##0.00", false));
+        assertNotSame(df, FormatterCache.getDecimalFormat(new Locale("es"), "###.##", false));
+
+        assertEquals("12.35", df.format(12.345d));
+        assertEquals(new BigDecimal("12.345"), FormatterCache.getDecimalFormat(Locale.ENGLISH, "###.##", true).parse("12.345"));
+        assertEquals("12,35", FormatterCache.getDecimalFormat(new Locale("es"), "###.##", false).format(12.345d));
+    }
+
+    @Test
+    public void testDateFormats() throws Exception {
+        SimpleDateFormat sdf = FormatterCache.getDateFormat("MM-dd-yyyy");
+
+        assertSame(sdf, FormatterCache.getDateFormat("MM-dd-yyyy"));
+        assertNotSame(sdf, FormatterCache.getDateFormat("MM-dd-yy"));
+        assertEquals("MM-dd-yyyy", sdf.toPattern());
+    }
+
+    @Test
+    public void testFormatsAreThreadConfined() throws Exception {
+        final DecimalFormat df = FormatterCache.getDecimalFormat(Locale.ENGLISH, "###.##", false);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            DecimalFormat other = executor.submit(new Callable<DecimalFormat>() {
+                @Override
+                public DecimalFormat call() throws Exception {
+                    return FormatterCache.getDecimalFormat(Locale.ENGLISH, "###.##", false);
+                }
+            }).get();
+            assertNotSame(df, other);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNumericClasses() throws Exception {
+        NumericFieldHandler handler = new NumericFieldHandler();
+
+        assertEquals(Integer.valueOf(0), handler.getTheValue(null, new String[] {""}, "int"));
+        assertEquals(Integer.valueOf(12), handler.getTheValue(null, new String[] {"12"}, "int"));
+        assertEquals(Long.valueOf(12), handler.getTheValue(null, new String[] {"12"}, Long.class.getName()));
+        assertEquals(new BigInteger("12"), handler.getTheValue(null, new String[] {"12"}, BigInteger.class.getName()));
+        assertNull(handler.getTheValue(null, new String[0], Long.class.getName()));
+
+        try {
+            handler.getTheValue(null, new String[] {""}, Integer.class.getName());
+            fail("Empty value for an Integer");
+        } catch (NumericFieldHandler.EmptyNumberException e) {
+        }
+        try {
+            handler.getTheValue(null, new String[] {"12"}, String.class.getName());
+            fail("Invalid class");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.core.processing.formProcessing;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+
+import bsh.Interpreter;
+import junit.framework.TestCase;
+import org.jbpm.formModeler.core.processing.formProcessing.replacers.DateReplacer;
+import org.junit.Test;
+
+public class CompiledFormulaTest extends TestCase {
+
+    protected FormulaEngine engine = new FormulaEngine();
+
+    @Test
+    public void testReferences() {
+        CompiledFormula formula = CompiledFormula.compile("{amount} * {price} + {amount}");
+        assertTrue(formula.isCompiled());
+        assertEquals(Arrays.asList("amount", "price"), formula.getReferences());
+    }
+
+    @Test
+    public void testEvaluateLikeInterpretedFormula() throws Exception {
+        assertSameResult("{amount} * {price}", 3, new BigDecimal("2.5"));
+        assertSameResult("{a} / {b}", 7L, 2);
+        assertSameResult("{a} / {b}", new BigDecimal("7"), new BigDecimal("2"));
+        assertSameResult("{a} / {b}", new BigDecimal("7.0"), 2);
+        assertSameResult("{name}.toUpperCase() + \" \" + {surname}", "john \"the\" doe", "smith");
+        assertSameResult("{flag} ? 1 : 0", Boolean.TRUE);
+        assertSameResult("{date}.getTime() + 1000", new Date(1000000l));
+        assertSameResult("int x = {amount}; x * 2", 21);
+    }
+
+    @Test
+    public void testUnsupportedValues() {
+        assertNull(engine.toVariableValues(Arrays.asList("a", null)));
+        assertNull(engine.toVariableValues(Arrays.asList(new Object())));
+        assertNotNull(engine.toVariableValues(Arrays.asList("a", 1, 1.5d, new Date())));
+    }
+
+    @Test
+    public void testCache() {
+        CompiledFormula formula = engine.getCompiledFormula("{a} + 1");
+        assertSame(formula, engine.getCompiledFormula("{a} + 1"));
+        assertEquals(1, engine.getHits());
+        assertEquals(1, engine.getMisses());
+
+        engine.setMaxSize(1);
+        engine.getCompiledFormula("{b} + 1");
+        assertEquals(1, engine.size());
+    }
+
+    @Test
+    public void testNotParseableFormula() {
+        CompiledFormula formula = CompiledFormula.compile("{a} +* (");
+        assertFalse(formula.isCompiled());
+        assertEquals(Arrays.asList("a"), formula.getReferences());
+
+        assertFalse(CompiledFormula.compile("int x = {a}; return x * 2;").isCompiled());
+    }
+
+    @Test
+    public void testReferencesInStringLiterals() throws Exception {
+        // Values are written on the text of these formulas
+        assertFalse(CompiledFormula.compile("\"Name: {name}\"").isCompiled());
+        assertFalse(CompiledFormula.compile("{a} + '{b}'").isCompiled());
+
+        // Escaped quotes don't end the literal
+        assertFalse(CompiledFormula.compile("\"a \\\"{b}\\\"\" + {c}").isCompiled());
+
+        CompiledFormula formula = CompiledFormula.compile("\"say \\\"hi\\\" \" + {a}");
+        assertTrue(formula.isCompiled());
+        assertEquals(Arrays.asList("a"), formula.getReferences());
+        assertEquals("say \"hi\" you", formula.evaluate(new Interpreter(), new Object[] {"you"}));
+    }
+
+    @Test
+    public void testDateReferences() throws Exception {
+        CompiledFormula formula = CompiledFormula.compile("\"Today is {$date(yyyy)}, {name}\".length() > 0 ? \"{$date(yyyy)}!\" : {name}");
+        assertFalse(formula.isCompiled());
+
+        formula = CompiledFormula.compile("\"Year {$date(yyyy)}\".length() + \" {$date(yyyy)}!\" + {name}");
+        assertTrue(formula.isCompiled());
+        assertEquals(Arrays.asList("$date(yyyy)", "name"), formula.getReferences());
+        assertEquals("9 2026!john", formula.evaluate(new Interpreter(), new Object[] {"2026", "john"}));
+
+        // The formula text is the same for every date
+        assertSame(engine.getCompiledFormula("\"{$date(yyyy)}\""), engine.getCompiledFormula("\"{$date(yyyy)}\""));
+
+        // Dates written as code are interpreted
+        assertFalse(CompiledFormula.compile("{$date(yyyy)} - 1900").isCompiled());
+
+        Date date = new Date();
+        assertEquals(new SimpleDateFormat("dd/MM/yyyy").format(date), DateReplacer.formatDate("$date(dd/MM/yyyy)", date));
+    }
+
+    protected void assertSameResult(String formula, Object... values) throws Exception {
+        CompiledFormula compiledFormula = CompiledFormula.compile(formula);
+        assertTrue(compiledFormula.isCompiled());
+
+        Object compiledResult = compiledFormula.evaluate(new Interpreter(), engine.toVariableValues(Arrays.asList(values)));
+        Object interpretedResult = new Interpreter().eval(interpretedSource(formula, values));
+
+        assertEquals(interpretedResult, compiledResult);
+    }
+
+    // Writes the values as BasicFormChangeProcessor does when the formula is interpreted
+    protected String interpretedSource(String formula, Object[] values) {
+        CompiledFormula compiledFormula = CompiledFormula.compile(formula);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value instanceof String) value = "\"" + org.apache.commons.lang3.StringEscapeUtils.escapeJava((String) value) + "\"";
+            if (value instanceof Date) value = "new java.util.Date(" + ((Date) value).getTime() + "l)";
+            formula = formula.replace("{" + compiledFormula.getReferences().get(i) + "}", String.valueOf(value));
+        }
+        return formula;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.core.processing.formProcessing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+import org.jbpm.formModeler.api.model.Field;
+import org.jbpm.formModeler.api.model.FieldType;
+import org.jbpm.formModeler.api.model.Form;
+import org.jbpm.formModeler.core.FieldHandlersManager;
+import org.jbpm.formModeler.core.processing.FieldHandler;
+import org.jbpm.formModeler.core.processing.FormProcessor;
+import org.jbpm.formModeler.core.processing.FormStatusData;
+import org.jbpm.formModeler.core.processing.formProcessing.replacers.FormulaReplacementContext;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Evaluates the formulas of different forms in parallel with the same processor and checks the results are the same
+ * than the ones obtained evaluating them one by one.
+ */
+public class ConcurrentFormulaEvaluationTest extends TestCase {
+
+    protected static final int FORMS = 8;
+    protected static final int ITERATIONS = 200;
+
+    protected TestFormulaProcessor processor;
+
+    protected Map<String, Form> forms = new HashMap<String, Form>();
+    protected Map<String, Map<String, Object>> values = new ConcurrentHashMap<String, Map<String, Object>>();
+
+    @Override
+    protected void setUp() throws Exception {
+        FieldHandlersManager fieldHandlersManager = mock(FieldHandlersManager.class);
+        when(fieldHandlersManager.getHandler(any(FieldType.class))).thenReturn(mock(FieldHandler.class));
+
+        final Map<String, FormStatusData> statuses = new HashMap<String, FormStatusData>();
+        FormProcessor formProcessor = mock(FormProcessor.class);
+        when(formProcessor.read(any(Form.class), anyString())).thenAnswer(new Answer<FormStatusData>() {
+            @Override
+            public FormStatusData answer(InvocationOnMock invocation) throws Throwable {
+                return statuses.get(invocation.getArguments()[1]);
+            }
+        });
+
+        processor = new TestFormulaProcessor();
+        processor.fieldHandlersManager = fieldHandlersManager;
+        processor.formProcessor = formProcessor;
+        processor.replacementManager = new FormulaReplacementManager() {
+            @Override
+            protected String replace(FormulaReplacementContext ctx, boolean dates, boolean others) {
+                return ctx.getFormula();
+            }
+        };
+        processor.functionsProvider = new FunctionsProvider();
+        processor.formulaEngine = new FormulaEngine();
+
+        for (int i = 0; i < FORMS; i++) {
+            Form form = new Form();
+            form.setId((long) i);
+            form.setName("form" + i);
+            form.setFormFields(new TreeSet<Field>());
+            addField(form, "a", null);
+            addField(form, "b", null);
+            addField(form, "name", null);
+            addField(form, "total", "={subtotal} * {a} - {b}");
+            addField(form, "subtotal", "={a} + {b}");
+            addField(form, "label", "={name}.toUpperCase() + \" \" + {total}");
+            forms.put("ns" + i, form);
+
+            final String namespace = "ns" + i;
+            FormStatusData statusData = mock(FormStatusData.class);
+            when(statusData.getCurrentValues()).thenAnswer(new Answer<Map>() {
+                @Override
+                public Map answer(InvocationOnMock invocation) throws Throwable {
+                    return Collections.unmodifiableMap(values.get(namespace));
+                }
+            });
+            statuses.put(namespace, statusData);
+        }
+    }
+
+    @Test
+    public void testConcurrentEvaluation() throws Exception {
+        Map<String, Map<String, Object>> expected = new HashMap<String, Map<String, Object>>();
+        for (String namespace : forms.keySet()) {
+            for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                expected.put(namespace + "/" + iteration, evaluate(namespace, iteration));
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(FORMS);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<String, Map<String, Object>>>> futures = new ArrayList<Future<Map<String, Map<String, Object>>>>();
+        try {
+            for (final String namespace : forms.keySet()) {
+                futures.add(executor.submit(new Callable<Map<String, Map<String, Object>>>() {
+                    @Override
+                    public Map<String, Map<String, Object>> call() throws Exception {
+                        start.await();
+                        Map<String, Map<String, Object>> results = new HashMap<String, Map<String, Object>>();
+                        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                            results.put(namespace + "/" + iteration, evaluate(namespace, iteration));
+                        }
+                        return results;
+                    }
+                }));
+            }
+            start.countDown();
+
+            Map<String, Map<String, Object>> actual = new HashMap<String, Map<String, Object>>();
+            for (Future<Map<String, Map<String, Object>>> future : futures) {
+                actual.putAll(future.get(60, TimeUnit.SECONDS));
+            }
+            assertEquals(expected, actual);
+
+            // Interpreters are shared, no more than one per thread and none kept on the form status
+            assertTrue(processor.formulaEngine.getCreatedInterpreters() <= FORMS);
+            verify(processor.formProcessor, never()).setAttribute(any(Form.class), anyString(), anyString(), any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    protected Map<String, Object> evaluate(String namespace, int iteration) {
+        int formIndex = Integer.parseInt(namespace.substring(2));
+
+        Map<String, Object> formValues = new HashMap<String, Object>();
+        formValues.put("a", iteration);
+        formValues.put("b", formIndex);
+        formValues.put("name", "form" + formIndex);
+        values.put(namespace, formValues);
+
+        processor.doProcess(FormProcessingContext.fullProcessingContext(forms.get(namespace), namespace, null), new FormChangeResponse());
+
+        assertEquals((iteration + formIndex) * iteration - formIndex, formValues.get("total"));
+        return new HashMap<String, Object>(formValues);
+    }
+
+    protected void addField(Form form, String name, String formula) {
+        Field field = new Field();
+        field.setId((long) form.getFormFields().size());
+        field.setPosition(form.getFormFields().size());
+        field.setFieldName(name);
+        field.setFormula(formula);
+        field.setForm(form);
+        form.getFormFields().add(field);
+    }
+
+    /**
+     * Stores the formula results on the test values instead of going through the FormProcessor.
+     */
+    protected class TestFormulaProcessor extends BasicFormChangeProcessor {
+        @Override
+        protected void evaluateFormulaForField(FormulaEvaluationContext evaluation, Field field, Date date) {
+            evaluation.setEvaluated(field.getFieldName());
+            if (FormulaDependencyGraph.isEvaluable(field.getFieldFormula())) {
+                Object value = evaluateFormula(evaluation, field.getFieldFormula().substring(1), field, date);
+                values.get(evaluation.getNamespace()).put(field.getFieldName(), value);
+            }
+        }
+
+        @Override
+        public int getSupportedContextType() {
+            return FormProcessingContext.TYPE_FORMULA;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.core.processing.formProcessing;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.TreeSet;
+
+import junit.framework.TestCase;
+import org.jbpm.formModeler.api.model.Field;
+import org.jbpm.formModeler.api.model.Form;
+import org.junit.Test;
+
+public class FormulaDependencyGraphTest extends TestCase {
+
+    protected Form form;
+
+    @Override
+    protected void setUp() throws Exception {
+        form = new Form();
+        form.setId(1l);
+        form.setName("invoice");
+        form.setFormFields(new TreeSet<Field>());
+    }
+
+    @Test
+    public void testFieldsToEvaluate() {
+        addField("amount", null);
+        addField("price", null);
+        addField("discount", null);
+        addField("total", "={subtotal} - {discount}");
+        addField("subtotal", "={amount} * {price}");
+        addField("label", "={$this}.trim()");
+
+        FormulaDependencyGraph graph = new FormulaDependencyGraph(form);
+
+        assertEquals(Arrays.asList("subtotal", "total"), graph.getFieldsToEvaluate(Collections.singleton("amount")));
+        assertEquals(Arrays.asList("total"), graph.getFieldsToEvaluate(Collections.singleton("discount")));
+        assertEquals(Arrays.asList("label"), graph.getFieldsToEvaluate(Collections.singleton("label")));
+        assertTrue(graph.getFieldsToEvaluate(Collections.singleton("unknown")).isEmpty());
+        assertTrue(graph.getCycles().isEmpty());
+    }
+
+    @Test
+    public void testFormulasWithoutFieldReferencesAreAlwaysEvaluated() {
+        addField("amount", null);
+        addField("today", "=new java.util.Date()");
+
+        FormulaDependencyGraph graph = new FormulaDependencyGraph(form);
+
+        assertEquals(Arrays.asList("today"), graph.getFieldsToEvaluate(Collections.singleton("amount")));
+    }
+
+    @Test
+    public void testCycles() {
+        addField("a", "={b} + 1");
+        addField("b", "={c} + 1");
+        addField("c", "={a} + 1");
+        addField("d", "={c} + 1");
+
+        FormulaDependencyGraph graph = new FormulaDependencyGraph(form);
+
+        assertEquals(1, graph.getCycles().size());
+        assertEquals(new TreeSet<String>(Arrays.asList("a", "b", "c")), new TreeSet<String>(graph.getCycle("a")));
+        assertNull(graph.getCycle("d"));
+
+        // Dependents of the cycle are evaluated after it
+        assertEquals("d", graph.getFieldsToEvaluate(Collections.singleton("a")).get(3));
+    }
+
+    @Test
+    public void testUpToDate() {
+        addField("amount", null);
+        Field total = addField("total", "={amount} * 2");
+
+        FormulaDependencyGraph graph = new FormulaDependencyGraph(form);
+        assertTrue(graph.isUpToDate(form));
+
+        total.setFormula("={amount} * 3");
+        assertFalse(graph.isUpToDate(form));
+    }
+
+    protected Field addField(String name, String formula) {
+        Field field = new Field();
+        field.setId((long) form.getFormFields().size());
+        field.setPosition(form.getFormFields().size());
+        field.setFieldName(name);
+        field.setFormula(formula);
+        field.setForm(form);
+        form.getFormFields().add(field);
+        return field;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.core.processing.formProcessing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import bsh.Interpreter;
+import bsh.NameSpace;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+public class FormulaInterpreterPoolTest extends TestCase {
+
+    protected static final int OPEN_FORMS = 200;
+    protected static final String FORMULA = "Functions != null ? {a} * 2 + {b} : -1";
+
+    protected FormulaEngine engine;
+
+    @Override
+    protected void setUp() throws Exception {
+        engine = new FormulaEngine();
+    }
+
+    @Test
+    public void testInterpretersAreReused() throws Exception {
+        Interpreter interpreter = engine.acquireInterpreter();
+        engine.releaseInterpreter(interpreter);
+        assertSame(interpreter, engine.acquireInterpreter());
+
+        Interpreter other = engine.acquireInterpreter();
+        assertNotSame(interpreter, other);
+        assertEquals(2, engine.getCreatedInterpreters());
+
+        engine.setMaxIdleInterpreters(1);
+        engine.releaseInterpreter(interpreter);
+        engine.releaseInterpreter(other);
+        assertEquals(1, engine.getIdleInterpreters());
+    }
+
+    @Test
+    public void testEvaluationsDontLeaveState() throws Exception {
+        Interpreter interpreter = engine.acquireInterpreter();
+        List<String> globalNames = Arrays.asList(interpreter.getNameSpace().getVariableNames());
+
+        NameSpace nameSpace = new NameSpace(interpreter.getNameSpace(), "formula");
+        new FunctionsProvider().populate(nameSpace);
+        CompiledFormula formula = engine.getCompiledFormula("total = {a} + 1; total * 2");
+        assertEquals(8, formula.evaluate(interpreter, nameSpace, new Object[]{3}));
+        assertEquals(10, interpreter.eval("total = 4 + 1; total * 2", new NameSpace(interpreter.getNameSpace(), "formula")));
+        engine.releaseInterpreter(interpreter);
+
+        interpreter = engine.acquireInterpreter();
+        List<String> names = Arrays.asList(interpreter.getNameSpace().getVariableNames());
+        assertEquals(globalNames.size(), names.size());
+        assertFalse(names.contains("total"));
+        assertFalse(names.contains("Functions"));
+        assertFalse(names.contains(CompiledFormula.VARIABLE_PREFIX + "0"));
+    }
+
+    /**
+     * Open forms only keep their values, the formulas of all of them are evaluated on the same pooled interpreter.
+     */
+    @Test
+    public void testOpenFormsShareInterpreters() throws Exception {
+        CompiledFormula formula = engine.getCompiledFormula(FORMULA);
+        assertTrue(formula.isCompiled());
+
+        List<Map<String, Object>> statuses = new ArrayList<Map<String, Object>>();
+        for (int i = 0; i < OPEN_FORMS; i++) {
+            Interpreter interpreter = engine.acquireInterpreter();
+            try {
+                NameSpace nameSpace = new NameSpace(interpreter.getNameSpace(), "formula");
+                new FunctionsProvider().populate(nameSpace);
+                assertEquals(i * 2 + 1, formula.evaluate(interpreter, nameSpace, new Object[]{i, 1}));
+            } finally {
+                engine.releaseInterpreter(interpreter);
+            }
+            statuses.add(values(i));
+        }
+
+        assertEquals(1, engine.getCreatedInterpreters());
+        assertEquals(1, engine.getIdleInterpreters());
+        assertEquals(OPEN_FORMS, statuses.size());
+    }
+
+    protected Map<String, Object> values(int i) {
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("a", i);
+        values.put("b", 1);
+        values.put("total", i * 2 + 1);
+        return values;
+    }
+}
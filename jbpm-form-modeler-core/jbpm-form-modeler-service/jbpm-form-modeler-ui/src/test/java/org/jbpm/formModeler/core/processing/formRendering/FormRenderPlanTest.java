@@ -0,0 +1,197 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.core.processing.formRendering;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import org.jbpm.formModeler.api.model.Field;
+import org.jbpm.formModeler.api.model.FieldType;
+import org.jbpm.formModeler.api.model.Form;
+import org.jbpm.formModeler.core.FieldHandlersManager;
+import org.jbpm.formModeler.core.config.FormManagerImpl;
+import org.jbpm.formModeler.core.processing.FieldHandler;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FormRenderPlanTest extends TestCase {
+
+    protected FieldType textType;
+    protected FieldType checkBoxType;
+    protected FieldHandlersManager fieldHandlersManager;
+    protected TestFormatter formatter;
+
+    @Before
+    public void setUp() {
+        textType = new FieldType();
+        textType.setCode("InputText");
+        textType.setFieldClass(String.class.getName());
+
+        checkBoxType = new FieldType();
+        checkBoxType.setCode("CheckBox");
+        checkBoxType.setFieldClass(Boolean.class.getName());
+
+        FieldHandler handler = mock(FieldHandler.class);
+        when(handler.getPageToIncludeForRendering()).thenReturn("/formModeler/fieldHandlers/input.jsp");
+        when(handler.getPageToIncludeForDisplaying()).thenReturn("/formModeler/fieldHandlers/show.jsp");
+
+        fieldHandlersManager = mock(FieldHandlersManager.class);
+        when(fieldHandlersManager.getHandler(any(FieldType.class))).thenReturn(handler);
+
+        formatter = new TestFormatter();
+    }
+
+    @Test
+    public void testGroups() {
+        Form form = createForm(false, true, false);
+        FormRenderPlan plan = formatter.getRenderPlan(form, Form.RENDER_MODE_FORM, Form.LABEL_MODE_BEFORE, Form.DISPLAY_MODE_DEFAULT);
+
+        assertEquals("1%", plan.getWidth());
+        assertEquals(2, plan.getMaxCols());
+        assertEquals(2, plan.getGroups().size());
+        assertFalse(plan.isDirectRendering());
+
+        FormRenderPlan.Group group = plan.getGroups().get(0);
+        assertEquals(1, group.getPosition());
+        assertEquals(2, group.getFields().size());
+        assertEquals("field0", group.getFields().get(0).getField().getFieldName());
+        assertEquals(1, group.getFields().get(0).getColspan());
+        assertEquals(50, group.getFields().get(0).getWidth());
+        assertEquals("/formModeler/fieldHandlers/input.jsp", group.getFields().get(0).getRenderPage());
+
+        group = plan.getGroups().get(1);
+        assertEquals(2, group.getPosition());
+        assertEquals(2, group.getFields().get(0).getColspan());
+        assertEquals(100, group.getFields().get(0).getWidth());
+
+        plan = formatter.getRenderPlan(form, Form.RENDER_MODE_DISPLAY, Form.LABEL_MODE_BEFORE, Form.DISPLAY_MODE_NONE);
+        assertEquals("", plan.getWidth());
+        assertEquals(1, plan.getGroups().get(1).getFields().get(0).getColspan());
+        assertEquals("/formModeler/fieldHandlers/show.jsp", plan.getGroups().get(1).getFields().get(0).getRenderPage());
+    }
+
+    @Test
+    public void testCheckBoxLabels() {
+        Form form = createForm(false, false);
+        form.getField("field1").setFieldType(checkBoxType);
+
+        FormRenderPlan plan = formatter.getRenderPlan(form, Form.RENDER_MODE_FORM, Form.LABEL_MODE_BEFORE, Form.DISPLAY_MODE_DEFAULT);
+        FormRenderPlan.FieldPlan text = plan.getGroups().get(0).getFields().get(0);
+        FormRenderPlan.FieldPlan checkBox = plan.getGroups().get(1).getFields().get(0);
+
+        assertEquals(Form.LABEL_MODE_BEFORE, text.getLabelMode());
+        assertFalse(text.isLabelInSameLine());
+        assertEquals(Form.LABEL_MODE_AFTER, checkBox.getLabelMode());
+        assertTrue(checkBox.isLabelInSameLine());
+    }
+
+    @Test
+    public void testPlanIsCached() {
+        Form form = createForm(false, false, false);
+        FormRenderPlan plan = formatter.getRenderPlan(form, Form.RENDER_MODE_FORM, Form.LABEL_MODE_BEFORE, Form.DISPLAY_MODE_DEFAULT);
+
+        assertSame(plan, formatter.getRenderPlan(form, Form.RENDER_MODE_FORM, Form.LABEL_MODE_BEFORE, Form.DISPLAY_MODE_DEFAULT));
+        assertNotSame(plan, formatter.getRenderPlan(form, Form.RENDER_MODE_FORM, Form.LABEL_MODE_LEFT, Form.DISPLAY_MODE_DEFAULT));
+        assertNotSame(plan, formatter.getRenderPlan(form, Form.RENDER_MODE_DISPLAY, Form.LABEL_MODE_BEFORE, Form.DISPLAY_MODE_DEFAULT));
+        verify(fieldHandlersManager, times(9)).getHandler(any(FieldType.class));
+    }
+
+    @Test
+    public void testPlanInvalidation() throws Exception {
+        Form form = createForm(false, false, false);
+        FormRenderPlan plan = formatter.getRenderPlan(form, Form.RENDER_MODE_FORM, Form.LABEL_MODE_BEFORE, Form.DISPLAY_MODE_DEFAULT);
+
+        new FormManagerImpl().groupWithPrevious(form, 1, true);
+        FormRenderPlan newPlan = formatter.getRenderPlan(form, Form.RENDER_MODE_FORM, Form.LABEL_MODE_BEFORE, Form.DISPLAY_MODE_DEFAULT);
+        assertNotSame(plan, newPlan);
+        assertEquals(2, newPlan.getGroups().size());
+
+        plan = newPlan;
+        new FormManagerImpl().moveDown(form, 0);
+        newPlan = formatter.getRenderPlan(form, Form.RENDER_MODE_FORM, Form.LABEL_MODE_BEFORE, Form.DISPLAY_MODE_DEFAULT);
+        assertNotSame(plan, newPlan);
+        assertEquals("field1", newPlan.getGroups().get(0).getFields().get(0).getField().getFieldName());
+
+        plan = newPlan;
+        form.getField("field2").setFieldType(checkBoxType);
+        newPlan = formatter.getRenderPlan(form, Form.RENDER_MODE_FORM, Form.LABEL_MODE_BEFORE, Form.DISPLAY_MODE_DEFAULT);
+        assertNotSame(plan, newPlan);
+
+        plan = newPlan;
+        Field field = new Field();
+        field.setId(3L);
+        field.setFieldName("field3");
+        field.setFieldType(textType);
+        field.setPosition(3);
+        form.getFormFields().add(field);
+        newPlan = formatter.getRenderPlan(form, Form.RENDER_MODE_FORM, Form.LABEL_MODE_BEFORE, Form.DISPLAY_MODE_DEFAULT);
+        assertNotSame(plan, newPlan);
+        assertEquals(4, newPlan.getGroups().size());
+    }
+
+    @Test
+    public void testPlanInvalidationWhenFieldsAreReplacedDirectly() {
+        Form form = createForm(false, false, false);
+        FormRenderPlan plan = formatter.getRenderPlan(form, Form.RENDER_MODE_FORM, Form.LABEL_MODE_BEFORE, Form.DISPLAY_MODE_DEFAULT);
+
+        // Same set and same size, but a different field
+        form.getFormFields().remove(form.getField("field2"));
+        Field field = new Field();
+        field.setId(3L);
+        field.setFieldName("field3");
+        field.setFieldType(textType);
+        field.setPosition(2);
+        form.getFormFields().add(field);
+
+        FormRenderPlan newPlan = formatter.getRenderPlan(form, Form.RENDER_MODE_FORM, Form.LABEL_MODE_BEFORE, Form.DISPLAY_MODE_DEFAULT);
+        assertNotSame(plan, newPlan);
+        assertEquals("field3", newPlan.getGroups().get(2).getFields().get(0).getField().getFieldName());
+        assertTrue(newPlan.isPlanOf(form.getModificationCount()));
+        assertSame(newPlan, formatter.getRenderPlan(form, Form.RENDER_MODE_FORM, Form.LABEL_MODE_BEFORE, Form.DISPLAY_MODE_DEFAULT));
+    }
+
+    protected Form createForm(boolean... groupWithPrevious) {
+        Form form = new Form();
+        form.setId(1L);
+        form.setName("test");
+        Set<Field> fields = new HashSet<Field>();
+        for (int i = 0; i < groupWithPrevious.length; i++) {
+            Field field = new Field();
+            field.setId((long) i);
+            field.setFieldName("field" + i);
+            field.setFieldType(textType);
+            field.setPosition(i);
+            field.setGroupWithPrevious(groupWithPrevious[i]);
+            field.setForm(form);
+            fields.add(field);
+        }
+        form.setFormFields(fields);
+        return form;
+    }
+
+    protected class TestFormatter extends FormRenderingFormatter {
+        @Override
+        public FieldHandlersManager getFieldHandlersManager() {
+            return fieldHandlersManager;
+        }
+    }
+}
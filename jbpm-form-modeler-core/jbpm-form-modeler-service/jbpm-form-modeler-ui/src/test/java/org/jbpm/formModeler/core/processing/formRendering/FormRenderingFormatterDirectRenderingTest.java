@@ -0,0 +1,273 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.core.processing.formRendering;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import org.jbpm.formModeler.api.model.Field;
+import org.jbpm.formModeler.api.model.FieldType;
+import org.jbpm.formModeler.api.model.Form;
+import org.jbpm.formModeler.core.FieldHandlersManager;
+import org.jbpm.formModeler.core.processing.FieldHandler;
+import org.jbpm.formModeler.core.processing.FormProcessor;
+import org.jbpm.formModeler.core.processing.FormStatusData;
+import org.jbpm.formModeler.core.processing.fieldHandlers.plugable.PlugableFieldHandler;
+import org.jbpm.formModeler.core.processing.formProcessing.NamespaceManager;
+import org.jbpm.formModeler.service.bb.mvc.taglib.formatter.FormatterTag;
+import org.jbpm.formModeler.service.bb.mvc.taglib.formatter.ProcessingInstruction;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FormRenderingFormatterDirectRenderingTest extends TestCase {
+
+    protected static final String NAMESPACE = "ns";
+    protected static final int MANY_FIELDS = 200;
+
+    protected FieldType plugableType;
+    protected FieldType pageType;
+    protected FieldType customPagesType;
+
+    protected FieldHandlersManager fieldHandlersManager;
+    protected FormProcessor formProcessor;
+    protected FormatterTag tag;
+    protected List<ProcessingInstruction> instructions = new ArrayList<ProcessingInstruction>();
+
+    protected TestFormatter formatter;
+
+    @Before
+    public void setUp() {
+        plugableType = new FieldType();
+        plugableType.setCode("Plugable");
+        plugableType.setFieldClass(Object.class.getName());
+
+        pageType = new FieldType();
+        pageType.setCode("InputText");
+        pageType.setFieldClass(String.class.getName());
+
+        customPagesType = new FieldType();
+        customPagesType.setCode("CustomPlugable");
+        customPagesType.setFieldClass(Object.class.getName());
+
+        FieldHandler pageHandler = mock(FieldHandler.class);
+        when(pageHandler.getPageToIncludeForRendering()).thenReturn("/formModeler/fieldHandlers/input.jsp");
+        when(pageHandler.getPageToIncludeForDisplaying()).thenReturn("/formModeler/fieldHandlers/show.jsp");
+
+        fieldHandlersManager = mock(FieldHandlersManager.class);
+        when(fieldHandlersManager.getHandler(plugableType)).thenReturn(new TestPlugableFieldHandler());
+        when(fieldHandlersManager.getHandler(pageType)).thenReturn(pageHandler);
+        when(fieldHandlersManager.getHandler(customPagesType)).thenReturn(new CustomPagesFieldHandler());
+
+        formProcessor = mock(FormProcessor.class);
+
+        FormStatusData formStatusData = mock(FormStatusData.class);
+        when(formStatusData.getWrongFields()).thenReturn(Collections.EMPTY_LIST);
+        when(formStatusData.getCurrentValue(anyString())).thenReturn("value");
+
+        tag = mock(FormatterTag.class);
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                instructions.add((ProcessingInstruction) invocation.getArguments()[0]);
+                return null;
+            }
+        }).when(tag).addProcessingInstruction(any(ProcessingInstruction.class));
+
+        formatter = new TestFormatter();
+        formatter.setTag(tag);
+        formatter.namespaceManager = new NamespaceManager();
+        formatter.formStatusData = formStatusData;
+        formatter.directRendering = true;
+    }
+
+    @Test
+    public void testDirectRendering() {
+        Form form = createForm(3, 0);
+        assertTrue(formatter.supportsDirectRendering(form));
+
+        renderForm(form, Form.RENDER_MODE_FORM);
+        assertEquals(0, count(ProcessingInstruction.INCLUDE_PAGE));
+        assertTrue(output().contains("<div>input:" + NAMESPACE + FormProcessor.NAMESPACE_SEPARATOR + form.getId() + FormProcessor.NAMESPACE_SEPARATOR + "field0=value</div>"));
+
+        instructions.clear();
+        formatter.isReadonly = Boolean.TRUE;
+        renderForm(form, Form.RENDER_MODE_FORM);
+        assertTrue(output().contains("readonly"));
+
+        instructions.clear();
+        renderForm(form, Form.RENDER_MODE_DISPLAY);
+        assertEquals(0, count(ProcessingInstruction.INCLUDE_PAGE));
+        assertTrue(output().contains("<div>show:value</div>"));
+    }
+
+    @Test
+    public void testEmptyMarkup() {
+        Form form = createForm(1, 0);
+        form.getFormFields().iterator().next().setFieldName("empty");
+
+        renderForm(form, Form.RENDER_MODE_FORM);
+        assertFalse(output().contains("<div></div>"));
+    }
+
+    @Test
+    public void testFallbackToPages() {
+        Form form = createForm(3, 1);
+        assertFalse(formatter.supportsDirectRendering(form));
+
+        renderForm(form, Form.RENDER_MODE_FORM);
+        assertEquals(4, count(ProcessingInstruction.INCLUDE_PAGE));
+
+        instructions.clear();
+        formatter.directRendering = false;
+        form = createForm(3, 0);
+        renderForm(form, Form.RENDER_MODE_FORM);
+        assertEquals(3, count(ProcessingInstruction.INCLUDE_PAGE));
+    }
+
+    @Test
+    public void testPlugableHandlerWithCustomPages() {
+        assertTrue(new TestPlugableFieldHandler().isDirectRenderingSupported());
+        assertFalse(new CustomPagesFieldHandler().isDirectRenderingSupported());
+
+        Form form = createForm(3, 0);
+        form.getFormFields().iterator().next().setFieldType(customPagesType);
+        assertFalse(formatter.supportsDirectRendering(form));
+
+        renderForm(form, Form.RENDER_MODE_FORM);
+        assertEquals(3, count(ProcessingInstruction.INCLUDE_PAGE));
+        assertFalse(output().contains("input:"));
+    }
+
+    @Test
+    public void testInstructionsOfABigForm() {
+        Form form = createForm(MANY_FIELDS, 0);
+
+        formatter.directRendering = false;
+        renderForm(form, Form.RENDER_MODE_FORM);
+        int pageInstructions = instructions.size();
+        assertEquals(MANY_FIELDS, count(ProcessingInstruction.INCLUDE_PAGE));
+
+        formatter.directRendering = true;
+        instructions.clear();
+        renderForm(form, Form.RENDER_MODE_FORM);
+        assertEquals(0, count(ProcessingInstruction.INCLUDE_PAGE));
+        assertTrue(instructions.size() < pageInstructions);
+    }
+
+    protected void renderForm(Form form, String renderMode) {
+        formatter.renderFieldsDirectly = formatter.directRendering && formatter.supportsDirectRendering(form);
+        for (Field field : form.getFormFields()) {
+            formatter.renderField(field, NAMESPACE, renderMode);
+        }
+    }
+
+    protected Form createForm(int plugableFields, int pageFields) {
+        Form form = new Form();
+        form.setId(1L);
+        form.setName("test");
+        Set<Field> fields = new HashSet<Field>();
+        for (int i = 0; i < plugableFields + pageFields; i++) {
+            Field field = new Field();
+            field.setId((long) i);
+            field.setFieldName("field" + i);
+            field.setFieldType(i < plugableFields ? plugableType : pageType);
+            field.setForm(form);
+            fields.add(field);
+        }
+        form.setFormFields(fields);
+        return form;
+    }
+
+    protected int count(int type) {
+        int result = 0;
+        for (ProcessingInstruction instruction : instructions) {
+            if (instruction.getType() == type) result++;
+        }
+        return result;
+    }
+
+    protected String output() {
+        StringBuilder sb = new StringBuilder();
+        for (ProcessingInstruction instruction : instructions) {
+            if (instruction.getType() == ProcessingInstruction.WRITE_OUT) sb.append(instruction.getName());
+        }
+        return sb.toString();
+    }
+
+    protected class TestFormatter extends FormRenderingFormatter {
+        @Override
+        public FormProcessor getFormProcessor() {
+            return formProcessor;
+        }
+
+        @Override
+        public FieldHandlersManager getFieldHandlersManager() {
+            return fieldHandlersManager;
+        }
+    }
+
+    protected static class TestPlugableFieldHandler extends PlugableFieldHandler {
+        @Override
+        public String getInputHTML(Object value, Field field, String inputName, String namespace, Boolean readonly) {
+            if ("empty".equals(field.getFieldName())) return null;
+            return "input:" + inputName + "=" + value + (Boolean.TRUE.equals(readonly) ? " readonly" : "");
+        }
+
+        @Override
+        public String getShowHTML(Object value, Field field, String inputName, String namespace) {
+            return "show:" + value;
+        }
+
+        @Override
+        public String[] getCompatibleClassNames() {
+            return new String[]{Object.class.getName()};
+        }
+
+        @Override
+        public Object getValue(Field field, String inputName, Map parametersMap, Map filesMap, String desiredClassName, Object previousValue) {
+            return null;
+        }
+
+        @Override
+        public Map getParamValue(Field field, String inputName, Object objectValue) {
+            return null;
+        }
+
+        @Override
+        public boolean isEmpty(Object value) {
+            return value == null;
+        }
+    }
+
+    protected static class CustomPagesFieldHandler extends TestPlugableFieldHandler {
+        @Override
+        public String getPageToIncludeForRendering() {
+            return "/formModeler/fieldHandlers/Custom/input.jsp";
+        }
+    }
+}
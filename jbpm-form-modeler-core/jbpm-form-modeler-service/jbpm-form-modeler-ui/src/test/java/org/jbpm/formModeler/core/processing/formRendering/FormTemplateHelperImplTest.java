@@ -0,0 +1,158 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.core.processing.formRendering;
+
+import java.text.MessageFormat;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import org.jbpm.formModeler.api.model.Form;
+import org.junit.Test;
+
+/**
+ * Checks the single pass template tokenizer against the MessageFormat based one it replaces.
+ */
+public class FormTemplateHelperImplTest extends TestCase {
+
+    protected static final String[] TEMPLATES = new String[] {
+            "",
+            "   ",
+            "<table></table>",
+            "$field{name}",
+            "<td>$field{name}</td><td>$label{name}</td>",
+            "$label{name}$field{name}$label{total}",
+            "  $label{a}  $label{b}  $field{c}  ",
+            "<p>$field{unclosed</p>",
+            "<p>$label{unclosed</p>$field{a}",
+            "$label{x $field{a}",
+            "$field{a} $label{b} $field{c",
+            "$field{}$label{}",
+            "$field{a}}{$label{b}}",
+            "$$field{a}$label$label{b}"
+    };
+
+    protected static final String[] PIECES = new String[] {"$field{", "$label{", "}", "{", " ", "<td>", "a", "b", "$field", "\n"};
+
+    protected FormTemplateHelperImpl helper;
+
+    @Override
+    protected void setUp() throws Exception {
+        helper = new FormTemplateHelperImpl();
+        helper.maxCachedTemplates = 3;
+    }
+
+    @Test
+    public void testInstructions() {
+        for (String template : TEMPLATES) {
+            assertEquals(template, render(calculateWithMessageFormat(template)), render(helper.calculateInstructions(template)));
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder template = new StringBuilder();
+            int pieces = random.nextInt(12);
+            for (int j = 0; j < pieces; j++) {
+                template.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+            assertEquals(template.toString(), render(calculateWithMessageFormat(template.toString())), render(helper.calculateInstructions(template.toString())));
+        }
+    }
+
+    @Test
+    public void testCache() {
+        Form form = new Form();
+        form.setId(1l);
+        form.setFormTemplate("<td>$field{name}</td>");
+
+        List instructions = helper.getRenderingInstructions(form);
+        assertSame(instructions, helper.getRenderingInstructions(form));
+        assertEquals(1, helper.getCacheMisses());
+        assertEquals(1, helper.getCacheHits());
+
+        form.setFormTemplate("<td>$field{total}</td>");
+        assertEquals("H[<td>]F[total]H[</td>]", render(helper.getRenderingInstructions(form)));
+        assertEquals(2, helper.getCachedTemplates());
+
+        helper.getRenderingInstructions("$field{a}");
+        helper.getRenderingInstructions(form);
+        helper.getRenderingInstructions("$field{b}");
+
+        assertEquals(3, helper.getCachedTemplates());
+        assertEquals(1, helper.getCacheEvictions());
+
+        // The first template was the least recently used one
+        form.setFormTemplate("<td>$field{name}</td>");
+        helper.getRenderingInstructions(form);
+        assertEquals(5, helper.getCacheMisses());
+
+        assertTrue(helper.getRenderingInstructions((String) null).isEmpty());
+    }
+
+    protected String render(List instructions) {
+        final StringBuilder out = new StringBuilder();
+        FormRenderer renderer = new FormRenderer() {
+            public void writeToOut(String text) {
+                out.append("H[").append(text).append("]");
+            }
+
+            public void renderField(String fieldName) {
+                out.append("F[").append(fieldName).append("]");
+            }
+
+            public void renderLabel(String fieldName) {
+                out.append("L[").append(fieldName).append("]");
+            }
+        };
+        for (Object instruction : instructions) {
+            ((TemplateRenderingInstruction) instruction).doRender(renderer);
+        }
+        return out.toString();
+    }
+
+    protected List calculateWithMessageFormat(String template) {
+        if (template == null || "".equals(template.trim()))
+            return Collections.EMPTY_LIST;
+        List result = new ArrayList();
+
+        Object[] parsedResult = parse(template, FormTemplateHelper.FIELD_FORMAT);
+        if (parsedResult == null) {
+            Object[] parsedResult2 = parse(template, FormTemplateHelper.LABEL_FORMAT);
+            if (parsedResult2 == null) {
+                result.add(new HTMLPieceRenderingInstruction(template));
+            } else {
+                result.add(new HTMLPieceRenderingInstruction((String) parsedResult2[0]));
+                result.add(new RenderLabelInstruction((String) parsedResult2[1]));
+                result.addAll(calculateWithMessageFormat(((String) parsedResult2[2])));
+            }
+        } else {
+            result.addAll((calculateWithMessageFormat((String) parsedResult[0])));
+            result.add(new RenderFieldInstruction((String) parsedResult[1]));
+            result.addAll((calculateWithMessageFormat((String) parsedResult[2])));
+        }
+        return result;
+    }
+
+    protected Object[] parse(String template, String format) {
+        try {
+            return new MessageFormat(format).parse(template);
+        } catch (ParseException e) {
+        }
+        return null;
+    }
+}
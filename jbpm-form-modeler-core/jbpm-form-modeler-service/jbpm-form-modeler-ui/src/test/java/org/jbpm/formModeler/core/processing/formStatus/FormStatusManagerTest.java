@@ -0,0 +1,33 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.core.processing.formStatus;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+public class FormStatusManagerTest extends TestCase {
+
+    @Test
+    public void testSessionsDontShareContexts() {
+        InMemoryFormStatusStore store = new InMemoryFormStatusStore();
+        String key = new FormStatusManager().getStatusKey(1l, "task");
+        String otherKey = new FormStatusManager().getStatusKey(1l, "task");
+
+        String[] parts = store.splitKey(key);
+        assertEquals(2, parts.length);
+        assertTrue(parts[0].endsWith(FormStatusManager.OWNER_SEPARATOR + "task"));
+        assertFalse(parts[0].equals(store.splitKey(otherKey)[0]));
+    }
+}
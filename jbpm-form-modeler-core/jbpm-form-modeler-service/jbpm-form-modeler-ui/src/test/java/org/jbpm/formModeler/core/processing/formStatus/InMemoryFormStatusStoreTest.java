@@ -0,0 +1,170 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.core.processing.formStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+public class InMemoryFormStatusStoreTest extends TestCase {
+
+    protected TestFormStatusStore store;
+
+    @Override
+    protected void setUp() throws Exception {
+        store = new TestFormStatusStore();
+    }
+
+    @Test
+    public void testSubformTree() {
+        FormStatus parent = put("ctx-1");
+        FormStatus child = put("ctx-1-address-2");
+        FormStatus row = put("ctx-1-lines.0-3");
+        FormStatus other = put("ctx-12");
+
+        assertSame(parent, store.get("ctx-1"));
+        assertSame(child, store.get("ctx-1-address-2"));
+        assertNull(store.get("ctx-1-address"));
+        assertNull(store.get("unknown-1"));
+
+        assertEquals(new HashSet<FormStatus>(Arrays.asList(parent, child, row)), new HashSet<FormStatus>(store.getTree("ctx-1")));
+        assertEquals(parent, store.getTree("ctx-1").get(0));
+        assertEquals(Arrays.asList(other), store.getTree("ctx-12"));
+
+        store.removeTree("ctx-1-address-2");
+        assertNull(store.get("ctx-1-address-2"));
+        assertSame(row, store.get("ctx-1-lines.0-3"));
+
+        store.removeTree("ctx-1");
+        assertTrue(store.getTree("ctx-1").isEmpty());
+        assertSame(other, store.get("ctx-12"));
+        assertEquals(1, store.getContextsCount());
+    }
+
+    @Test
+    public void testEmptyNodesArePruned() {
+        put("ctx-1-address-2");
+        store.removeTree("ctx-1-address-2");
+        assertEquals(0, store.getContextsCount());
+    }
+
+    @Test
+    public void testIdleContextsEviction() {
+        store.maxIdleTime = 1000;
+
+        put("ctx1-1");
+        store.time = 600;
+        put("ctx2-1");
+        store.time = 900;
+        assertNotNull(store.get("ctx1-1"));
+
+        store.time = 1700;
+        assertNotNull(store.get("ctx1-1"));
+        assertNull(store.get("ctx2-1"));
+        assertEquals(1, store.getContextsCount());
+        assertEquals(1, store.getEvictedContexts());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        store.maxContexts = 2;
+
+        put("ctx1-1");
+        put("ctx2-1");
+        store.get("ctx1-1");
+        put("ctx3-1");
+
+        assertEquals(2, store.getContextsCount());
+        assertNotNull(store.get("ctx1-1"));
+        assertNull(store.get("ctx2-1"));
+        assertNotNull(store.get("ctx3-1"));
+    }
+
+    @Test
+    public void testContextsAreLockedIndependently() throws Exception {
+        put("ctx1-1");
+        final FormStatus other = put("ctx2-1");
+        final CountDownLatch read = new CountDownLatch(1);
+
+        // While a context is locked, the statuses of the other contexts are still read and written
+        synchronized (store.getContext("ctx1", 0)) {
+            Thread thread = new Thread() {
+                public void run() {
+                    if (store.get("ctx2-1") == other) {
+                        put("ctx3-1");
+                        read.countDown();
+                    }
+                }
+            };
+            thread.start();
+            assertTrue(read.await(10, TimeUnit.SECONDS));
+        }
+        assertNotNull(store.get("ctx3-1"));
+    }
+
+    @Test
+    public void testConcurrentContexts() throws Exception {
+        store.maxIdleTime = 1000;
+        final int contexts = 20;
+        final int statuses = 200;
+
+        List<Thread> threads = new ArrayList<Thread>();
+        final List<String> missing = new ArrayList<String>();
+        for (int i = 0; i < contexts; i++) {
+            final String context = "ctx" + i;
+            threads.add(new Thread() {
+                public void run() {
+                    for (int j = 0; j < statuses; j++) {
+                        String key = context + "-1-sub" + j + "-2";
+                        FormStatus status = put(key);
+                        if (store.get(key) != status) {
+                            synchronized (missing) {
+                                missing.add(key);
+                            }
+                        }
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+
+        assertTrue(missing.toString(), missing.isEmpty());
+        assertEquals(contexts, store.getContextsCount());
+        assertEquals(statuses, store.getTree("ctx0-1").size());
+        assertEquals(0, store.getEvictedContexts());
+    }
+
+    protected FormStatus put(String key) {
+        FormStatus status = new FormStatus(null, key, null);
+        store.put(key, status);
+        return status;
+    }
+
+    protected class TestFormStatusStore extends InMemoryFormStatusStore {
+        protected long time = 0;
+
+        @Override
+        protected long currentTimeMillis() {
+            return time;
+        }
+    }
+}
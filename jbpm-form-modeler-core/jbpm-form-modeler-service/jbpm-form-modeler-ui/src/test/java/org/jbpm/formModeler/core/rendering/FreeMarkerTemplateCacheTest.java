@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.core.rendering;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import freemarker.ext.beans.BeansWrapper;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import junit.framework.TestCase;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+/**
+ * Checks the cached templates render the same than templates parsed on every render, the way field handlers used to
+ * render, and that they are only parsed (and read) once while they don't change.
+ */
+public class FreeMarkerTemplateCacheTest extends TestCase {
+
+    protected static final String TEMPLATE = "<div><input type=\"hidden\" name=\"${inputId}_delete\" value=\"false\"/>"
+            + "<#if showDownload = true><a href=\"${downloadLink}\">${fileName} (${fileSize})</a></#if>"
+            + "<#if showInput = true><input type=\"file\" name=\"${inputId}\"<#if readonly = true> disabled</#if>/></#if></div>";
+
+    protected static final int RENDERS = 200;
+
+    protected FreeMarkerTemplateCache cache;
+    protected File templateFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        cache = new FreeMarkerTemplateCache(2);
+        templateFile = File.createTempFile("input", ".ftl");
+        FileUtils.writeStringToFile(templateFile, TEMPLATE);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FileUtils.deleteQuietly(templateFile);
+    }
+
+    @Test
+    public void testRender() throws Exception {
+        Map<String, Object> context = getContext("field");
+        URL resource = templateFile.toURI().toURL();
+
+        assertEquals(renderUncached(context), cache.render(resource, context));
+        assertEquals(renderUncached(context), cache.render(resource, context));
+
+        StringWriter out = new StringWriter();
+        cache.render(resource, context, out);
+        assertEquals(renderUncached(context), out.toString());
+
+        assertEquals(renderUncached(context), cache.render("input.ftl", TEMPLATE, context));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testTemplatesAreCachedByName() throws Exception {
+        Template template = cache.getTemplate("input.ftl", TEMPLATE);
+
+        assertSame(template, cache.getTemplate("input.ftl", TEMPLATE));
+        assertNotSame(template, cache.getTemplate("other.ftl", TEMPLATE));
+        assertEquals("changed", cache.render("input.ftl", "changed", getContext("field")));
+        assertEquals(2, cache.size());
+        assertNotSame(template, cache.getTemplate("input.ftl", TEMPLATE));
+    }
+
+    @Test
+    public void testResourcesAreOnlyReadWhenModified() throws Exception {
+        Map<String, Object> context = getContext("field");
+        URL resource = templateFile.toURI().toURL();
+        long lastModified = templateFile.lastModified();
+
+        Template template = cache.getTemplate(resource);
+
+        // Same version, so the new content isn't read
+        FileUtils.writeStringToFile(templateFile, "changed");
+        templateFile.setLastModified(lastModified);
+        assertSame(template, cache.getTemplate(resource));
+        assertEquals(renderUncached(context), cache.render(resource, context));
+        assertEquals(1, cache.getMisses());
+
+        templateFile.setLastModified(lastModified + 10000);
+        assertEquals("changed", cache.render(resource, context));
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testTemplatesAreParsedOnce() throws Exception {
+        Map<String, Object> context = getContext("field");
+        URL resource = templateFile.toURI().toURL();
+        Template template = cache.getTemplate(resource);
+
+        for (int i = 0; i < RENDERS; i++) {
+            assertEquals(renderUncached(context), cache.render(resource, context));
+        }
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(RENDERS, cache.getHits());
+        assertSame(template, cache.getTemplate(resource));
+        assertEquals(1, cache.size());
+    }
+
+    protected String renderUncached(Map<String, Object> context) throws Exception {
+        Configuration cfg = new Configuration();
+        BeansWrapper defaultInstance = new BeansWrapper();
+        defaultInstance.setSimpleMapWrapper(true);
+        cfg.setObjectWrapper(defaultInstance);
+        cfg.setTemplateUpdateDelay(0);
+        Template temp = new Template("input.ftl", new StringReader(TEMPLATE), cfg);
+        StringWriter out = new StringWriter();
+        temp.process(context, out);
+        return out.toString();
+    }
+
+    protected Map<String, Object> getContext(String inputId) {
+        Map<String, Object> context = new HashMap<String, Object>();
+        context.put("inputId", inputId);
+        context.put("showDownload", Boolean.TRUE);
+        context.put("downloadLink", "/download?content=1");
+        context.put("fileName", "invoice.pdf");
+        context.put("fileSize", "12 Kb");
+        context.put("showInput", Boolean.TRUE);
+        context.put("readonly", Boolean.FALSE);
+        return context;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import junit.framework.TestCase;
+import org.jbpm.formModeler.api.model.wrappers.I18nSet;
+import org.junit.Test;
+
+public class LocaleTableTest extends TestCase {
+
+    protected LocaleTable localeTable;
+
+    @Override
+    protected void setUp() throws Exception {
+        localeTable = new LocaleTable();
+        localeTable.init();
+    }
+
+    @Test
+    public void testLocaleById() {
+        for (Locale locale : Locale.getAvailableLocales()) {
+            assertEquals(locale.toString(), localeTable.getLocaleById(locale.toString()).toString());
+        }
+        assertEquals(Locale.ENGLISH, localeTable.getLocaleById("en"));
+        assertNull(localeTable.getLocaleById("unknown"));
+        assertNull(localeTable.getLocaleById(null));
+    }
+
+    @Test
+    public void testLocales() {
+        String[] ids = new String[] {"en", "unknown", "es"};
+        Locale[] locales = localeTable.getLocales(ids);
+
+        assertEquals(Arrays.asList(Locale.ENGLISH, new Locale("es")), Arrays.asList(locales));
+        assertSame(locales, localeTable.getLocales(new String[] {"en", "unknown", "es"}));
+        assertEquals(0, localeTable.getLocales(null).length);
+    }
+
+    @Test
+    public void testInstalledLanguagesAreRegistered() {
+        LocaleTable table = new LocaleTable();
+        table.installedLocaleIds = new String[] {"de", "zz_UNKNOWN"};
+        table.init();
+
+        assertTrue(I18nSet.isRegisteredLanguage("de"));
+        assertFalse(I18nSet.isRegisteredLanguage("zz_UNKNOWN"));
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.fieldTypes.document.handling;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.SessionScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.Reception;
+
+import org.apache.commons.io.IOUtils;
+import org.jbpm.formModeler.components.renderer.ContextRemovedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the files uploaded to document fields until the form render context they were uploaded to is removed, or
+ * the session ends.
+ */
+@SessionScoped
+public class DocumentSpool implements Serializable {
+
+    private static transient Logger log = LoggerFactory.getLogger(DocumentSpool.class);
+
+    public static final String SPOOL_DIR = "formModeler-documents";
+
+    private Map<String, List<File>> contextFiles = new HashMap<String, List<File>>();
+
+    /**
+     * Copies an uploaded file to the spool, the copy will be deleted when given context is removed. Uploads are
+     * stored by file name and can be overwritten by later uploads, so they can't be referenced directly.
+     *
+     * @param ctxUID the UID of the context the file was uploaded to
+     * @param upload the uploaded file
+     * @return the spooled file
+     */
+    public synchronized File spool(String ctxUID, File upload) throws IOException {
+        File dir = new File(System.getProperty("java.io.tmpdir"), SPOOL_DIR);
+        if (!dir.exists() && !dir.mkdirs() && !dir.exists()) throw new IOException("Unable to create spool directory " + dir);
+
+        File spooled = File.createTempFile("document", ".tmp", dir);
+        try {
+            copy(upload, spooled);
+        } catch (IOException e) {
+            delete(spooled);
+            throw e;
+        }
+
+        List<File> files = contextFiles.get(ctxUID);
+        if (files == null) {
+            files = new ArrayList<File>();
+            contextFiles.put(ctxUID, files);
+        }
+        files.add(spooled);
+        return spooled;
+    }
+
+    /**
+     * Deletes a spooled file that isn't needed anymore
+     */
+    public synchronized void release(String ctxUID, File spooled) {
+        List<File> files = contextFiles.get(ctxUID);
+        if (files != null && files.remove(spooled)) {
+            delete(spooled);
+            if (files.isEmpty()) contextFiles.remove(ctxUID);
+        }
+    }
+
+    /**
+     * Deletes all the files spooled for given context
+     */
+    public synchronized void clear(String ctxUID) {
+        List<File> files = contextFiles.remove(ctxUID);
+        if (files != null) {
+            for (File file : files) {
+                delete(file);
+            }
+        }
+    }
+
+    public void onContextRemoved(@Observes(notifyObserver = Reception.IF_EXISTS) ContextRemovedEvent event) {
+        clear(event.getCtxUID());
+    }
+
+    @PreDestroy
+    public synchronized void destroy() {
+        for (String ctxUID : new ArrayList<String>(contextFiles.keySet())) {
+            clear(ctxUID);
+        }
+    }
+
+    protected void copy(File source, File target) throws IOException {
+        FileInputStream in = new FileInputStream(source);
+        FileOutputStream out = new FileOutputStream(target);
+        try {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out.getChannel());
+            }
+        } finally {
+            IOUtils.closeQuietly(in);
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    protected void delete(File file) {
+        if (file.exists() && !file.delete()) log.warn("Unable to delete spooled document file '{}'.", file);
+    }
+}
@@ -16,9 +16,6 @@
 package org.jbpm.formModeler.fieldTypes.document.handling;
 
 import java.io.File;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.StringWriter;
 import java.text.DecimalFormat;
 import java.util.Collections;
 import java.util.Date;
@@ -29,18 +26,17 @@ import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import freemarker.ext.beans.BeansWrapper;
-import freemarker.template.Template;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jbpm.document.Document;
 import org.jbpm.document.marshalling.AbstractDocumentMarshallingStrategy;
-import org.jbpm.document.service.impl.DocumentImpl;
 import org.jbpm.formModeler.api.client.FormRenderContext;
 import org.jbpm.formModeler.api.client.FormRenderContextManager;
 import org.jbpm.formModeler.api.model.Field;
+import org.jbpm.formModeler.core.processing.FormProcessor;
 import org.jbpm.formModeler.core.processing.fieldHandlers.plugable.PlugableFieldHandler;
+import org.jbpm.formModeler.core.rendering.FreeMarkerTemplateCache;
 import org.jbpm.formModeler.service.bb.mvc.components.ControllerStatus;
 import org.jbpm.formModeler.service.bb.mvc.controller.RequestContext;
 import org.kie.api.marshalling.ObjectMarshallingStrategy;
@@ -57,6 +53,12 @@ public class JBPMDocumentFieldTypeHandler extends PlugableFieldHandler {
     @Inject
     private FormRenderContextManager formRenderContextManager;
 
+    @Inject
+    private DocumentSpool documentSpool;
+
+    @Inject
+    private FreeMarkerTemplateCache templateCache;
+
 
     public final String SIZE_UNITS[] = new String[]{"bytes", "Kb", "Mb"};
 
@@ -120,6 +122,12 @@ public class JBPMDocumentFieldTypeHandler extends PlugableFieldHandler {
 
         // if there is an uploaded file for that field we will delete the previous one (if existed) and will return the uploaded file path.
         File file = (File) filesMap.get(inputName);
+
+        // The spooled file of the previous document isn't needed anymore if it's replaced or deleted
+        if ((file != null || delete) && oldDoc instanceof SpooledDocument) {
+            documentSpool.release(getContextUID(inputName), ((SpooledDocument) oldDoc).getFile());
+        }
+
         if (file != null) {
             // Getting the DocumentMarshallingStrategy for this project if exists any we build the document
             AbstractDocumentMarshallingStrategy marshallingStrategy = getDocumentMarshallingStrategy( inputName );
@@ -133,10 +141,10 @@ public class JBPMDocumentFieldTypeHandler extends PlugableFieldHandler {
                 doc.setContent( FileUtils.readFileToByteArray( file ) );
                 return doc;
             } else {
+                // The content is kept on the spooled file and only read when the document is persisted
                 String id = UUID.randomUUID().toString();
-                Document doc = new DocumentImpl( id, file.getName(), file.length(), new Date(file.lastModified()), id );
-                doc.setContent( FileUtils.readFileToByteArray( file ) );
-                return doc;
+                Date lastModified = new Date(file.lastModified());
+                return new SpooledDocument( id, file.getName(), lastModified, documentSpool.spool( getContextUID( inputName ), file ) );
             }
         }
 
@@ -148,6 +156,11 @@ public class JBPMDocumentFieldTypeHandler extends PlugableFieldHandler {
         return oldDoc;
     }
 
+    protected String getContextUID(String inputName) {
+        int separatorIndex = inputName.indexOf(FormProcessor.NAMESPACE_SEPARATOR);
+        return separatorIndex != -1 ? inputName.substring(0, separatorIndex) : inputName;
+    }
+
     protected AbstractDocumentMarshallingStrategy getDocumentMarshallingStrategy( String inputName ) {
 
         return null;
@@ -192,17 +205,7 @@ public class JBPMDocumentFieldTypeHandler extends PlugableFieldHandler {
             context.put("readonly", readonly);
             context.put("showInput", showInput);
 
-            InputStream src = this.getClass().getResourceAsStream("input.ftl");
-            freemarker.template.Configuration cfg = new freemarker.template.Configuration();
-            BeansWrapper defaultInstance = new BeansWrapper();
-            defaultInstance.setSimpleMapWrapper(true);
-            cfg.setObjectWrapper(defaultInstance);
-            cfg.setTemplateUpdateDelay(0);
-            Template temp = new Template(inputName, new InputStreamReader(src), cfg);
-            StringWriter out = new StringWriter();
-            temp.process(context, out);
-            out.flush();
-            str = out.getBuffer().toString();
+            str = templateCache.render(this.getClass().getResource("input.ftl"), context);
         } catch (Exception e) {
             log.warn("Failed to process template for field '{}': {}", field.getFieldName(), e);
         }
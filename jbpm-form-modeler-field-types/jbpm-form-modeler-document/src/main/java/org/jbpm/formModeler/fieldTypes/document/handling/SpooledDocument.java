@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.fieldTypes.document.handling;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Date;
+
+import org.apache.commons.io.IOUtils;
+import org.jbpm.document.service.impl.DocumentImpl;
+
+/**
+ * Document whose content is kept on a spooled file instead of in memory. The content is only read when it's requested,
+ * usually when the document is persisted, and until then the document just keeps a reference to the file.
+ */
+public class SpooledDocument extends DocumentImpl {
+
+    private File file;
+
+    public SpooledDocument(String identifier, String name, Date lastModified, File file) {
+        super(identifier, name, file.length(), lastModified, identifier);
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the content set on the document or, if there isn't any, the content of the spooled file
+     *
+     * @throws IllegalStateException if the spooled file has already been released or it can't be read
+     */
+    @Override
+    public byte[] getContent() {
+        byte[] content = super.getContent();
+        if (content != null || file == null) return content;
+
+        if (!file.exists()) throw new IllegalStateException("Spooled file '" + file + "' of document '" + getName() + "' doesn't exist.");
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) file.length());
+            transferTo(Channels.newChannel(out));
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Error reading content of document '" + getName() + "' from '" + file + "'.", e);
+        }
+    }
+
+    /**
+     * Opens a stream on the document content, that must be closed by the caller
+     */
+    public InputStream getInputStream() throws IOException {
+        byte[] content = super.getContent();
+        if (content != null) return new ByteArrayInputStream(content);
+        return new FileInputStream(file);
+    }
+
+    /**
+     * Copies the spooled file to the given channel without loading it in memory
+     *
+     * @return the number of bytes copied
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return position;
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+}
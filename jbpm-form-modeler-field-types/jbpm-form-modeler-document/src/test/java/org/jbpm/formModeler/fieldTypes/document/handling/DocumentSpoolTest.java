@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.fieldTypes.document.handling;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import org.jbpm.formModeler.components.renderer.ContextRemovedEvent;
+import org.junit.Test;
+
+public class DocumentSpoolTest extends TestCase {
+
+    protected static final String INPUT_NAME = "ctx-1-document";
+
+    protected DocumentSpool spool;
+    protected JBPMDocumentFieldTypeHandler handler;
+    protected File upload;
+
+    @Override
+    protected void setUp() throws Exception {
+        spool = new DocumentSpool();
+        handler = new JBPMDocumentFieldTypeHandler();
+        Field spoolField = JBPMDocumentFieldTypeHandler.class.getDeclaredField("documentSpool");
+        spoolField.setAccessible(true);
+        spoolField.set(handler, spool);
+
+        upload = File.createTempFile("upload", ".txt");
+        write(upload, "content");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        spool.destroy();
+        upload.delete();
+    }
+
+    @Test
+    public void testUpload() throws Exception {
+        SpooledDocument document = upload(null);
+
+        assertTrue(document.getFile().exists());
+        assertFalse(upload.equals(document.getFile()));
+        assertEquals(upload.getName(), document.getName());
+        assertTrue(Arrays.equals("content".getBytes(), document.getContent()));
+
+        // Later uploads with the same name don't change the spooled document
+        write(upload, "other content");
+        assertTrue(Arrays.equals("content".getBytes(), document.getContent()));
+    }
+
+    @Test
+    public void testReplace() throws Exception {
+        SpooledDocument document = upload(null);
+        SpooledDocument replacement = upload(document);
+
+        assertFalse(document.getFile().exists());
+        assertTrue(replacement.getFile().exists());
+        try {
+            document.getContent();
+            fail("Content read from a released file");
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void testDelete() throws Exception {
+        SpooledDocument document = upload(null);
+
+        Map<String, String[]> parameters = new HashMap<String, String[]>();
+        parameters.put(INPUT_NAME + "_delete", new String[]{"true"});
+        assertNull(handler.getValue(null, INPUT_NAME, parameters, Collections.EMPTY_MAP, null, document));
+        assertFalse(document.getFile().exists());
+    }
+
+    @Test
+    public void testContextRemoval() throws Exception {
+        SpooledDocument document = upload(null);
+        File otherContextFile = spool.spool("other", upload);
+
+        spool.onContextRemoved(new ContextRemovedEvent("ctx"));
+        assertFalse(document.getFile().exists());
+        assertTrue(otherContextFile.exists());
+
+        spool.destroy();
+        assertFalse(otherContextFile.exists());
+    }
+
+    protected SpooledDocument upload(SpooledDocument previous) throws Exception {
+        Map<String, File> files = new HashMap<String, File>();
+        files.put(INPUT_NAME, upload);
+        return (SpooledDocument) handler.getValue(null, INPUT_NAME, Collections.EMPTY_MAP, files, null, previous);
+    }
+
+    protected void write(File file, String content) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes());
+        } finally {
+            out.close();
+        }
+    }
+}
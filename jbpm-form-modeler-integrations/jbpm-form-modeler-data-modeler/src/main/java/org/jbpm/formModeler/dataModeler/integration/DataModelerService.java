@@ -16,15 +16,22 @@
 package org.jbpm.formModeler.dataModeler.integration;
 
 import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.drools.core.util.StringUtils;
+import org.guvnor.common.services.project.builder.events.InvalidateDMOProjectCacheEvent;
+import org.guvnor.common.services.project.model.Project;
 import org.guvnor.common.services.project.service.POMService;
 import org.jbpm.formModeler.api.model.DataHolder;
 import org.jbpm.formModeler.core.config.builders.dataHolder.DataHolderBuildConfig;
@@ -49,6 +56,11 @@ public class DataModelerService implements RangedDataHolderBuilder {
 
     public static final String HOLDER_TYPE_DATA_MODEL = "dataModelerEntry";
 
+    /**
+     * Max number of resource paths whose project root is remembered.
+     */
+    public static final int MAX_CACHED_PATHS = 1024;
+
     private Logger log = LoggerFactory.getLogger( DataModelerService.class );
 
     @Inject
@@ -67,11 +79,25 @@ public class DataModelerService implements RangedDataHolderBuilder {
     @Named("ioStrategy")
     private IOService ioService;
 
+    /**
+     * Resolved projects, DataModels and class loaders by project root, so the holders of the forms in a project don't
+     * resolve the project and build its KieModule metadata again and again. Entries are dropped when the workbench
+     * invalidates the project caches after a change on its resources. The project roots are only kept for the last
+     * used paths, the least recently used ones are resolved again.
+     */
+    private ConcurrentMap<String, ProjectEntry> projects = new ConcurrentHashMap<String, ProjectEntry>();
+    private Map<String, String> projectRootsByPath = Collections.synchronizedMap( new LinkedHashMap<String, String>( 16, 0.75f, true ) {
+        @Override
+        protected boolean removeEldestEntry( Map.Entry<String, String> eldest ) {
+            return size() > MAX_CACHED_PATHS;
+        }
+    } );
+
     @Override
     public Map<String, String> getHolderSources( String path ) {
         Map<String, String> result = new TreeMap<String, String>();
         try {
-            DataModel dataModel = dataModelerService.loadModel( projectService.resolveProject( getPath( path ) ) );
+            DataModel dataModel = getDataModel( getPath( path ) );
             if ( dataModel != null && dataModel.getDataObjects() != null ) {
                 String className = "";
                 for ( DataObject dataObject : dataModel.getDataObjects() ) {
@@ -96,12 +122,15 @@ public class DataModelerService implements RangedDataHolderBuilder {
             dataHolder = new DataModelerDataHolder( config.getHolderId(), config.getInputId(), config.getOutputId(), config.getValue(), config.getRenderColor() );
             isExternal = Boolean.TRUE.equals( config.getAttribute( "supportedType" ) );
         } else {
-            Class holderClass = findHolderClass( config.getValue(), config.getAttribute( "path" ) );
+            ProjectEntry project = getProjectEntry( getPath( path ) );
+            if ( project == null ) {
+                return null;
+            }
+            Class holderClass = findHolderClass( config.getValue(), project );
             if ( holderClass == null ) {
                 return null;
             }
-            DataModel dataModel = dataModelerService.loadModel( projectService.resolveProject( getPath( path ) ) );
-            isExternal = dataModel.isExternal( config.getValue() );
+            isExternal = project.getDataModel().isExternal( config.getValue() );
             dataHolder = new DataModelerDataHolder( config.getHolderId(), config.getInputId(), config.getOutputId(), holderClass, config.getRenderColor() );
         }
 
@@ -112,10 +141,9 @@ public class DataModelerService implements RangedDataHolderBuilder {
     }
 
     private Class findHolderClass( String className,
-                                   String path ) {
-        ClassLoader classLoader = getProjectClassLoader( projectService.resolveProject( getPath( path ) ) );
+                                   ProjectEntry project ) {
         try {
-            return classLoader.loadClass( className );
+            return project.getClassLoader().loadClass( className );
         } catch ( ClassNotFoundException e ) {
             log.warn( "Unable to load class '{}': {}", className, e );
         }
@@ -146,6 +174,10 @@ public class DataModelerService implements RangedDataHolderBuilder {
                                           Path path ) {
         DataModel dataModel = getDataModel( path );
 
+        if ( dataModel == null ) {
+            return null;
+        }
+
         DataObject result = dataModel.getDataObject( className );
 
         if ( result == null ) {
@@ -160,8 +192,58 @@ public class DataModelerService implements RangedDataHolderBuilder {
     }
 
     protected DataModel getDataModel( Path path ) {
-        KieProject project = projectService.resolveProject( path );
-        return dataModelerService.loadModel( project );
+        ProjectEntry project = getProjectEntry( path );
+        if ( project == null ) {
+            return null;
+        }
+        return project.getDataModel();
+    }
+
+    protected ProjectEntry getProjectEntry( Path path ) {
+        if ( path == null ) {
+            return null;
+        }
+
+        String pathKey = path.toURI();
+        String rootKey = projectRootsByPath.get( pathKey );
+        ProjectEntry entry = rootKey == null ? null : projects.get( rootKey );
+
+        if ( entry == null ) {
+            KieProject project = projectService.resolveProject( path );
+            if ( project == null ) {
+                return null;
+            }
+            rootKey = getProjectKey( project );
+            entry = new ProjectEntry( project );
+            ProjectEntry current = projects.putIfAbsent( rootKey, entry );
+            if ( current != null ) {
+                entry = current;
+            }
+            projectRootsByPath.put( pathKey, rootKey );
+        }
+        return entry;
+    }
+
+    public void onInvalidateProjectCache( @Observes final InvalidateDMOProjectCacheEvent event ) {
+        if ( event.getProject() == null ) {
+            return;
+        }
+        invalidateProject( event.getProject() );
+    }
+
+    public void invalidateProject( Project project ) {
+        String rootKey = getProjectKey( project );
+        projects.remove( rootKey );
+        projectRootsByPath.values().removeAll( Collections.singleton( rootKey ) );
+    }
+
+    public void clearProjectCache() {
+        projects.clear();
+        projectRootsByPath.clear();
+    }
+
+    protected String getProjectKey( Project project ) {
+        return project.getRootPath().toURI();
     }
 
     @Override
@@ -185,4 +267,35 @@ public class DataModelerService implements RangedDataHolderBuilder {
         ResourceBundle bundle = ResourceBundle.getBundle( "org.jbpm.formModeler.dataModeler.messages", locale );
         return bundle.getString( "dataHolder_dataModeler" );
     }
+
+    /**
+     * Project data loaded on demand: the DataModel and the class loader are only built the first time they are needed.
+     */
+    protected class ProjectEntry {
+        private final KieProject project;
+        private DataModel dataModel;
+        private ClassLoader classLoader;
+
+        public ProjectEntry( KieProject project ) {
+            this.project = project;
+        }
+
+        public KieProject getProject() {
+            return project;
+        }
+
+        public synchronized DataModel getDataModel() {
+            if ( dataModel == null ) {
+                dataModel = dataModelerService.loadModel( project );
+            }
+            return dataModel;
+        }
+
+        public synchronized ClassLoader getClassLoader() {
+            if ( classLoader == null ) {
+                classLoader = getProjectClassLoader( project );
+            }
+            return classLoader;
+        }
+    }
 }
@@ -16,7 +16,6 @@
 package org.jbpm.formModeler.dataModeler.model;
 
 import org.jbpm.formModeler.api.client.FormRenderContext;
-import org.jbpm.formModeler.api.model.DataFieldHolder;
 import org.jbpm.formModeler.core.model.PojoDataHolder;
 import org.jbpm.formModeler.dataModeler.integration.DataModelerService;
 import org.jbpm.formModeler.kie.services.FormRenderContentMarshallerManager;
@@ -57,17 +56,6 @@ public class DataModelerDataHolder extends PojoDataHolder {
         return super.getClassName();
     }
 
-    @Override
-    public DataFieldHolder getDataFieldHolderById(String fieldHolderId) {
-        if(getFieldHolders()!=null){
-            for(DataFieldHolder dataFieldHolder: getFieldHolders() ){
-                if(dataFieldHolder.getId().equals(fieldHolderId))
-                    return dataFieldHolder;
-            }
-        }
-        return null;
-    }
-
     @Override
     protected Class getHolderClass() throws ClassNotFoundException {
         return holderClass;
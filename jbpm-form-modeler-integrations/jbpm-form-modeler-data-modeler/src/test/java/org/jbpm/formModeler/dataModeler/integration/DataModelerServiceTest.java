@@ -0,0 +1,126 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.dataModeler.integration;
+
+import junit.framework.TestCase;
+import org.guvnor.common.services.project.builder.events.InvalidateDMOProjectCacheEvent;
+import org.junit.Test;
+import org.kie.workbench.common.services.datamodeller.core.DataModel;
+import org.kie.workbench.common.services.shared.project.KieProject;
+import org.kie.workbench.common.services.shared.project.KieProjectService;
+import org.uberfire.backend.vfs.Path;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DataModelerServiceTest extends TestCase {
+
+    protected static final String PROJECT = "default://master@repo/project";
+
+    protected DataModelerService service;
+    protected KieProjectService projectService;
+    protected org.kie.workbench.common.screens.datamodeller.service.DataModelerService dataModelerService;
+    protected KieProject project;
+    protected DataModel dataModel;
+
+    @Override
+    protected void setUp() throws Exception {
+        Path rootPath = createPath( PROJECT );
+        project = mock( KieProject.class );
+        when( project.getRootPath() ).thenReturn( rootPath );
+
+        projectService = mock( KieProjectService.class );
+        when( projectService.resolveProject( any( Path.class ) ) ).thenReturn( project );
+
+        dataModel = mock( DataModel.class );
+        dataModelerService = mock( org.kie.workbench.common.screens.datamodeller.service.DataModelerService.class );
+        when( dataModelerService.loadModel( project ) ).thenReturn( dataModel );
+
+        service = new DataModelerService();
+        setField( "projectService", projectService );
+        setField( "dataModelerService", dataModelerService );
+    }
+
+    @Test
+    public void testProjectCacheHit() {
+        Path invoice = createPath( PROJECT + "/src/main/resources/invoice.form" );
+        Path lines = createPath( PROJECT + "/src/main/resources/lines.form" );
+
+        assertSame( dataModel, service.getDataModel( invoice ) );
+        assertSame( dataModel, service.getDataModel( invoice ) );
+        verify( projectService, times( 1 ) ).resolveProject( invoice );
+
+        // Other paths of the project are resolved once, but share the project entry and its DataModel
+        assertSame( service.getProjectEntry( invoice ), service.getProjectEntry( lines ) );
+        assertSame( dataModel, service.getDataModel( lines ) );
+        verify( projectService, times( 1 ) ).resolveProject( lines );
+        verify( dataModelerService, times( 1 ) ).loadModel( project );
+
+        assertNull( service.getProjectEntry( null ) );
+    }
+
+    @Test
+    public void testInvalidateProjectCache() {
+        Path invoice = createPath( PROJECT + "/src/main/resources/invoice.form" );
+        DataModelerService.ProjectEntry entry = service.getProjectEntry( invoice );
+
+        InvalidateDMOProjectCacheEvent event = mock( InvalidateDMOProjectCacheEvent.class );
+        service.onInvalidateProjectCache( event );
+        assertSame( entry, service.getProjectEntry( invoice ) );
+
+        when( event.getProject() ).thenReturn( project );
+        service.onInvalidateProjectCache( event );
+
+        DataModelerService.ProjectEntry reloaded = service.getProjectEntry( invoice );
+        assertNotSame( entry, reloaded );
+        assertSame( dataModel, reloaded.getDataModel() );
+        verify( projectService, times( 2 ) ).resolveProject( invoice );
+        verify( dataModelerService, times( 1 ) ).loadModel( project );
+
+        service.clearProjectCache();
+        assertNotSame( reloaded, service.getProjectEntry( invoice ) );
+        verify( projectService, times( 3 ) ).resolveProject( invoice );
+    }
+
+    @Test
+    public void testProjectRootsAreBounded() {
+        Path first = createPath( PROJECT + "/src/main/resources/form0.form" );
+        service.getProjectEntry( first );
+        for ( int i = 1; i <= DataModelerService.MAX_CACHED_PATHS; i++ ) {
+            service.getProjectEntry( createPath( PROJECT + "/src/main/resources/form" + i + ".form" ) );
+        }
+
+        // The least recently used path was dropped, but its project is still cached
+        DataModelerService.ProjectEntry entry = service.getProjectEntry( first );
+        verify( projectService, times( 2 ) ).resolveProject( first );
+        assertSame( entry, service.getProjectEntry( createPath( PROJECT + "/src/main/resources/form1.form" ) ) );
+    }
+
+    protected Path createPath( String uri ) {
+        Path path = mock( Path.class );
+        when( path.toURI() ).thenReturn( uri );
+        return path;
+    }
+
+    protected void setField( String name,
+                             Object value ) throws Exception {
+        java.lang.reflect.Field field = DataModelerService.class.getDeclaredField( name );
+        field.setAccessible( true );
+        field.set( service, value );
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 JBoss by Red Hat.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.formModeler.kie.services.form;
+
+import org.jbpm.formModeler.api.model.Form;
+
+/**
+ * Keeps the parsed Forms of the deployments and render contexts so the same form xml isn't parsed on every render
+ * and all the renders of a form share its definition.
+ */
+public interface ParsedFormCache {
+
+    /**
+     * Returns a view of the form parsed from the given content. The parsed template is kept and shared, each call
+     * returns a new view of it (see Form.copyView()).
+     *
+     * @param deploymentId the deployment that owns the form
+     * @param key the form key on the deployment
+     * @param formContent the form xml
+     * @return a view of the parsed form or null if the content is empty
+     */
+    Form getForm(String deploymentId, String key, String formContent) throws Exception;
+
+    void invalidate(String deploymentId, String key);
+
+    void invalidateDeployment(String deploymentId);
+
+    void clear();
+
+    int size();
+
+    long getHits();
+
+    long getMisses();
+
+    long getEvictions();
+}
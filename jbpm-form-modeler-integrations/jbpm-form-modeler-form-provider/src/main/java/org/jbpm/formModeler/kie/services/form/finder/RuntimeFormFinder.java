@@ -26,6 +26,7 @@ import org.jbpm.formModeler.api.model.Form;
 import org.jbpm.formModeler.core.config.FormSerializationManager;
 import org.jbpm.formModeler.core.rendering.FormFinder;
 import org.jbpm.formModeler.kie.services.form.FormManagerService;
+import org.jbpm.formModeler.kie.services.form.ParsedFormCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +42,9 @@ public class RuntimeFormFinder implements FormFinder {
     @Inject
     private FormManagerService formManagerService;
 
+    @Inject
+    private ParsedFormCache parsedFormCache;
+
     @Override
     public Form getForm( String ctxUID ) {
         FormRenderContext renderContext = formRenderContextManager.getRootContext( ctxUID );
@@ -54,14 +58,18 @@ public class RuntimeFormFinder implements FormFinder {
 
         if ( renderContext != null ) {
             try {
-                Object form = formManagerService.getFormByKey( renderContext.getDeploymentId(), formPath );
-                if (form == null) form = renderContext.getContextForms().get( formPath );
+                String formContent = formManagerService.getFormByKey( renderContext.getDeploymentId(), formPath );
+                if ( formContent != null ) {
+                    return parsedFormCache.getForm( renderContext.getDeploymentId(), formPath, formContent );
+                }
+
+                Object form = renderContext.getContextForms().get( formPath );
 
                 if ( form != null ) {
                     if ( form instanceof Form ) {
                         return (Form) form;
                     } else if ( form instanceof String ) {
-                        Form result = formSerializationManager.loadFormFromXML( (String) form );
+                        Form result = parsedFormCache.getForm( renderContext.getDeploymentId(), formPath, (String) form );
                         renderContext.getContextForms().put( formPath, result );
                         return result;
                     }
@@ -94,7 +102,7 @@ public class RuntimeFormFinder implements FormFinder {
                             return ( Form ) form;
                         }
                     } else if ( form instanceof String && form.toString().trim().startsWith( header ) ) {
-                        Form result = formSerializationManager.loadFormFromXML( ( String ) form );
+                        Form result = parsedFormCache.getForm( renderContext.getDeploymentId(), key, ( String ) form );
                         renderContext.getContextForms().put( key, result );
                         return result;
                     }
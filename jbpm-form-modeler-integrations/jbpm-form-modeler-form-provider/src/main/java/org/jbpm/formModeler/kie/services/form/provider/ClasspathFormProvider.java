@@ -25,12 +25,12 @@ import org.jbpm.formModeler.kie.services.form.TaskDefinition;
 public class ClasspathFormProvider extends FreemakerFormProvider {
     @Override
     public String render(String name, ProcessDefinition process, Map<String, Object> renderContext) {
-        return render(name, this.getClass().getResourceAsStream("/forms/DefaultProcess.ftl"), renderContext);
+        return render(this.getClass().getResource("/forms/DefaultProcess.ftl"), renderContext);
     }
 
     @Override
     public String render(String name, TaskDefinition task, ProcessDefinition process, Map<String, Object> renderContext) {
-        return render(name, this.getClass().getResourceAsStream("/forms/DefaultTask.ftl"), renderContext);
+        return render(this.getClass().getResource("/forms/DefaultTask.ftl"), renderContext);
     }
 
     @Override
@@ -15,7 +15,6 @@
 
 package org.jbpm.formModeler.kie.services.form.provider;
 
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
@@ -28,6 +27,7 @@ import org.jbpm.formModeler.core.config.FormSerializationManager;
 import org.jbpm.formModeler.kie.services.FormRenderContentMarshallerManager;
 import org.jbpm.formModeler.kie.services.form.ProcessDefinition;
 import org.jbpm.formModeler.kie.services.form.FormManagerService;
+import org.jbpm.formModeler.kie.services.form.ParsedFormCache;
 import org.jbpm.formModeler.kie.services.form.TaskDefinition;
 import org.kie.internal.task.api.ContentMarshallerContext;
 import org.slf4j.Logger;
@@ -40,6 +40,9 @@ public class FormModelerFormProvider extends AbstractFormProvider {
     @Inject
     private FormSerializationManager formSerializationManager;
 
+    @Inject
+    private ParsedFormCache parsedFormCache;
+
     @Inject
     private FormRenderContextManager formRenderContextManager;
 
@@ -61,12 +64,18 @@ public class FormModelerFormProvider extends AbstractFormProvider {
 
     @Override
     public String render(String name, ProcessDefinition process, Map<String, Object> renderContext) {
-        String templateString = formManagerService.getFormByKey(process.getDeploymentId(), process.getId() + getFormSuffix());
+        String formKey = process.getId() + getFormSuffix();
+        String templateString = formManagerService.getFormByKey(process.getDeploymentId(), formKey);
 
         if (templateString == null || templateString.isEmpty())
             return null;
 
-        return renderProcessForm(process, new ByteArrayInputStream(templateString.getBytes()), renderContext);
+        try {
+            return renderProcessForm(process, parsedFormCache.getForm(process.getDeploymentId(), formKey, templateString), renderContext);
+        } catch (Exception e) {
+            log.warn("Error rendering form: ", e);
+        }
+        return null;
     }
 
     @Override
@@ -79,17 +88,30 @@ public class FormModelerFormProvider extends AbstractFormProvider {
 
         String templateString = formManagerService.getFormByKey(task.getDeploymentId(), lookupName);
 
-        if (templateString != null && !templateString.isEmpty())
-            return renderTaskForm(task, new ByteArrayInputStream( templateString.getBytes() ), renderContext);
+        if (templateString == null || templateString.isEmpty()) return null;
 
+        try {
+            return renderTaskForm(task, parsedFormCache.getForm(task.getDeploymentId(), lookupName, templateString), renderContext);
+        } catch (Exception e) {
+            log.warn("Error rendering form: ", e);
+        }
         return null;
     }
 
     protected String renderTaskForm(TaskDefinition task, InputStream template, Map<String, Object> renderContext) {
-        String result = null;
         try {
-            Form form = formSerializationManager.loadFormFromXML(template);
+            return renderTaskForm(task, formSerializationManager.loadFormFromXML(template), renderContext);
+        } catch (Exception e) {
+            log.warn("Error rendering form: ", e);
+        }
+        return null;
+    }
 
+    protected String renderTaskForm(TaskDefinition task, Form form, Map<String, Object> renderContext) {
+        if (form == null) return null;
+
+        String result = null;
+        try {
             Map inputs = new HashMap();
 
             Map outputs;
@@ -122,10 +144,19 @@ public class FormModelerFormProvider extends AbstractFormProvider {
     }
 
     protected String renderProcessForm(ProcessDefinition process, InputStream template, Map<String, Object> renderContext) {
-        String result = null;
         try {
-            Form form = formSerializationManager.loadFormFromXML(template);
+            return renderProcessForm(process, formSerializationManager.loadFormFromXML(template), renderContext);
+        } catch (Exception e) {
+            log.warn("Error rendering form: ", e);
+        }
+        return null;
+    }
 
+    protected String renderProcessForm(ProcessDefinition process, Form form, Map<String, Object> renderContext) {
+        if (form == null) return null;
+
+        String result = null;
+        try {
             Map ctx = new HashMap();
 
             ctx.put("process", process);
@@ -17,37 +17,55 @@
 package org.jbpm.formModeler.kie.services.form.provider;
 
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringWriter;
+import java.net.URL;
 import java.util.Map;
+import javax.inject.Inject;
 
-
-import freemarker.ext.beans.BeansWrapper;
-import freemarker.template.Template;
+import org.jbpm.formModeler.core.rendering.FreeMarkerTemplateCache;
 
 
 public abstract class FreemakerFormProvider extends AbstractFormProvider {
 
-    
-    
+    @Inject
+    protected FreeMarkerTemplateCache templateCache;
+
     protected String render(String name, InputStream src, Map<String, Object> renderContext) {
-        
-        String str = null;
+        StringWriter template = new StringWriter();
+        try {
+            Reader reader = new InputStreamReader(src);
+            try {
+                char[] buffer = new char[4096];
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    template.write(buffer, 0, read);
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to process form template", e);
+        }
+        return render(name, template.toString(), renderContext);
+    }
+
+    protected String render(String name, String template, Map<String, Object> renderContext) {
+        try {
+            return templateCache.render(name, template, renderContext);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to process form template", e);
+        }
+    }
+
+    protected String render(URL template, Map<String, Object> renderContext) {
         try {
-            freemarker.template.Configuration cfg = new freemarker.template.Configuration();
-            BeansWrapper defaultInstance = new BeansWrapper();
-            defaultInstance.setSimpleMapWrapper(true);
-            cfg.setObjectWrapper(defaultInstance);
-            cfg.setTemplateUpdateDelay(0);
-            Template temp = new Template(name, new InputStreamReader(src), cfg);
-            StringWriter out = new StringWriter();
-            temp.process(renderContext, out);
-            out.flush();
-            str = out.getBuffer().toString();
+            return templateCache.render(template, renderContext);
         } catch (Exception e) {
             throw new RuntimeException("Failed to process form template", e);
         }
-        return str;
     }
 }
@@ -15,7 +15,6 @@
  */
 package org.jbpm.formModeler.kie.services.form.provider;
 
-import java.io.ByteArrayInputStream;
 import java.util.Map;
 
 import javax.inject.Inject;
@@ -40,7 +39,8 @@ public class InMemoryFormProvider extends FreemakerFormProvider {
         if (templateString == null || templateString.isEmpty()) {
             return null;
         } else {
-            return render(name, new ByteArrayInputStream(templateString.getBytes()), renderContext);
+            // Forms of different deployments may have the same key, so templates are cached by deployment and key
+            return render(process.getDeploymentId() + "/" + process.getId(), templateString, renderContext);
         }
     }
 
@@ -57,7 +57,7 @@ public class InMemoryFormProvider extends FreemakerFormProvider {
         if (templateString == null || templateString.isEmpty()) {
             return null;
         } else {
-            return render(name, new ByteArrayInputStream(templateString.getBytes()), renderContext);
+            return render(task.getDeploymentId() + "/" + lookupName, templateString, renderContext);
         }
     }
 
@@ -22,14 +22,18 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 
 import org.jbpm.formModeler.kie.services.form.FormManagerService;
+import org.jbpm.formModeler.kie.services.form.ParsedFormCache;
 
 
 @ApplicationScoped
 public class FormManagerServiceImpl implements FormManagerService {
     private Map<String, Map<String, String>> formsRegistry = new HashMap<String, Map<String, String>>();
 
+    @Inject
+    private ParsedFormCache parsedFormCache;
 
     @Override
     public void registerForm(String deploymentId, String key, String formContent) {
@@ -37,11 +41,13 @@ public class FormManagerServiceImpl implements FormManagerService {
             formsRegistry.put(deploymentId, new HashMap<String, String>());
         }
         formsRegistry.get(deploymentId).put(key, formContent);
+        parsedFormCache.invalidate(deploymentId, key);
     }
 
     @Override
     public void unRegisterForms( String deploymentId ) {
         formsRegistry.remove( deploymentId );
+        parsedFormCache.invalidateDeployment( deploymentId );
     }
 
     @Override
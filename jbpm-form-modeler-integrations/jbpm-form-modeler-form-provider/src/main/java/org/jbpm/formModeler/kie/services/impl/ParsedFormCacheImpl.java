@@ -0,0 +1,187 @@
+/*
+ * Copyright 2016 JBoss by Red Hat.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jbpm.formModeler.kie.services.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.jbpm.formModeler.api.model.Form;
+import org.jbpm.formModeler.core.config.FormSerializationManager;
+import org.jbpm.formModeler.kie.services.form.ParsedFormCache;
+
+@ApplicationScoped
+public class ParsedFormCacheImpl implements ParsedFormCache {
+    public static final int DEFAULT_MAX_SIZE = 500;
+
+    @Inject
+    private FormSerializationManager formSerializationManager;
+
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final Map<CacheKey, CacheEntry> templates = new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+            if (size() > maxSize) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    @Override
+    public Form getForm(String deploymentId, String key, String formContent) throws Exception {
+        if (formContent == null || formContent.trim().length() == 0) return null;
+
+        CacheKey cacheKey = new CacheKey(deploymentId, key, formContent.hashCode());
+
+        CacheEntry entry;
+        synchronized (templates) {
+            entry = templates.get(cacheKey);
+        }
+
+        if (entry != null && entry.content.equals(formContent)) {
+            hits.incrementAndGet();
+            return entry.template.copyView();
+        }
+
+        misses.incrementAndGet();
+
+        // Parsing is done outside the lock, concurrent misses on the same form may parse it twice but they won't
+        // block the renders of other forms.
+        Form template = formSerializationManager.loadFormFromXML(formContent);
+        if (template == null) return null;
+
+        synchronized (templates) {
+            templates.put(cacheKey, new CacheEntry(formContent, template));
+        }
+
+        return template.copyView();
+    }
+
+    @Override
+    public void invalidate(String deploymentId, String key) {
+        synchronized (templates) {
+            for (Iterator<CacheKey> it = templates.keySet().iterator(); it.hasNext();) {
+                CacheKey cacheKey = it.next();
+                if (cacheKey.matches(deploymentId, key)) it.remove();
+            }
+        }
+    }
+
+    @Override
+    public void invalidateDeployment(String deploymentId) {
+        synchronized (templates) {
+            for (Iterator<CacheKey> it = templates.keySet().iterator(); it.hasNext();) {
+                CacheKey cacheKey = it.next();
+                if (equals(deploymentId, cacheKey.deploymentId)) it.remove();
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (templates) {
+            templates.clear();
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (templates) {
+            return templates.size();
+        }
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("Cache size must be greater than 0");
+        this.maxSize = maxSize;
+    }
+
+    protected static boolean equals(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    protected static class CacheKey {
+        private final String deploymentId;
+        private final String key;
+        private final int contentHash;
+
+        public CacheKey(String deploymentId, String key, int contentHash) {
+            this.deploymentId = deploymentId;
+            this.key = key;
+            this.contentHash = contentHash;
+        }
+
+        public boolean matches(String deploymentId, String key) {
+            return ParsedFormCacheImpl.equals(this.deploymentId, deploymentId) && ParsedFormCacheImpl.equals(this.key, key);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CacheKey)) return false;
+            CacheKey other = (CacheKey) o;
+            return contentHash == other.contentHash && matches(other.deploymentId, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = deploymentId != null ? deploymentId.hashCode() : 0;
+            result = 31 * result + (key != null ? key.hashCode() : 0);
+            result = 31 * result + contentHash;
+            return result;
+        }
+    }
+
+    protected static class CacheEntry {
+        private final String content;
+        private final Form template;
+
+        public CacheEntry(String content, Form template) {
+            this.content = content;
+            this.template = template;
+        }
+    }
+}
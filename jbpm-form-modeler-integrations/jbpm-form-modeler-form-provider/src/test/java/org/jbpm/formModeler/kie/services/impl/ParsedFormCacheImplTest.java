@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.kie.services.impl;
+
+import java.lang.reflect.Field;
+import java.util.TreeSet;
+
+import junit.framework.TestCase;
+import org.jbpm.formModeler.api.model.Form;
+import org.jbpm.formModeler.core.config.FormSerializationManager;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ParsedFormCacheImplTest extends TestCase {
+
+    protected static final String DEPLOYMENT = "org.jbpm:evaluation:1.0";
+    protected static final String FORM = "<form id=\"1\"><name>evaluation</name></form>";
+
+    protected FormSerializationManager formSerializationManager;
+    protected ParsedFormCacheImpl cache;
+    protected FormManagerServiceImpl formManagerService;
+
+    @Override
+    protected void setUp() throws Exception {
+        formSerializationManager = mock(FormSerializationManager.class);
+        when(formSerializationManager.loadFormFromXML(anyString())).thenAnswer(new Answer<Form>() {
+            @Override
+            public Form answer(InvocationOnMock invocation) throws Throwable {
+                Form form = new Form();
+                form.setName((String) invocation.getArguments()[0]);
+                form.setFormFields(new TreeSet());
+                return form;
+            }
+        });
+
+        cache = new ParsedFormCacheImpl();
+        inject(cache, "formSerializationManager", formSerializationManager);
+
+        formManagerService = new FormManagerServiceImpl();
+        inject(formManagerService, "parsedFormCache", cache);
+    }
+
+    @Test
+    public void testHitsOnEqualContent() throws Exception {
+        Form form = cache.getForm(DEPLOYMENT, "evaluation", FORM);
+        Form other = cache.getForm(DEPLOYMENT, "evaluation", new String(FORM));
+
+        verify(formSerializationManager, times(1)).loadFormFromXML(anyString());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+
+        // Every caller gets its own view of the parsed form
+        assertNotSame(form, other);
+        assertTrue(other.isSharingDefinition());
+        assertSame(form.getFieldsSource(), other.getFieldsSource());
+    }
+
+    @Test
+    public void testChangedContentIsParsedAgain() throws Exception {
+        cache.getForm(DEPLOYMENT, "evaluation", FORM);
+        Form changed = cache.getForm(DEPLOYMENT, "evaluation", FORM + " ");
+
+        assertEquals(FORM + " ", changed.getName());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getHits());
+
+        cache.getForm(DEPLOYMENT, "other", FORM);
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testRegisterInvalidatesTheForm() throws Exception {
+        cache.getForm(DEPLOYMENT, "evaluation", FORM);
+        cache.getForm(DEPLOYMENT, "review", FORM);
+
+        formManagerService.registerForm(DEPLOYMENT, "evaluation", FORM);
+        assertEquals(1, cache.size());
+
+        cache.getForm(DEPLOYMENT, "evaluation", FORM);
+        cache.getForm(DEPLOYMENT, "review", FORM);
+        assertEquals(3, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testUnregisterInvalidatesTheDeployment() throws Exception {
+        cache.getForm(DEPLOYMENT, "evaluation", FORM);
+        cache.getForm(DEPLOYMENT, "review", FORM);
+        cache.getForm("org.jbpm:other:1.0", "evaluation", FORM);
+
+        formManagerService.unRegisterForms(DEPLOYMENT);
+        assertEquals(1, cache.size());
+
+        cache.getForm("org.jbpm:other:1.0", "evaluation", FORM);
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        cache.setMaxSize(1);
+        cache.getForm(DEPLOYMENT, "evaluation", FORM);
+        cache.getForm(DEPLOYMENT, "review", FORM);
+
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictions());
+
+        cache.getForm(DEPLOYMENT, "evaluation", FORM);
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void testEmptyContent() throws Exception {
+        assertNull(cache.getForm(DEPLOYMENT, "evaluation", " "));
+        assertNull(cache.getForm(DEPLOYMENT, "evaluation", null));
+        verify(formSerializationManager, times(0)).loadFormFromXML(anyString());
+    }
+
+    protected void inject(Object target, String fieldName, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
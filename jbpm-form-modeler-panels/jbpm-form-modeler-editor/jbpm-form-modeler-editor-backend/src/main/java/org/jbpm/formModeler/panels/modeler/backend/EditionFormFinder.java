@@ -29,6 +29,7 @@ import org.jbpm.formModeler.api.client.FormEditorContextManager;
 import org.jbpm.formModeler.api.model.Form;
 import org.jbpm.formModeler.core.config.FormSerializationManager;
 import org.jbpm.formModeler.core.rendering.FormFinder;
+import org.jbpm.formModeler.panels.modeler.backend.indexing.FormIdIndex;
 import org.kie.workbench.common.services.datamodeller.util.FileUtils;
 import org.kie.workbench.common.services.shared.project.KieProjectService;
 import org.slf4j.Logger;
@@ -40,6 +41,8 @@ import org.uberfire.io.IOService;
 public class EditionFormFinder implements FormFinder {
     public static final String MAIN_RESOURCES_PATH = "src/main/resources";
 
+    protected static final String FORM_HEADER_PREFIX = "<form id=\"";
+
     private Logger log = LoggerFactory.getLogger( EditionFormFinder.class );
 
     @Inject
@@ -55,6 +58,9 @@ public class EditionFormFinder implements FormFinder {
     @Inject
     private FormEditorContextManager formEditorContextManager;
 
+    @Inject
+    private FormIdIndex formIdIndex;
+
     @Override
     public Form getForm( String ctxUID ) {
         FormEditorContext context = formEditorContextManager.getRootEditorContext( ctxUID );
@@ -95,33 +101,103 @@ public class EditionFormFinder implements FormFinder {
 
                 Project project = projectService.resolveProject( currentForm );
 
-                FileUtils utils = FileUtils.getInstance();
+                return findFormById( project, formId );
+            } catch ( Exception e ) {
+                log.warn( "Error getting form {} from context {}: {}", formId, ctxUID, e );
+            }
 
-                List<org.uberfire.java.nio.file.Path> nioPaths = new ArrayList<org.uberfire.java.nio.file.Path>();
-                nioPaths.add( Paths.convert( project.getRootPath() ) );
+        }
+        return null;
+    }
 
-                Collection<FileUtils.ScanResult> forms = utils.scan( ioService, nioPaths, "form", true );
+    /**
+     * Looks for the form on the path the index has for it, or else scans the project.
+     */
+    protected Form findFormById( Project project, long formId ) throws Exception {
+        String projectURI = project.getRootPath().toURI();
 
-                String header = formSerializationManager.generateHeaderFormFormId( formId );
+        Form form = getIndexedForm( projectURI, formId );
 
-                for ( FileUtils.ScanResult form : forms ) {
-                    org.uberfire.java.nio.file.Path formPath = form.getFile();
-                    org.uberfire.java.nio.file.Path path = Paths.convert( project.getRootPath() ).resolve( MAIN_RESOURCES_PATH ).resolve( formPath );
+        if ( form != null ) return form;
 
-                    String xml = ioService.readAllString( path ).trim();
+        return scanProjectForms( project, projectURI, formId );
+    }
 
-                    if ( xml.startsWith( header ) ) {
-                        return formSerializationManager.loadFormFromXML( xml );
-                    }
-                }
-            } catch ( Exception e ) {
-                log.warn( "Error getting form {} from context {}: {}", formId, ctxUID, e );
+    /**
+     * Scans the project indexing all the forms found, used when the form isn't indexed yet.
+     */
+    protected Form scanProjectForms( Project project, String projectURI, long formId ) throws Exception {
+        Form form = null;
+
+        FileUtils utils = FileUtils.getInstance();
+
+        List<org.uberfire.java.nio.file.Path> nioPaths = new ArrayList<org.uberfire.java.nio.file.Path>();
+        nioPaths.add( Paths.convert( project.getRootPath() ) );
+
+        Collection<FileUtils.ScanResult> forms = utils.scan( ioService, nioPaths, "form", true );
+
+        for ( FileUtils.ScanResult scanResult : forms ) {
+            org.uberfire.java.nio.file.Path formPath = scanResult.getFile();
+            org.uberfire.java.nio.file.Path path = Paths.convert( project.getRootPath() ).resolve( MAIN_RESOURCES_PATH ).resolve( formPath );
+
+            String xml = ioService.readAllString( path ).trim();
+
+            Long id = getFormId( xml );
+
+            if ( id == null ) continue;
+
+            formIdIndex.addForm( projectURI, id, path.toUri().toString() );
+
+            if ( form == null && id.longValue() == formId ) {
+                form = formSerializationManager.loadFormFromXML( xml );
             }
+        }
+        return form;
+    }
+
+    /**
+     * Reads the form from the path the index has for it, checking the file still contains that form.
+     */
+    protected Form getIndexedForm( String projectURI, long formId ) {
+        String formURI = formIdIndex.getFormURI( projectURI, formId );
+
+        if ( formURI == null ) return null;
+
+        try {
+            org.uberfire.java.nio.file.Path path = ioService.get( new URI( formURI ) );
+
+            if ( ioService.exists( path ) ) {
+                String xml = ioService.readAllString( path ).trim();
 
+                Long id = getFormId( xml );
+
+                if ( id != null && id.longValue() == formId ) return formSerializationManager.loadFormFromXML( xml );
+            }
+        } catch ( Exception e ) {
+            log.debug( "Error reading indexed form {} from {}: {}", formId, formURI, e );
         }
+
+        formIdIndex.removeForm( projectURI, formId, formURI );
         return null;
     }
 
+    /**
+     * Reads the form id from the form header, without parsing the whole form.
+     */
+    protected Long getFormId( String xml ) {
+        if ( !xml.startsWith( FORM_HEADER_PREFIX ) ) return null;
+
+        int endIndex = xml.indexOf( '"', FORM_HEADER_PREFIX.length() );
+
+        if ( endIndex == -1 ) return null;
+
+        try {
+            return Long.valueOf( xml.substring( FORM_HEADER_PREFIX.length(), endIndex ) );
+        } catch ( NumberFormatException e ) {
+            return null;
+        }
+    }
+
     @Override
     public int getPriority() {
         return 0;
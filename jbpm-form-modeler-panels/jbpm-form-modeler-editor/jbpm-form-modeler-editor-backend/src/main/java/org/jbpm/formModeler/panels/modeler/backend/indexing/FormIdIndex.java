@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014 JBoss, by Red Hat, Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.panels.modeler.backend.indexing;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * Paths of the form files of each project by form id, so forms can be found by id without scanning the whole project.
+ * It's filled by the FormIndexer each time a form file is indexed. Entries aren't removed when files are deleted or
+ * moved, so the form read from the path must be checked before using it.
+ */
+@ApplicationScoped
+public class FormIdIndex {
+
+    // Form file URIs by form id, by project root URI
+    private final ConcurrentMap<String, ConcurrentMap<Long, String>> projectForms = new ConcurrentHashMap<String, ConcurrentMap<Long, String>>();
+
+    public void addForm( String projectURI, Long formId, String formURI ) {
+        if ( projectURI == null || formId == null || formURI == null ) return;
+
+        ConcurrentMap<Long, String> forms = projectForms.get( projectURI );
+        if ( forms == null ) {
+            ConcurrentMap<Long, String> newForms = new ConcurrentHashMap<Long, String>();
+            forms = projectForms.putIfAbsent( projectURI, newForms );
+            if ( forms == null ) forms = newForms;
+        }
+        forms.put( formId, formURI );
+    }
+
+    public String getFormURI( String projectURI, Long formId ) {
+        if ( projectURI == null || formId == null ) return null;
+
+        ConcurrentMap<Long, String> forms = projectForms.get( projectURI );
+        return forms != null ? forms.get( formId ) : null;
+    }
+
+    public void removeForm( String projectURI, Long formId, String formURI ) {
+        if ( projectURI == null || formId == null || formURI == null ) return;
+
+        ConcurrentMap<Long, String> forms = projectForms.get( projectURI );
+        if ( forms != null ) forms.remove( formId, formURI );
+    }
+
+    public void clear() {
+        projectForms.clear();
+    }
+}
@@ -54,6 +54,9 @@ public class FormIndexer implements Indexer {
     @Inject
     protected FormResourceTypeDefinition formType;
 
+    @Inject
+    protected FormIdIndex formIdIndex;
+
     @Override
     public boolean supportsPath( final Path path ) {
         return formType.accept( Paths.convert( path ) );
@@ -70,6 +73,10 @@ public class FormIndexer implements Indexer {
             final Project project = projectService.resolveProject( Paths.convert( path ) );
             final Package pkg = projectService.resolvePackage( Paths.convert( path ) );
 
+            if ( project != null && form != null ) {
+                formIdIndex.addForm( project.getRootPath().toURI(), form.getId(), path.toUri().toString() );
+            }
+
             final DefaultIndexBuilder builder = new DefaultIndexBuilder( project,
                                                                          pkg );
 
@@ -48,7 +48,11 @@ public class FormVisitor {
 
     protected void visit(Form form) {
 
-        builder.addGenerator(new FormIndexGenerator(new ValueFormIndexTerm( form.getName())));
+        if (form.getId() != null) {
+            builder.addGenerator(new FormIndexGenerator(new ValueFormIndexTerm( form.getName()), new ValueFormIdIndexTerm(form.getId().toString())));
+        } else {
+            builder.addGenerator(new FormIndexGenerator(new ValueFormIndexTerm( form.getName())));
+        }
 
         for (Field field : form.getFormFields()) {
             visit(field);
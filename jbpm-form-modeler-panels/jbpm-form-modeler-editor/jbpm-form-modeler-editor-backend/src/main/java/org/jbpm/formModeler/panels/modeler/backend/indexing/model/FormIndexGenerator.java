@@ -15,6 +15,7 @@
  */
 package org.jbpm.formModeler.panels.modeler.backend.indexing.model;
 
+import org.jbpm.formModeler.panels.modeler.backend.indexing.model.terms.valueterms.ValueFormIdIndexTerm;
 import org.jbpm.formModeler.panels.modeler.backend.indexing.model.terms.valueterms.ValueFormIndexTerm;
 import org.kie.workbench.common.services.refactoring.model.index.IndexElementsGenerator;
 import org.uberfire.commons.data.Pair;
@@ -26,15 +27,22 @@ import java.util.List;
 public class FormIndexGenerator implements IndexElementsGenerator {
 
     private ValueFormIndexTerm formTerm;
+    private ValueFormIdIndexTerm formIdTerm;
 
     public FormIndexGenerator(ValueFormIndexTerm formTerm) {
         this.formTerm = PortablePreconditions.checkNotNull("formTerm", formTerm);
     }
 
+    public FormIndexGenerator(ValueFormIndexTerm formTerm, ValueFormIdIndexTerm formIdTerm) {
+        this(formTerm);
+        this.formIdTerm = PortablePreconditions.checkNotNull("formIdTerm", formIdTerm);
+    }
+
     @Override
     public List<Pair<String, String>> toIndexElements() {
         final List<Pair<String, String>> indexElements = new ArrayList<Pair<String, String>>();
         indexElements.add(new Pair<String, String>(formTerm.getTerm(), formTerm.getValue()));
+        if (formIdTerm != null) indexElements.add(new Pair<String, String>(formIdTerm.getTerm(), formIdTerm.getValue()));
         return indexElements;
     }
 }
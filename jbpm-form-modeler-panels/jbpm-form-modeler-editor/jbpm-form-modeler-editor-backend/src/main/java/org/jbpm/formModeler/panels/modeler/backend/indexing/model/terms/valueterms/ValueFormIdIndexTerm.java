@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 JBoss, by Red Hat, Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jbpm.formModeler.panels.modeler.backend.indexing.model.terms.valueterms;
+
+import org.jbpm.formModeler.panels.modeler.backend.indexing.model.terms.FormIdIndexTerm;
+import org.jboss.errai.common.client.api.annotations.Portable;
+import org.kie.workbench.common.services.refactoring.model.index.terms.valueterms.ValueIndexTerm;
+import org.uberfire.commons.validation.PortablePreconditions;
+
+@Portable
+public class ValueFormIdIndexTerm extends FormIdIndexTerm implements ValueIndexTerm {
+
+    private String formId;
+
+    public ValueFormIdIndexTerm() {
+        //Errai marshalling
+    }
+
+    public ValueFormIdIndexTerm(final String formId) {
+        this.formId = PortablePreconditions.checkNotNull("formId", formId);
+    }
+
+    @Override
+    public String getValue() {
+        return formId;
+    }
+}
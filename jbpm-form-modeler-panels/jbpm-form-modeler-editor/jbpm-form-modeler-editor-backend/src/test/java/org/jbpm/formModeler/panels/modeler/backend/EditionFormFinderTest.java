@@ -0,0 +1,180 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.panels.modeler.backend;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import org.guvnor.common.services.project.model.Project;
+import org.jbpm.formModeler.api.model.Form;
+import org.jbpm.formModeler.core.config.FormSerializationManager;
+import org.jbpm.formModeler.panels.modeler.backend.indexing.FormIdIndex;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.uberfire.backend.vfs.Path;
+import org.uberfire.io.IOService;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EditionFormFinderTest extends TestCase {
+
+    protected static final String PROJECT = "default://master@repo/project";
+
+    protected IOService ioService;
+    protected FormSerializationManager formSerializationManager;
+    protected FormIdIndex formIdIndex;
+    protected Project project;
+
+    // Contents of the form files by URI
+    protected Map<String, String> files = new HashMap<String, String>();
+    protected Map<String, Form> forms = new HashMap<String, Form>();
+
+    protected TestFinder finder;
+
+    @Override
+    protected void setUp() throws Exception {
+        ioService = mock(IOService.class);
+        when(ioService.get(any(URI.class))).thenAnswer(new Answer<org.uberfire.java.nio.file.Path>() {
+            @Override
+            public org.uberfire.java.nio.file.Path answer(InvocationOnMock invocation) throws Throwable {
+                // Named mocks return their name on toString(), so the path is the file URI
+                return mock(org.uberfire.java.nio.file.Path.class, invocation.getArguments()[0].toString());
+            }
+        });
+        when(ioService.exists(any(org.uberfire.java.nio.file.Path.class))).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                return files.containsKey(invocation.getArguments()[0].toString());
+            }
+        });
+        when(ioService.readAllString(any(org.uberfire.java.nio.file.Path.class))).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) throws Throwable {
+                return files.get(invocation.getArguments()[0].toString());
+            }
+        });
+
+        formSerializationManager = mock(FormSerializationManager.class);
+        when(formSerializationManager.loadFormFromXML(anyString())).thenAnswer(new Answer<Form>() {
+            @Override
+            public Form answer(InvocationOnMock invocation) throws Throwable {
+                return forms.get(invocation.getArguments()[0]);
+            }
+        });
+
+        Path rootPath = mock(Path.class);
+        when(rootPath.toURI()).thenReturn(PROJECT);
+        project = mock(Project.class);
+        when(project.getRootPath()).thenReturn(rootPath);
+
+        formIdIndex = new FormIdIndex();
+
+        finder = new TestFinder();
+        setField("ioService", ioService);
+        setField("formSerializationManager", formSerializationManager);
+        setField("formIdIndex", formIdIndex);
+    }
+
+    @Test
+    public void testIndexedForm() throws Exception {
+        Form invoice = addFormFile(PROJECT + "/invoice.form", 1L);
+        formIdIndex.addForm(PROJECT, 1L, PROJECT + "/invoice.form");
+
+        assertSame(invoice, finder.findFormById(project, 1L));
+        assertEquals(0, finder.scans);
+    }
+
+    @Test
+    public void testFallbackToScanWhenNotIndexed() throws Exception {
+        Form invoice = addFormFile(PROJECT + "/invoice.form", 1L);
+        Form lines = addFormFile(PROJECT + "/lines.form", 2L);
+
+        assertSame(invoice, finder.findFormById(project, 1L));
+        assertEquals(1, finder.scans);
+
+        // The scan indexed all the forms of the project
+        assertEquals(PROJECT + "/lines.form", formIdIndex.getFormURI(PROJECT, 2L));
+        assertSame(lines, finder.findFormById(project, 2L));
+        assertSame(invoice, finder.findFormById(project, 1L));
+        assertEquals(1, finder.scans);
+
+        assertNull(finder.findFormById(project, 3L));
+        assertEquals(2, finder.scans);
+    }
+
+    @Test
+    public void testStaleIndexEntries() throws Exception {
+        Form invoice = addFormFile(PROJECT + "/invoice.form", 1L);
+
+        // The indexed file now contains another form
+        formIdIndex.addForm(PROJECT, 2L, PROJECT + "/invoice.form");
+        assertNull(finder.getIndexedForm(PROJECT, 2L));
+        assertNull(formIdIndex.getFormURI(PROJECT, 2L));
+
+        // The indexed file was deleted or moved
+        formIdIndex.addForm(PROJECT, 1L, PROJECT + "/deleted.form");
+        assertSame(invoice, finder.findFormById(project, 1L));
+        assertEquals(1, finder.scans);
+        assertEquals(PROJECT + "/invoice.form", formIdIndex.getFormURI(PROJECT, 1L));
+    }
+
+    @Test
+    public void testGetFormId() {
+        assertEquals(Long.valueOf(12), finder.getFormId("<form id=\"12\"><property name=\"name\" value=\"test\"/></form>"));
+        assertNull(finder.getFormId("<?xml version=\"1.0\"?><form id=\"12\"></form>"));
+        assertNull(finder.getFormId("<form id=\"twelve\"></form>"));
+        assertNull(finder.getFormId("<form id=\"12"));
+    }
+
+    protected Form addFormFile(String uri, long id) {
+        String xml = "<form id=\"" + id + "\"><property name=\"name\" value=\"form" + id + "\"/></form>";
+        Form form = new Form();
+        form.setId(id);
+        files.put(uri, xml);
+        forms.put(xml, form);
+        return form;
+    }
+
+    protected void setField(String name, Object value) throws Exception {
+        java.lang.reflect.Field field = EditionFormFinder.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(finder, value);
+    }
+
+    /**
+     * Scans the form files of the test instead of the project file system.
+     */
+    protected class TestFinder extends EditionFormFinder {
+        protected int scans = 0;
+
+        @Override
+        protected Form scanProjectForms(Project project, String projectURI, long formId) throws Exception {
+            scans++;
+            Form form = null;
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                Long id = getFormId(file.getValue());
+                formIdIndex.addForm(projectURI, id, file.getKey());
+                if (id.longValue() == formId) form = forms.get(file.getValue());
+            }
+            return form;
+        }
+    }
+}
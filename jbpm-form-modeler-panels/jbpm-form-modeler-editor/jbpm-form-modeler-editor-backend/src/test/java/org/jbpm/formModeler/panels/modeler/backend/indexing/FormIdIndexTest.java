@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+*/
+package org.jbpm.formModeler.panels.modeler.backend.indexing;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+import org.jbpm.formModeler.panels.modeler.backend.indexing.model.FormIndexGenerator;
+import org.jbpm.formModeler.panels.modeler.backend.indexing.model.terms.FormIdIndexTerm;
+import org.jbpm.formModeler.panels.modeler.backend.indexing.model.terms.valueterms.ValueFormIdIndexTerm;
+import org.jbpm.formModeler.panels.modeler.backend.indexing.model.terms.valueterms.ValueFormIndexTerm;
+import org.junit.Test;
+import org.uberfire.commons.data.Pair;
+
+public class FormIdIndexTest extends TestCase {
+
+    protected static final String PROJECT = "default://master@repo/project";
+    protected static final String OTHER_PROJECT = "default://master@repo/other";
+
+    protected FormIdIndex index;
+
+    @Override
+    protected void setUp() throws Exception {
+        index = new FormIdIndex();
+    }
+
+    @Test
+    public void testFormsByProject() {
+        index.addForm(PROJECT, 1L, PROJECT + "/invoice.form");
+        index.addForm(PROJECT, 2L, PROJECT + "/lines.form");
+        index.addForm(OTHER_PROJECT, 1L, OTHER_PROJECT + "/invoice.form");
+
+        assertEquals(PROJECT + "/invoice.form", index.getFormURI(PROJECT, 1L));
+        assertEquals(PROJECT + "/lines.form", index.getFormURI(PROJECT, 2L));
+        assertEquals(OTHER_PROJECT + "/invoice.form", index.getFormURI(OTHER_PROJECT, 1L));
+        assertNull(index.getFormURI(OTHER_PROJECT, 2L));
+        assertNull(index.getFormURI("default://master@repo/unknown", 1L));
+
+        // A moved form is indexed again with its new path
+        index.addForm(PROJECT, 1L, PROJECT + "/moved.form");
+        assertEquals(PROJECT + "/moved.form", index.getFormURI(PROJECT, 1L));
+
+        index.clear();
+        assertNull(index.getFormURI(PROJECT, 2L));
+    }
+
+    @Test
+    public void testRemoveForm() {
+        index.addForm(PROJECT, 1L, PROJECT + "/invoice.form");
+
+        // Only the entry pointing to the given path is removed, the form may have been indexed again meanwhile
+        index.removeForm(PROJECT, 1L, PROJECT + "/old.form");
+        assertEquals(PROJECT + "/invoice.form", index.getFormURI(PROJECT, 1L));
+
+        index.removeForm(PROJECT, 1L, PROJECT + "/invoice.form");
+        assertNull(index.getFormURI(PROJECT, 1L));
+    }
+
+    @Test
+    public void testNullsAreIgnored() {
+        index.addForm(null, 1L, PROJECT + "/invoice.form");
+        index.addForm(PROJECT, null, PROJECT + "/invoice.form");
+        index.addForm(PROJECT, 1L, null);
+        index.removeForm(PROJECT, null, null);
+
+        assertNull(index.getFormURI(PROJECT, 1L));
+        assertNull(index.getFormURI(null, 1L));
+        assertNull(index.getFormURI(PROJECT, null));
+    }
+
+    @Test
+    public void testFormIdIndexTerm() {
+        ValueFormIdIndexTerm term = new ValueFormIdIndexTerm("12");
+        assertEquals(FormIdIndexTerm.TERM, term.getTerm());
+        assertEquals("12", term.getValue());
+
+        List<Pair<String, String>> elements = new FormIndexGenerator(new ValueFormIndexTerm("invoice"), term).toIndexElements();
+        assertEquals(2, elements.size());
+        assertEquals(FormIdIndexTerm.TERM, elements.get(1).getK1());
+        assertEquals("12", elements.get(1).getK2());
+
+        assertEquals(1, new FormIndexGenerator(new ValueFormIndexTerm("invoice")).toIndexElements().size());
+
+        try {
+            new ValueFormIdIndexTerm(null);
+            fail("The form id is required");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
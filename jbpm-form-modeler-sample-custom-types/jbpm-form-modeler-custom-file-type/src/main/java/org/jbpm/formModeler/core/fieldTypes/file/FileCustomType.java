@@ -15,11 +15,10 @@
  */
 package org.jbpm.formModeler.core.fieldTypes.file;
 
-import freemarker.ext.beans.BeansWrapper;
-import freemarker.template.Template;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
 import org.jbpm.formModeler.core.fieldTypes.CustomFieldType;
+import org.jbpm.formModeler.core.rendering.FreeMarkerTemplateCache;
 import org.jbpm.formModeler.service.bb.mvc.components.URLMarkupGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,9 +26,6 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 import java.io.File;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.StringWriter;
 import java.text.DecimalFormat;
 import java.util.HashMap;
 import java.util.Locale;
@@ -55,6 +51,9 @@ public class FileCustomType implements CustomFieldType {
     @Inject
     private URLMarkupGenerator urlMarkupGenerator;
 
+    @Inject
+    private FreeMarkerTemplateCache templateCache;
+
     protected String dropIcon;
     protected String iconFolder;
     protected String defaultFileIcon;
@@ -191,17 +190,7 @@ public class FileCustomType implements CustomFieldType {
             // If the field is readonly or we are just showing the field value we will hide the input file.
             context.put("showInput", showInput);
 
-            InputStream src = this.getClass().getResourceAsStream("input.ftl");
-            freemarker.template.Configuration cfg = new freemarker.template.Configuration();
-            BeansWrapper defaultInstance = new BeansWrapper();
-            defaultInstance.setSimpleMapWrapper(true);
-            cfg.setObjectWrapper(defaultInstance);
-            cfg.setTemplateUpdateDelay(0);
-            Template temp = new Template(fieldName, new InputStreamReader(src), cfg);
-            StringWriter out = new StringWriter();
-            temp.process(context, out);
-            out.flush();
-            str = out.getBuffer().toString();
+            str = templateCache.render(this.getClass().getResource("input.ftl"), context);
         } catch (Exception e) {
             log.warn("Failed to process template for field '{}'", fieldName, e);
         }